@@ -1,6 +1,7 @@
 package data;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 
 public class DoubleType implements UserType {
     public String typeName() { return "Double"; }
@@ -18,15 +19,25 @@ public class DoubleType implements UserType {
         if (ss == null || ss.trim().length() == 0) return Double.valueOf(0.0);
         return Double.valueOf(Double.parseDouble(ss.trim()));
     }
-    public Comparator getTypeComparator() {
-        return new Comparator() {
-            public int compare(Object o1, Object o2) {
-                Double a = (Double)o1; Double b = (Double)o2;
-                return Double.compare(a, b);
-            }
-        };
-    }
+    private static final Comparator COMPARATOR = new Comparator() {
+        public int compare(Object o1, Object o2) {
+            Double a = (Double)o1; Double b = (Double)o2;
+            return Double.compare(a, b);
+        }
+    };
+    public Comparator getTypeComparator() { return COMPARATOR; }
     public String serialize(Object obj) { return obj == null ? "" : obj.toString(); }
     public Object deserialize(String s) { return parseValue(s); }
+    public int fixedWidth() { return 8; }
+    public void writeFixed(ByteBuffer buf, int pos, Object obj) { buf.putDouble(pos, (Double)obj); }
+    public Object readFixed(ByteBuffer buf, int pos) { return Double.valueOf(buf.getDouble(pos)); }
+    public boolean hasSortKey() { return true; }
+    public long sortKey(Object obj) { return sortKeyOf((Double)obj); }
+    public boolean isSortKeyExact() { return true; }
+    // Биты double, упорядоченные как Double.compare: у отрицательных инвертируем всё, кроме знака
+    public static long sortKeyOf(double d) {
+        long bits = Double.doubleToLongBits(d);
+        return bits >= 0 ? bits : bits ^ Long.MAX_VALUE;
+    }
     public String toString() { return typeName(); }
 }
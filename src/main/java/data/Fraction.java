@@ -37,6 +37,17 @@ public class Fraction {
         double d = den;
         return w + (n / d);
     }
+    // Равенство по значению: после normalize дробь несократима и den > 0,
+    // поэтому пара (whole * den + num, den) однозначна
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Fraction)) return false;
+        Fraction f = (Fraction) o;
+        return den == f.den && whole * den + num == f.whole * f.den + f.num;
+    }
+    public int hashCode() {
+        return Long.hashCode(whole * den + num) * 31 + Long.hashCode(den);
+    }
     public String toString() {
         if (num == 0) return Long.toString(whole);
         if (whole == 0) return num + "/" + den;
@@ -1,6 +1,7 @@
 package data;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 
 public class FractionType implements UserType {
     public String typeName() { return "Fraction"; }
@@ -36,28 +37,40 @@ public class FractionType implements UserType {
             return new Fraction();
         }
     }
-    public Comparator getTypeComparator() {
-        return new Comparator() {
-            public int compare(Object o1, Object o2) {
-                Fraction a = (Fraction)o1;
-                Fraction b = (Fraction)o2;
-                long anum = a.whole * a.den + a.num;
-                long aden = a.den;
-                long bnum = b.whole * b.den + b.num;
-                long bden = b.den;
-                try {
-                    long left = anum * bden;
-                    long right = bnum * aden;
-                    return Long.compare(left, right);
-                } catch (ArithmeticException ex) {
-                    double da = a.toDouble();
-                    double db = b.toDouble();
-                    return Double.compare(da, db);
-                }
+    private static final Comparator COMPARATOR = new Comparator() {
+        public int compare(Object o1, Object o2) {
+            Fraction a = (Fraction)o1;
+            Fraction b = (Fraction)o2;
+            long anum = a.whole * a.den + a.num;
+            long aden = a.den;
+            long bnum = b.whole * b.den + b.num;
+            long bden = b.den;
+            try {
+                long left = anum * bden;
+                long right = bnum * aden;
+                return Long.compare(left, right);
+            } catch (ArithmeticException ex) {
+                double da = a.toDouble();
+                double db = b.toDouble();
+                return Double.compare(da, db);
             }
-        };
-    }
+        }
+    };
+    public Comparator getTypeComparator() { return COMPARATOR; }
     public String serialize(Object obj) { return obj == null ? "" : obj.toString(); }
     public Object deserialize(String s) { return parseValue(s); }
+    // Три long подряд: whole, num, den
+    public int fixedWidth() { return 24; }
+    public void writeFixed(ByteBuffer buf, int pos, Object obj) {
+        Fraction f = (Fraction)obj;
+        buf.putLong(pos, f.whole); buf.putLong(pos + 8, f.num); buf.putLong(pos + 16, f.den);
+    }
+    public Object readFixed(ByteBuffer buf, int pos) {
+        return new Fraction(buf.getLong(pos), buf.getLong(pos + 8), buf.getLong(pos + 16));
+    }
+    // Точный рациональный ключ в long не помещается: берём упорядоченные биты toDouble(),
+    // а дроби с одинаковым ключом список досортирует компаратором
+    public boolean hasSortKey() { return true; }
+    public long sortKey(Object obj) { return DoubleType.sortKeyOf(((Fraction)obj).toDouble()); }
     public String toString() { return typeName(); }
 }
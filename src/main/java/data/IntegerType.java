@@ -1,6 +1,7 @@
 package data;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 
 public class IntegerType implements UserType {
     public String typeName() { return "Integer"; }
@@ -18,15 +19,21 @@ public class IntegerType implements UserType {
         if (ss == null || ss.trim().length() == 0) return Integer.valueOf(0);
         return Integer.valueOf(Integer.parseInt(ss.trim()));
     }
-    public Comparator getTypeComparator() {
-        return new Comparator() {
-            public int compare(Object o1, Object o2) {
-                Integer a = (Integer)o1; Integer b = (Integer)o2;
-                return Integer.compare(a, b);
-            }
-        };
-    }
+    // Один экземпляр на тип: по нему список узнаёт естественный порядок
+    private static final Comparator COMPARATOR = new Comparator() {
+        public int compare(Object o1, Object o2) {
+            Integer a = (Integer)o1; Integer b = (Integer)o2;
+            return Integer.compare(a, b);
+        }
+    };
+    public Comparator getTypeComparator() { return COMPARATOR; }
     public String serialize(Object obj) { return obj == null ? "" : obj.toString(); }
     public Object deserialize(String s) { return parseValue(s); }
+    public int fixedWidth() { return 4; }
+    public void writeFixed(ByteBuffer buf, int pos, Object obj) { buf.putInt(pos, (Integer)obj); }
+    public Object readFixed(ByteBuffer buf, int pos) { return Integer.valueOf(buf.getInt(pos)); }
+    public boolean hasSortKey() { return true; }
+    public long sortKey(Object obj) { return (Integer)obj; }
+    public boolean isSortKeyExact() { return true; }
     public String toString() { return typeName(); }
 }
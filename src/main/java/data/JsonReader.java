@@ -0,0 +1,239 @@
+package data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+// Потоковый разбор JSON прямо из байтов (тело запроса, сохранённый список) за один проход,
+// без промежуточной строки.
+// Pull-интерфейс: beginObject/hasNext/nextName/readValue/endObject, beginArray/.../endArray —
+// большие массивы можно обходить по элементу. hasNext() вызывается перед каждым полем и элементом.
+// readValue() собирает значение целиком: объект -> LinkedHashMap, массив -> ArrayList,
+// строка -> String, число -> String (исходный текст), true/false -> Boolean, null -> null.
+// Ошибки разбора — IllegalArgumentException с позицией в байтах.
+public class JsonReader {
+    private static final int MAX_DEPTH = 64;
+
+    private final InputStream in;
+    private final byte[] buf = new byte[8192];
+    private int pos;
+    private int limit;
+    // Сколько байтов прочитано до начала buf (для сообщений об ошибках)
+    private long base;
+
+    // Буфер символов строки, переиспользуется между строками
+    private char[] chars = new char[64];
+    private int clen;
+
+    // Для каждого уровня вложенности: ещё не было ни одного элемента
+    private final boolean[] first = new boolean[MAX_DEPTH];
+    private int depth;
+    // hasNext() уже разобрал разделитель перед очередным элементом
+    private boolean ready;
+
+    public JsonReader(InputStream in) { this.in = in; }
+
+    // Тело запроса как объект; пустое тело — пустой объект
+    public static Map<String, Object> readObject(InputStream in) throws IOException {
+        JsonReader r = new JsonReader(in);
+        try {
+            if (r.peek() < 0) return new LinkedHashMap<>();
+            Object v = r.readValue();
+            if (!(v instanceof Map)) throw r.error("object expected");
+            r.expectEnd();
+            @SuppressWarnings("unchecked")
+            Map<String, Object> m = (Map<String, Object>) v;
+            return m;
+        } catch (UncheckedIOException io) {
+            throw io.getCause();
+        }
+    }
+
+    private IllegalArgumentException error(String msg) {
+        return new IllegalArgumentException("Invalid JSON at byte " + (base + pos) + ": " + msg);
+    }
+
+    private boolean fill() {
+        try {
+            base += limit;
+            pos = 0;
+            limit = 0;
+            int r = in.read(buf);
+            if (r <= 0) return false;
+            limit = r;
+            return true;
+        } catch (IOException io) {
+            throw new UncheckedIOException(io);
+        }
+    }
+
+    // Следующий байт без пробелов (не потребляя его) или -1 в конце
+    private int peek() {
+        while (true) {
+            if (pos == limit && !fill()) return -1;
+            byte b = buf[pos];
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') return b & 0xFF;
+            pos++;
+        }
+    }
+
+    private int read() {
+        if (pos == limit && !fill()) throw error("unexpected end");
+        return buf[pos++] & 0xFF;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) throw error("expected '" + c + "'");
+        pos++;
+    }
+
+    // После значения верхнего уровня могут быть только пробелы
+    public void expectEnd() {
+        if (peek() >= 0) throw error("unexpected trailing data");
+    }
+
+    private void push() {
+        if (depth + 1 >= MAX_DEPTH) throw error("nesting too deep");
+        first[++depth] = true;
+        ready = false;
+    }
+
+    public void beginObject() { expect('{'); push(); }
+    public void beginArray() { expect('['); push(); }
+
+    public void endObject() { expect('}'); depth--; ready = false; }
+    public void endArray() { expect(']'); depth--; ready = false; }
+
+    // Есть ли ещё поле или элемент в текущем объекте/массиве; разбирает запятую перед ним
+    public boolean hasNext() {
+        if (ready) return true;
+        int c = peek();
+        if (c == '}' || c == ']' || c < 0) return false;
+        if (!first[depth]) {
+            if (c != ',') throw error("expected ',' or end of container");
+            pos++;
+        }
+        first[depth] = false;
+        ready = true;
+        return true;
+    }
+
+    public String nextName() {
+        ready = false;
+        if (peek() != '"') throw error("field name expected");
+        String name = readString();
+        expect(':');
+        return name;
+    }
+
+    public Object readValue() {
+        ready = false;
+        int c = peek();
+        switch (c) {
+            case '{': {
+                LinkedHashMap<String, Object> m = new LinkedHashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    String name = nextName();
+                    m.put(name, readValue());
+                }
+                endObject();
+                return m;
+            }
+            case '[': {
+                ArrayList<Object> a = new ArrayList<>();
+                beginArray();
+                while (hasNext()) a.add(readValue());
+                endArray();
+                return a;
+            }
+            case '"': return readString();
+            case 't': literal("true"); return Boolean.TRUE;
+            case 'f': literal("false"); return Boolean.FALSE;
+            case 'n': literal("null"); return null;
+            case -1: throw error("unexpected end");
+            default: return readNumber();
+        }
+    }
+
+    private void literal(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (read() != word.charAt(i)) throw error("invalid literal");
+        }
+    }
+
+    private void append(char c) {
+        if (chars.length == clen) chars = Arrays.copyOf(chars, clen * 2);
+        chars[clen++] = c;
+    }
+
+    private String readNumber() {
+        clen = 0;
+        boolean digits = false;
+        while (true) {
+            if (pos == limit && !fill()) break;
+            int b = buf[pos];
+            if (b >= '0' && b <= '9') digits = true;
+            else if (b != '-' && b != '+' && b != '.' && b != 'e' && b != 'E') break;
+            append((char) b);
+            pos++;
+        }
+        if (!digits) throw error("value expected");
+        return new String(chars, 0, clen);
+    }
+
+    // Строка в кавычках; UTF-8 декодируется побайтно
+    private String readString() {
+        expect('"');
+        clen = 0;
+        while (true) {
+            int b = read();
+            if (b == '"') return new String(chars, 0, clen);
+            if (b == '\\') { escape(); continue; }
+            if (b < 0x20) throw error("control character in string");
+            if (b < 0x80) { append((char) b); continue; }
+            int cp, extra;
+            if ((b & 0xE0) == 0xC0) { cp = b & 0x1F; extra = 1; }
+            else if ((b & 0xF0) == 0xE0) { cp = b & 0x0F; extra = 2; }
+            else if ((b & 0xF8) == 0xF0) { cp = b & 0x07; extra = 3; }
+            else throw error("invalid UTF-8");
+            for (int i = 0; i < extra; i++) {
+                int c = read();
+                if ((c & 0xC0) != 0x80) throw error("invalid UTF-8");
+                cp = (cp << 6) | (c & 0x3F);
+            }
+            if (cp >= 0x10000) {
+                append(Character.highSurrogate(cp));
+                append(Character.lowSurrogate(cp));
+            } else {
+                append((char) cp);
+            }
+        }
+    }
+
+    private void escape() {
+        int e = read();
+        switch (e) {
+            case '"': append('"'); break;
+            case '\\': append('\\'); break;
+            case '/': append('/'); break;
+            case 'b': append('\b'); break;
+            case 'f': append('\f'); break;
+            case 'n': append('\n'); break;
+            case 'r': append('\r'); break;
+            case 't': append('\t'); break;
+            case 'u': {
+                int cp = 0;
+                for (int i = 0; i < 4; i++) {
+                    int h = Character.digit(read(), 16);
+                    if (h < 0) throw error("bad unicode escape");
+                    cp = (cp << 4) | h;
+                }
+                append((char) cp);
+                break;
+            }
+            default: throw error("bad escape");
+        }
+    }
+}
@@ -17,14 +17,13 @@ public class StringType implements UserType {
     public Object parseValue(String ss) {
         return ss == null ? "" : ss;
     }
-    public Comparator getTypeComparator() {
-        return new Comparator() {
-            public int compare(Object o1, Object o2) {
-                String a = (String)o1; String b = (String)o2;
-                return a.compareTo(b);
-            }
-        };
-    }
+    private static final Comparator COMPARATOR = new Comparator() {
+        public int compare(Object o1, Object o2) {
+            String a = (String)o1; String b = (String)o2;
+            return a.compareTo(b);
+        }
+    };
+    public Comparator getTypeComparator() { return COMPARATOR; }
     public String serialize(Object obj) { return obj == null ? "" : obj.toString(); }
     public Object deserialize(String s) { return s; }
     public String toString() { return typeName(); }
@@ -1,6 +1,7 @@
 package data;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 
 public interface UserType {
     String typeName();
@@ -11,4 +12,16 @@ public interface UserType {
     Comparator getTypeComparator();
     String serialize(Object obj);
     Object deserialize(String s);
+
+    // Фиксированный двоичный размер значения в байтах; 0 — тип переменной длины
+    default int fixedWidth() { return 0; }
+    default void writeFixed(ByteBuffer buf, int pos, Object obj) { throw new UnsupportedOperationException(typeName() + " has no fixed-width form"); }
+    default Object readFixed(ByteBuffer buf, int pos) { throw new UnsupportedOperationException(typeName() + " has no fixed-width form"); }
+
+    // Ключ для поразрядной сортировки, согласованный с компаратором типа:
+    // из compare(a, b) < 0 следует sortKey(a) <= sortKey(b) (сравнение как знаковых long)
+    default boolean hasSortKey() { return false; }
+    default long sortKey(Object obj) { throw new UnsupportedOperationException(typeName() + " has no sort key"); }
+    // true, если равные ключи означают равные значения и досортировка компаратором не нужна
+    default boolean isSortKeyExact() { return false; }
 }
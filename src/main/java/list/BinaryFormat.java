@@ -0,0 +1,178 @@
+package list;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+import data.UserType;
+import data.UserFactory;
+
+// Двоичный формат v2 для типов фиксированной ширины: заголовок и значения подряд, little-endian.
+//   "SLLB" | версия (1 байт) | длина имени типа (2) | имя типа UTF-8 | ширина (4) | число элементов (8) | значения
+// Загрузка отображает файл в память (FileChannel.map) и раскладывает значения по узлам блоками,
+// без разбора строк; сжатый файл читается тем же кодом из потока.
+// Типы без фиксированной ширины и списки с null пишутся прежним форматом v1.
+final class BinaryFormat {
+    static final byte[] MAGIC = { 'S', 'L', 'L', 'B' };
+    static final int VERSION = 2;
+    // Буфер записи и потокового чтения
+    private static final int STAGE = 1 << 20;
+
+    private BinaryFormat() { }
+
+    // Пишет список в формате v2; false — формат к списку не подходит (файл не тронут)
+    static boolean write(String filename, UserType type, ListStorage storage) throws IOException {
+        if (!supports(type, storage)) return false;
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(ch, type, storage);
+        }
+        return true;
+    }
+
+    // Подходит ли формат v2: тип фиксированной ширины и нет null
+    static boolean supports(UserType type, ListStorage storage) {
+        if (type.fixedWidth() <= 0) return false;
+        return storage instanceof IntStorage || storage instanceof DoubleStorage || !hasNulls(storage);
+    }
+
+    // Пишет заголовок и значения в канал (файл или сжимающий поток); формат должен подходить (supports)
+    static void write(WritableByteChannel ch, UserType type, ListStorage storage) throws IOException {
+        int width = type.fixedWidth();
+        boolean primitive = storage instanceof IntStorage || storage instanceof DoubleStorage;
+        byte[] name = type.typeName().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.allocateDirect(STAGE).order(ByteOrder.LITTLE_ENDIAN);
+        buf.put(MAGIC).put((byte) VERSION).putShort((short) name.length).put(name)
+           .putInt(width).putLong(storage.size());
+        if (primitive) {
+            // Массивы узлов копируются в буфер целиком
+            for (ChunkedStorage.Chunk c = ((ChunkedStorage) storage).head; c != null; c = c.next) {
+                if (buf.remaining() < c.count * width) drain(ch, buf);
+                if (storage instanceof IntStorage) buf.asIntBuffer().put((int[]) c.data, 0, c.count);
+                else buf.asDoubleBuffer().put((double[]) c.data, 0, c.count);
+                buf.position(buf.position() + c.count * width);
+            }
+        } else {
+            Iterator<Object> it = storage.iterator();
+            while (it.hasNext()) {
+                if (buf.remaining() < width) drain(ch, buf);
+                type.writeFixed(buf, buf.position(), it.next());
+                buf.position(buf.position() + width);
+            }
+        }
+        drain(ch, buf);
+    }
+
+    private static boolean hasNulls(ListStorage storage) {
+        Iterator<Object> it = storage.iterator();
+        while (it.hasNext()) if (it.next() == null) return true;
+        return false;
+    }
+
+    private static void drain(WritableByteChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    static boolean hasMagic(byte[] head) {
+        if (head.length < MAGIC.length) return false;
+        for (int i = 0; i < MAGIC.length; i++) if (head[i] != MAGIC[i]) return false;
+        return true;
+    }
+
+    // Заголовок v2 после magic
+    private static final class Header {
+        UserType type;
+        int width;
+        long count;
+        long length;
+    }
+
+    // Читает заголовок из начала канала; null — нет magic (файл прежнего формата)
+    private static Header readHeader(ReadableByteChannel ch, UserFactory factory) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(MAGIC.length + 3).order(ByteOrder.LITTLE_ENDIAN);
+        if (!readFully(ch, head)) return null;
+        if (!hasMagic(head.array())) return null;
+        int version = head.get(MAGIC.length);
+        if (version != VERSION) throw new IOException("Unsupported binary format version " + version);
+        int nameLen = head.getShort(MAGIC.length + 1) & 0xFFFF;
+
+        ByteBuffer rest = ByteBuffer.allocate(nameLen + 12).order(ByteOrder.LITTLE_ENDIAN);
+        if (!readFully(ch, rest)) throw new IOException("Truncated binary file");
+        Header h = new Header();
+        String tname = new String(rest.array(), 0, nameLen, StandardCharsets.UTF_8);
+        h.width = rest.getInt(nameLen);
+        h.count = rest.getLong(nameLen + 4);
+        h.length = head.capacity() + rest.capacity();
+        h.type = factory.getBuilderByName(tname);
+        if (h.type == null) throw new IOException("Unknown type in file: " + tname);
+        if (h.type.fixedWidth() != h.width) throw new IOException("Width " + h.width + " does not match type " + tname);
+        if (h.count < 0 || h.count > Integer.MAX_VALUE) throw new IOException("Invalid element count: " + h.count);
+        return h;
+    }
+
+    // Список из файла v2 или null, если заголовка v2 нет (файл прежнего формата)
+    static SingleLinkedList read(String filename, UserFactory factory) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long fileSize = ch.size();
+            Header h = readHeader(ch, factory);
+            if (h == null) return null;
+            int width = h.width;
+            if (h.length + h.count * width != fileSize) throw new IOException("Truncated binary file");
+
+            ListStorage storage = StorageFactory.defaultFor(h.type);
+            // Отображаем окнами до 2 ГБ из целого числа элементов
+            long window = (Integer.MAX_VALUE / width) * (long) width;
+            for (long off = h.length; off < fileSize; off += window) {
+                long len = Math.min(window, fileSize - off);
+                MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, off, len);
+                map.order(ByteOrder.LITTLE_ENDIAN);
+                fill(storage, h.type, map);
+            }
+            return new SingleLinkedList(h.type, storage);
+        }
+    }
+
+    // То же из потока (например, распакованного), без отображения: значения читаются блоками
+    static SingleLinkedList read(ReadableByteChannel ch, UserFactory factory) throws IOException {
+        Header h = readHeader(ch, factory);
+        if (h == null) throw new IOException("Not a binary v2 stream");
+        ListStorage storage = StorageFactory.defaultFor(h.type);
+        ByteBuffer buf = ByteBuffer.allocateDirect(STAGE - STAGE % h.width).order(ByteOrder.LITTLE_ENDIAN);
+        long left = h.count * h.width;
+        while (left > 0) {
+            buf.clear();
+            if (left < buf.capacity()) buf.limit((int) left);
+            if (!readFully(ch, buf)) throw new IOException("Truncated binary file");
+            buf.flip();
+            fill(storage, h.type, buf);
+            left -= buf.limit();
+        }
+        if (ch.read(ByteBuffer.allocate(1)) > 0) throw new IOException("Unexpected data after binary list");
+        return new SingleLinkedList(h.type, storage);
+    }
+
+    // Дописывает в движок все значения буфера (от 0 до limit)
+    private static void fill(ListStorage storage, UserType type, ByteBuffer buf) {
+        if (storage instanceof IntStorage) ((IntStorage) storage).addAll(buf.asIntBuffer());
+        else if (storage instanceof DoubleStorage) ((DoubleStorage) storage).addAll(buf.asDoubleBuffer());
+        else for (int pos = 0; pos < buf.limit(); pos += type.fixedWidth()) storage.add(type.readFixed(buf, pos));
+    }
+
+    // Дочитывает буфер до конца; false — поток кончился раньше
+    private static boolean readFully(ReadableByteChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf) < 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,351 @@
+package list;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import data.Comparator;
+
+// Развёрнутый список: каждый узел хранит небольшой массив значений и их количество.
+// Меньше объектов, последовательный обход по массивам и позиционный доступ за O(n/B).
+// Тип массива в узле (Object[], int[], double[]) задают наследники.
+public abstract class ChunkedStorage implements ListStorage {
+    static final class Chunk {
+        final Object data;
+        int count;
+        Chunk next;
+        // Сколько элементов узла ещё не прочитано текущим проходом сортировки
+        int pending;
+        Chunk(Object data) { this.data = data; }
+    }
+
+    protected final int chunkCapacity;
+    Chunk head;
+    Chunk tail;
+    int size;
+    // Узел и индекс его первого элемента. Пара неизменяема, чтобы параллельные
+    // читатели под общей блокировкой не видели её половинами
+    static final class Cursor {
+        final Chunk chunk;
+        final int start;
+        Cursor(Chunk chunk, int start) { this.chunk = chunk; this.start = start; }
+    }
+
+    // Последний найденный узел (ускоряет последовательный get). Пишется только под блокировкой
+    // списка (get под блокировкой чтения, изменения под блокировкой записи), поэтому всегда
+    // соответствует текущей цепочке узлов; чтение без блокировки (peek) его только читает
+    private Cursor cursor;
+
+    protected ChunkedStorage(int chunkCapacity) {
+        this.chunkCapacity = chunkCapacity;
+    }
+
+    // Массив значений узла заданной ёмкости
+    protected abstract Object newArray(int capacity);
+    protected abstract Object read(Object data, int i);
+    protected abstract void write(Object data, int i, Object obj);
+    // Обнуляет хвост массива, чтобы не удерживать ссылки (для примитивов не нужно)
+    protected void clearRange(Object data, int from, int to) { }
+
+    public int size() { return size; }
+
+    // Находит узел, содержащий позицию index (0 <= index < size), и запоминает его
+    final Cursor cursorFor(int index) {
+        Cursor cur = cursor;
+        Cursor found = find(cur, index);
+        if (found != cur) cursor = found;
+        return found;
+    }
+
+    // Поиск от запомненного узла (если он не дальше index) или от головы; cur возвращается как есть,
+    // если index в его узле
+    private Cursor find(Cursor cur, int index) {
+        Chunk c;
+        int start;
+        if (cur != null && index >= cur.start) { c = cur.chunk; start = cur.start; }
+        else { c = head; start = 0; }
+        while (index >= start + c.count) {
+            start += c.count;
+            c = c.next;
+        }
+        return (cur != null && cur.chunk == c) ? cur : new Cursor(c, start);
+    }
+
+    public Object get(int index) {
+        Cursor p = cursorFor(index);
+        return read(p.chunk.data, index - p.start);
+    }
+
+    // Без записи в cursor: читатель без блокировки, опоздавший к изменению, оставил бы в нём
+    // узел со смещением от старой цепочки, и его результат отбросила бы проверка штампа,
+    // а сам курсор — нет
+    public Object peek(int index) {
+        Cursor p = find(cursor, index);
+        return read(p.chunk.data, index - p.start);
+    }
+
+    public void set(int index, Object obj) {
+        Cursor p = cursorFor(index);
+        write(p.chunk.data, index - p.start, obj);
+    }
+
+    // Чтение без блокировки (peek) во время изменения не зациклится и не тронет освобождённую память:
+    // цепочка узлов всегда конечна, а сбой выдаст исключение
+    public boolean optimisticReadSafe() { return true; }
+
+    // Узел с местом под ещё один элемент в конце списка
+    final Chunk appendChunk() {
+        if (tail == null || tail.count == chunkCapacity) {
+            Chunk c = new Chunk(newArray(chunkCapacity));
+            if (tail == null) head = c;
+            else tail.next = c;
+            tail = c;
+        }
+        return tail;
+    }
+
+    public void add(Object obj) {
+        Chunk c = appendChunk();
+        write(c.data, c.count++, obj);
+        size++;
+    }
+
+    public void insert(int index, Object obj) {
+        if (index == size) { add(obj); return; }
+        Cursor p = cursorFor(index);
+        Chunk c = p.chunk;
+        int off = index - p.start;
+        if (c.count == chunkCapacity) {
+            // Делим полный узел пополам
+            Chunk n = new Chunk(newArray(chunkCapacity));
+            int half = chunkCapacity / 2;
+            System.arraycopy(c.data, half, n.data, 0, chunkCapacity - half);
+            clearRange(c.data, half, chunkCapacity);
+            n.count = chunkCapacity - half;
+            c.count = half;
+            n.next = c.next;
+            c.next = n;
+            if (tail == c) tail = n;
+            if (off > half) { c = n; off -= half; }
+        }
+        System.arraycopy(c.data, off, c.data, off + 1, c.count - off);
+        write(c.data, off, obj);
+        c.count++;
+        size++;
+        cursor = null;
+    }
+
+    public Object remove(int index) {
+        Chunk prev = null;
+        Chunk c = head;
+        int off = index;
+        while (off >= c.count) {
+            off -= c.count;
+            prev = c;
+            c = c.next;
+        }
+        Object removed = read(c.data, off);
+        System.arraycopy(c.data, off + 1, c.data, off, c.count - off - 1);
+        c.count--;
+        clearRange(c.data, c.count, c.count + 1);
+        size--;
+        if (c.count == 0) {
+            if (prev == null) head = c.next;
+            else prev.next = c.next;
+            if (tail == c) tail = prev;
+        } else if (c.count < chunkCapacity / 2 && c.next != null && c.count + c.next.count <= chunkCapacity) {
+            // Сливаем с соседом, чтобы узлы не вырождались в почти пустые
+            Chunk n = c.next;
+            System.arraycopy(n.data, 0, c.data, c.count, n.count);
+            c.count += n.count;
+            c.next = n.next;
+            if (tail == n) tail = c;
+        }
+        cursor = null;
+        return removed;
+    }
+
+    public void clear() {
+        head = null;
+        tail = null;
+        size = 0;
+        cursor = null;
+    }
+
+    public Iterator<Object> iterator(int from) {
+        Chunk start = head;
+        int off = from;
+        while (start != null && off >= start.count) { off -= start.count; start = start.next; }
+        Chunk first = start;
+        int firstOffset = off;
+        return new Iterator<Object>() {
+            Chunk c = first;
+            int i = firstOffset;
+            public boolean hasNext() {
+                while (c != null && i >= c.count) { c = c.next; i = 0; }
+                return c != null;
+            }
+            public Object next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return read(c.data, i++);
+            }
+        };
+    }
+
+    public Object[] toArray() {
+        Object[] arr = new Object[size];
+        int pos = 0;
+        for (Chunk c = head; c != null; c = c.next) {
+            for (int i = 0; i < c.count; i++) arr[pos++] = read(c.data, i);
+        }
+        return arr;
+    }
+
+    public void setAll(Object[] values) {
+        if (values.length == size) {
+            // Копируем обратно в существующие узлы без перестройки
+            int pos = 0;
+            for (Chunk c = head; c != null; c = c.next) {
+                for (int i = 0; i < c.count; i++) write(c.data, i, values[pos++]);
+            }
+            return;
+        }
+        clear();
+        for (Object v : values) add(v);
+    }
+
+    // Копирует содержимое в примитивный массив того же типа, что и узлы
+    final void copyOut(Object dest) {
+        int pos = 0;
+        for (Chunk c = head; c != null; c = c.next) {
+            System.arraycopy(c.data, 0, dest, pos, c.count);
+            pos += c.count;
+        }
+    }
+
+    // Перезаписывает значения из массива того же типа (длина равна size)
+    final void copyIn(Object src) {
+        int pos = 0;
+        for (Chunk c = head; c != null; c = c.next) {
+            System.arraycopy(src, pos, c.data, 0, c.count);
+            pos += c.count;
+        }
+    }
+
+    public boolean sortInPlace(Comparator comp, boolean naturalOrder, String algorithm) {
+        if (!SingleLinkedList.SORT_NATURAL.equals(algorithm)) return false;
+        naturalMergeSort(comp);
+        return true;
+    }
+
+    // Позиция чтения внутри цепочки узлов во время прохода сортировки
+    private final class Reader {
+        Chunk c;
+        int i;
+        Reader(Chunk c, int i) { this.c = c; this.i = i; }
+        boolean atEnd() { return c == null; }
+        Object peek() { return read(c.data, i); }
+        // Забирает элемент; полностью прочитанный узел уходит в список свободных
+        Object take() {
+            Chunk cur = c;
+            Object v = read(cur.data, i);
+            cur.pending--;
+            if (++i == cur.count) { c = cur.next; i = 0; }
+            if (cur.pending == 0) release(cur);
+            return v;
+        }
+    }
+
+    private Chunk freeChunks;
+    private Chunk outHead;
+    private Chunk outTail;
+
+    private void release(Chunk c) {
+        c.next = freeChunks;
+        freeChunks = c;
+    }
+
+    private void append(Object v) {
+        if (outTail == null || outTail.count == chunkCapacity) {
+            Chunk c = freeChunks;
+            if (c != null) freeChunks = c.next;
+            else c = new Chunk(newArray(chunkCapacity));
+            c.count = 0;
+            c.next = null;
+            if (outTail == null) outHead = c;
+            else outTail.next = c;
+            outTail = c;
+        }
+        write(outTail.data, outTail.count++, v);
+    }
+
+    // Длина неубывающей серии, начинающейся в позиции (c, i)
+    private int runLength(Chunk c, int i, Comparator comp) {
+        Object prev = read(c.data, i);
+        int len = 1;
+        if (++i == c.count) { c = c.next; i = 0; }
+        while (c != null) {
+            Object v = read(c.data, i);
+            if (comp.compare(v, prev) < 0) break;
+            prev = v;
+            len++;
+            if (++i == c.count) { c = c.next; i = 0; }
+        }
+        return len;
+    }
+
+    // Устойчивая естественная сортировка слиянием снизу вверх.
+    // Каждый проход сливает соседние серии в новую цепочку, забирая под неё уже прочитанные узлы,
+    // поэтому сверх самого списка нужно лишь несколько узлов. Упорядоченный список — один проход сравнений.
+    private void naturalMergeSort(Comparator comp) {
+        if (size < 2 || runLength(head, 0, comp) == size) return;
+        int runs;
+        do {
+            for (Chunk c = head; c != null; c = c.next) c.pending = c.count;
+            outHead = null;
+            outTail = null;
+            runs = 0;
+            Reader a = new Reader(head, 0);
+            while (!a.atEnd()) {
+                int lenA = runLength(a.c, a.i, comp);
+                runs++;
+                // Вторая серия начинается сразу за первой
+                Reader b = new Reader(a.c, a.i);
+                for (int k = 0; k < lenA; k++) {
+                    if (++b.i == b.c.count) { b.c = b.c.next; b.i = 0; }
+                }
+                if (b.atEnd()) {
+                    while (lenA-- > 0) append(a.take());
+                    break;
+                }
+                runs++;
+                Object va = a.peek();
+                Object vb = b.peek();
+                boolean bAlive = true;
+                while (lenA > 0 && bAlive) {
+                    if (comp.compare(vb, va) < 0) {
+                        append(b.take());
+                        if (b.atEnd() || comp.compare(b.peek(), vb) < 0) bAlive = false;
+                        else vb = b.peek();
+                    } else {
+                        append(a.take());
+                        if (--lenA > 0) va = a.peek();
+                    }
+                }
+                while (lenA-- > 0) append(a.take());
+                while (bAlive) {
+                    Object last = b.take();
+                    append(last);
+                    if (b.atEnd() || comp.compare(b.peek(), last) < 0) bAlive = false;
+                }
+                a = b;
+            }
+            head = outHead;
+            tail = outTail;
+            clearRange(tail.data, tail.count, chunkCapacity);
+            freeChunks = null;
+            outHead = null;
+            outTail = null;
+            cursor = null;
+        } while (runs > 2);
+    }
+}
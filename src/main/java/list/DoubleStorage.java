@@ -0,0 +1,68 @@
+package list;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+import data.Comparator;
+
+// Развёрнутый список на double[]: без объекта Double на каждый элемент
+public class DoubleStorage extends ChunkedStorage {
+    static final int CHUNK = 128;
+
+    public DoubleStorage() { super(CHUNK); }
+
+    public String kind() { return "double"; }
+
+    protected Object newArray(int capacity) { return new double[capacity]; }
+    protected Object read(Object data, int i) { return Double.valueOf(((double[]) data)[i]); }
+    protected void write(Object data, int i, Object obj) {
+        if (obj == null) throw new IllegalArgumentException("null is not supported by double storage");
+        ((double[]) data)[i] = (Double) obj;
+    }
+
+    public double getDouble(int index) {
+        Cursor p = cursorFor(index);
+        return ((double[]) p.chunk.data)[index - p.start];
+    }
+
+    public void addDouble(double v) {
+        Chunk c = appendChunk();
+        ((double[]) c.data)[c.count++] = v;
+        size++;
+    }
+
+    // Дописывает оставшиеся значения буфера блоками прямо в массивы узлов
+    public void addAll(DoubleBuffer src) {
+        while (src.hasRemaining()) {
+            Chunk c = appendChunk();
+            int k = Math.min(src.remaining(), chunkCapacity - c.count);
+            src.get((double[]) c.data, c.count, k);
+            c.count += k;
+            size += k;
+        }
+    }
+
+    public double[] toDoubleArray() {
+        double[] arr = new double[size];
+        copyOut(arr);
+        return arr;
+    }
+
+    // Перезаписывает значения в том же порядке (длина равна size)
+    public void setAllDoubles(double[] values) { copyIn(values); }
+
+    // Естественный порядок сортируем без упаковки
+    public boolean sortInPlace(Comparator comp, boolean naturalOrder, String algorithm) {
+        boolean parallel = SingleLinkedList.SORT_PARALLEL.equals(algorithm);
+        boolean radix = SingleLinkedList.SORT_RADIX.equals(algorithm);
+        if (!naturalOrder || !(parallel || radix || SingleLinkedList.SORT_QUICK.equals(algorithm))) {
+            return super.sortInPlace(comp, naturalOrder, algorithm);
+        }
+        double[] a = toDoubleArray();
+        if (parallel) Arrays.parallelSort(a);
+        else if (radix) RadixSort.sortDoubles(a);
+        else Arrays.sort(a);
+        setAllDoubles(a);
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package list;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Событие JFR для сохранения и загрузки списка: файл, формат, размер файла и число элементов.
+// Поля заполняются (и размер файла узнаётся) только если событие будет записано
+@Name("sll.File")
+@Label("List File I/O")
+@Category({ "SingleLinkedList", "List" })
+@Description("Saving or loading a list file")
+@StackTrace(false)
+final class FileEvent extends jdk.jfr.Event {
+    static final String SAVE = "save", LOAD = "load";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Format")
+    String format;
+
+    @Label("File")
+    String file;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Items")
+    int items;
+
+    @Label("Type")
+    String type;
+
+    static FileEvent started() {
+        FileEvent e = new FileEvent();
+        e.begin();
+        return e;
+    }
+
+    void done(String operation, String format, String filename, SingleLinkedList list) {
+        end();
+        if (!shouldCommit()) return;
+        this.operation = operation;
+        this.format = format;
+        this.file = filename;
+        this.bytes = new File(filename).length();
+        if (list != null) {
+            this.items = list.size();
+            this.type = list.prototype.typeName();
+        }
+        commit();
+    }
+}
@@ -0,0 +1,68 @@
+package list;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import data.Comparator;
+
+// Развёрнутый список на int[]: без объекта Integer на каждый элемент
+public class IntStorage extends ChunkedStorage {
+    static final int CHUNK = 128;
+
+    public IntStorage() { super(CHUNK); }
+
+    public String kind() { return "int"; }
+
+    protected Object newArray(int capacity) { return new int[capacity]; }
+    protected Object read(Object data, int i) { return Integer.valueOf(((int[]) data)[i]); }
+    protected void write(Object data, int i, Object obj) {
+        if (obj == null) throw new IllegalArgumentException("null is not supported by int storage");
+        ((int[]) data)[i] = (Integer) obj;
+    }
+
+    public int getInt(int index) {
+        Cursor p = cursorFor(index);
+        return ((int[]) p.chunk.data)[index - p.start];
+    }
+
+    public void addInt(int v) {
+        Chunk c = appendChunk();
+        ((int[]) c.data)[c.count++] = v;
+        size++;
+    }
+
+    // Дописывает оставшиеся значения буфера блоками прямо в массивы узлов
+    public void addAll(IntBuffer src) {
+        while (src.hasRemaining()) {
+            Chunk c = appendChunk();
+            int k = Math.min(src.remaining(), chunkCapacity - c.count);
+            src.get((int[]) c.data, c.count, k);
+            c.count += k;
+            size += k;
+        }
+    }
+
+    public int[] toIntArray() {
+        int[] arr = new int[size];
+        copyOut(arr);
+        return arr;
+    }
+
+    // Перезаписывает значения в том же порядке (длина равна size)
+    public void setAllInts(int[] values) { copyIn(values); }
+
+    // Естественный порядок сортируем без упаковки
+    public boolean sortInPlace(Comparator comp, boolean naturalOrder, String algorithm) {
+        boolean parallel = SingleLinkedList.SORT_PARALLEL.equals(algorithm);
+        boolean radix = SingleLinkedList.SORT_RADIX.equals(algorithm);
+        if (!naturalOrder || !(parallel || radix || SingleLinkedList.SORT_QUICK.equals(algorithm))) {
+            return super.sortInPlace(comp, naturalOrder, algorithm);
+        }
+        int[] a = toIntArray();
+        if (parallel) Arrays.parallelSort(a);
+        else if (radix) RadixSort.sortInts(a);
+        else Arrays.sort(a);
+        setAllInts(a);
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package list;
+
+import java.util.Iterator;
+
+import data.Comparator;
+
+// Движок хранения элементов списка. Индексы проверяет SingleLinkedList,
+// поэтому реализации получают только допустимые значения.
+public interface ListStorage {
+    String kind();
+    int size();
+    Object get(int index);
+    void set(int index, Object obj);
+    void add(Object obj);
+    void insert(int index, Object obj);
+    Object remove(int index);
+    void clear();
+    // Обход с позиции from (0 <= from <= size) без прохода по предыдущим элементам
+    Iterator<Object> iterator(int from);
+    default Iterator<Object> iterator() { return iterator(0); }
+    Object[] toArray();
+    // Заменяет содержимое значениями из массива в том же порядке
+    void setAll(Object[] values);
+
+    // Сортировка средствами самого движка; false — не умеет, список сортирует через массив.
+    // naturalOrder = true, если comp задаёт естественный порядок типа.
+    default boolean sortInPlace(Comparator comp, boolean naturalOrder, String algorithm) { return false; }
+    // true — peek можно вызывать без блокировки параллельно с изменениями (результат
+    // затем проверяется штампом); по умолчанию нельзя, например offheap освобождает память
+    default boolean optimisticReadSafe() { return false; }
+    // get без побочных эффектов (для чтения без блокировки); движки, которые что-то
+    // запоминают в get, переопределяют его
+    default Object peek(int index) { return get(index); }
+    // Независимая копия за O(1) (персистентные движки) или null, если движок так не умеет
+    default ListStorage snapshot() { return null; }
+    // Освобождает ресурсы вне кучи; после вызова движок пуст
+    default void release() { clear(); }
+}
@@ -0,0 +1,212 @@
+package list;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import data.Comparator;
+import data.UserType;
+import data.IntegerType;
+import data.DoubleType;
+
+// Хранит значения фиксированной ширины (Integer, Double, Fraction) вне кучи,
+// в прямых буферах по SLAB_ELEMENTS элементов. На куче остаётся только массив буферов,
+// поэтому сборщик мусора не видит миллионов мелких объектов.
+// Вставка и удаление в середине сдвигают хвост целиком (memmove), добавление в конец — O(1).
+public class OffHeapStorage implements ListStorage {
+    static final int SLAB_SHIFT = 16;
+    static final int SLAB_ELEMENTS = 1 << SLAB_SHIFT;
+    static final int SLAB_MASK = SLAB_ELEMENTS - 1;
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method cleaner = null;
+        try {
+            Class<?> cls = Class.forName("sun.misc.Unsafe");
+            Field f = cls.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            unsafe = f.get(null);
+            cleaner = cls.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (Exception ignored) {
+            // Без Unsafe память вернёт Cleaner при ближайшей сборке мусора
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = cleaner;
+    }
+
+    private final UserType type;
+    private final int width;
+    private ByteBuffer[] slabs = new ByteBuffer[0];
+    private int size;
+
+    public OffHeapStorage(UserType type) {
+        if (type.fixedWidth() <= 0) throw new IllegalArgumentException("Type " + type.typeName() + " has no fixed-width form");
+        this.type = type;
+        this.width = type.fixedWidth();
+    }
+
+    public String kind() { return "offheap"; }
+
+    public int size() { return size; }
+
+    // Объём выделенной вне кучи памяти в байтах
+    public long allocatedBytes() { return (long) slabs.length * SLAB_ELEMENTS * width; }
+
+    private ByteBuffer slab(int index) { return slabs[index >>> SLAB_SHIFT]; }
+    private int pos(int index) { return (index & SLAB_MASK) * width; }
+
+    private void ensureCapacity(int n) {
+        int need = (n + SLAB_MASK) >>> SLAB_SHIFT;
+        if (need <= slabs.length) return;
+        ByteBuffer[] grown = java.util.Arrays.copyOf(slabs, need);
+        for (int i = slabs.length; i < need; i++) {
+            grown[i] = ByteBuffer.allocateDirect(SLAB_ELEMENTS * width).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        slabs = grown;
+    }
+
+    private void checkValue(Object obj) {
+        if (obj == null) throw new IllegalArgumentException("null is not supported by offheap storage");
+    }
+
+    public Object get(int index) { return type.readFixed(slab(index), pos(index)); }
+
+    public void set(int index, Object obj) {
+        checkValue(obj);
+        type.writeFixed(slab(index), pos(index), obj);
+    }
+
+    public void add(Object obj) {
+        checkValue(obj);
+        ensureCapacity(size + 1);
+        type.writeFixed(slab(size), pos(size), obj);
+        size++;
+    }
+
+    // Копирует один элемент между позициями (возможно, в разных буферах)
+    private void copyElement(int from, int to) {
+        slab(to).put(pos(to), slab(from), pos(from), width);
+    }
+
+    public void insert(int index, Object obj) {
+        checkValue(obj);
+        ensureCapacity(size + 1);
+        // Сдвигаем [index, size) на одну позицию вправо, начиная с последнего буфера
+        for (int s = size >>> SLAB_SHIFT; s >= (index >>> SLAB_SHIFT); s--) {
+            int base = s << SLAB_SHIFT;
+            int from = Math.max(index, base);
+            int to = Math.min(size, base + SLAB_ELEMENTS);
+            if (to <= from) continue;
+            if (to == base + SLAB_ELEMENTS) {
+                copyElement(to - 1, to);
+                to--;
+            }
+            if (to > from) {
+                ByteBuffer b = slabs[s];
+                b.put((from - base + 1) * width, b, (from - base) * width, (to - from) * width);
+            }
+        }
+        type.writeFixed(slab(index), pos(index), obj);
+        size++;
+    }
+
+    public Object remove(int index) {
+        Object removed = get(index);
+        // Сдвигаем [index + 1, size) на одну позицию влево
+        for (int s = index >>> SLAB_SHIFT; s <= (size - 1) >>> SLAB_SHIFT; s++) {
+            int base = s << SLAB_SHIFT;
+            int from = Math.max(index, base);
+            int srcEnd = Math.min(size, base + SLAB_ELEMENTS);
+            if (srcEnd > from + 1) {
+                ByteBuffer b = slabs[s];
+                b.put((from - base) * width, b, (from - base + 1) * width, (srcEnd - from - 1) * width);
+            }
+            if (base + SLAB_ELEMENTS < size) copyElement(base + SLAB_ELEMENTS, base + SLAB_ELEMENTS - 1);
+        }
+        size--;
+        return removed;
+    }
+
+    public void clear() { size = 0; }
+
+    // Возвращает буферы системе сразу, не дожидаясь сборки мусора
+    public void release() {
+        ByteBuffer[] old = slabs;
+        slabs = new ByteBuffer[0];
+        size = 0;
+        if (INVOKE_CLEANER == null) return;
+        for (ByteBuffer b : old) {
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, b);
+            } catch (Exception ignored) {
+                // память освободит Cleaner
+            }
+        }
+    }
+
+    public Iterator<Object> iterator(int from) {
+        return new Iterator<Object>() {
+            int i = from;
+            public boolean hasNext() { return i < size; }
+            public Object next() {
+                if (i >= size) throw new NoSuchElementException();
+                return get(i++);
+            }
+        };
+    }
+
+    public Object[] toArray() {
+        Object[] arr = new Object[size];
+        for (int i = 0; i < size; i++) arr[i] = get(i);
+        return arr;
+    }
+
+    public void setAll(Object[] values) {
+        clear();
+        for (Object v : values) add(v);
+    }
+
+    // Пирамидальная сортировка прямо в буферах: O(n log n) без копии на куче.
+    // Остальные алгоритмы идут общим путём через массив на куче.
+    public boolean sortInPlace(Comparator comp, boolean naturalOrder, String algorithm) {
+        if (!SingleLinkedList.SORT_QUICK.equals(algorithm)) return false;
+        boolean ints = naturalOrder && type instanceof IntegerType;
+        boolean doubles = naturalOrder && type instanceof DoubleType;
+        byte[] tmp = new byte[width];
+        for (int i = size / 2 - 1; i >= 0; i--) siftDown(i, size, comp, ints, doubles, tmp);
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end, tmp);
+            siftDown(0, end, comp, ints, doubles, tmp);
+        }
+        return true;
+    }
+
+    private int compareAt(int i, int j, Comparator comp, boolean ints, boolean doubles) {
+        if (ints) return Integer.compare(slab(i).getInt(pos(i)), slab(j).getInt(pos(j)));
+        if (doubles) return Double.compare(slab(i).getDouble(pos(i)), slab(j).getDouble(pos(j)));
+        return comp.compare(get(i), get(j));
+    }
+
+    private void siftDown(int root, int end, Comparator comp, boolean ints, boolean doubles, byte[] tmp) {
+        while (true) {
+            int child = 2 * root + 1;
+            if (child >= end) return;
+            if (child + 1 < end && compareAt(child, child + 1, comp, ints, doubles) < 0) child++;
+            if (compareAt(root, child, comp, ints, doubles) >= 0) return;
+            swap(root, child, tmp);
+            root = child;
+        }
+    }
+
+    private void swap(int i, int j, byte[] tmp) {
+        slab(i).get(pos(i), tmp);
+        copyElement(j, i);
+        slab(j).put(pos(j), tmp);
+    }
+}
@@ -0,0 +1,110 @@
+package list;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import data.Comparator;
+
+// Устойчивая параллельная сортировка слиянием на fork/join.
+// Половины сортируются параллельно, слияние тоже делится пополам через бинарный поиск,
+// поэтому последовательной остаётся только работа ниже порогов.
+public class ParallelMergeSort {
+    // Ниже этого размера диапазон сортируется последовательно (TimSort)
+    static final int SORT_THRESHOLD = 8192;
+    // Ниже этого размера слияние идёт в одном потоке
+    static final int MERGE_THRESHOLD = 8192;
+
+    public static void sort(Object[] a, Comparator comp) {
+        if (a.length < 2) return;
+        if (a.length <= SORT_THRESHOLD) {
+            Arrays.sort(a, comp::compare);
+            return;
+        }
+        Object[] tmp = new Object[a.length];
+        ForkJoinPool.commonPool().invoke(new SortTask(a, tmp, 0, a.length, comp));
+    }
+
+    // Сортирует a[lo, hi), используя tmp[lo, hi) как буфер.
+    // RecursiveAction сериализуем, но задачи живут только внутри одной сортировки
+    @SuppressWarnings("serial")
+    static final class SortTask extends RecursiveAction {
+        final Object[] a, tmp;
+        final int lo, hi;
+        final Comparator comp;
+        SortTask(Object[] a, Object[] tmp, int lo, int hi, Comparator comp) {
+            this.a = a; this.tmp = tmp; this.lo = lo; this.hi = hi; this.comp = comp;
+        }
+        protected void compute() {
+            if (hi - lo <= SORT_THRESHOLD) {
+                Arrays.sort(a, lo, hi, comp::compare);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new SortTask(a, tmp, lo, mid, comp), new SortTask(a, tmp, mid, hi, comp));
+            // Уже упорядоченные половины не сливаем (повторная сортировка)
+            if (comp.compare(a[mid - 1], a[mid]) <= 0) return;
+            new MergeTask(a, lo, mid, mid, hi, tmp, lo, comp).compute();
+            System.arraycopy(tmp, lo, a, lo, hi - lo);
+        }
+    }
+
+    // Сливает src[l1, r1) и src[l2, r2) в dst начиная с позиции out (левая часть при равенстве первая)
+    @SuppressWarnings("serial")
+    static final class MergeTask extends RecursiveAction {
+        final Object[] src, dst;
+        final int l1, r1, l2, r2, out;
+        final Comparator comp;
+        MergeTask(Object[] src, int l1, int r1, int l2, int r2, Object[] dst, int out, Comparator comp) {
+            this.src = src; this.l1 = l1; this.r1 = r1; this.l2 = l2; this.r2 = r2;
+            this.dst = dst; this.out = out; this.comp = comp;
+        }
+        protected void compute() {
+            int n1 = r1 - l1, n2 = r2 - l2;
+            if (n1 + n2 <= MERGE_THRESHOLD || n1 == 0 || n2 == 0) {
+                mergeSequential();
+                return;
+            }
+            int m1, m2;
+            if (n1 >= n2) {
+                // Делим левую часть по середине, в правой ищем первый элемент >= pivot
+                m1 = (l1 + r1) >>> 1;
+                m2 = lowerBound(src, l2, r2, src[m1], comp);
+            } else {
+                // Делим правую часть, в левой ищем первый элемент > pivot
+                m2 = (l2 + r2) >>> 1;
+                m1 = upperBound(src, l1, r1, src[m2], comp);
+            }
+            int outMid = out + (m1 - l1) + (m2 - l2);
+            invokeAll(new MergeTask(src, l1, m1, l2, m2, dst, out, comp),
+                      new MergeTask(src, m1, r1, m2, r2, dst, outMid, comp));
+        }
+        private void mergeSequential() {
+            int i = l1, j = l2, k = out;
+            while (i < r1 && j < r2) {
+                if (comp.compare(src[j], src[i]) < 0) dst[k++] = src[j++];
+                else dst[k++] = src[i++];
+            }
+            if (i < r1) System.arraycopy(src, i, dst, k, r1 - i);
+            if (j < r2) System.arraycopy(src, j, dst, k, r2 - j);
+        }
+    }
+
+    private static int lowerBound(Object[] a, int lo, int hi, Object key, Comparator comp) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comp.compare(a[mid], key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int upperBound(Object[] a, int lo, int hi, Object key, Comparator comp) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comp.compare(a[mid], key) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,229 @@
+package list;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Персистентный список с общей структурой: AVL-дерево по позициям, в листьях массивы до LEAF элементов.
+// Узлы неизменяемы; изменение копирует только путь от корня до листа (O(log n) узлов),
+// поэтому снимок — это ссылка на корень, за O(1), и читать его можно без блокировки.
+public class PersistentStorage implements ListStorage {
+    static final int LEAF = 64;
+
+    abstract static class Node {
+        final int size;
+        final int height;
+        Node(int size, int height) { this.size = size; this.height = height; }
+    }
+
+    static final class Leaf extends Node {
+        final Object[] items;
+        Leaf(Object[] items) { super(items.length, 1); this.items = items; }
+    }
+
+    static final class Branch extends Node {
+        final Node left;
+        final Node right;
+        Branch(Node left, Node right) {
+            super(left.size + right.size, Math.max(left.height, right.height) + 1);
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    // null — список пуст; размер хранится в корне, чтобы снимок читал одно поле
+    private Node root;
+
+    public PersistentStorage() { }
+
+    private PersistentStorage(Node root) { this.root = root; }
+
+    public String kind() { return "persistent"; }
+
+    public int size() { return root == null ? 0 : root.size; }
+
+    public Object get(int index) {
+        Node x = root;
+        while (x instanceof Branch) {
+            Branch b = (Branch) x;
+            if (index < b.left.size) x = b.left;
+            else { index -= b.left.size; x = b.right; }
+        }
+        return ((Leaf) x).items[index];
+    }
+
+    // Узлы неизменяемы: чтение во время изменения видит целиком старую или новую версию
+    public boolean optimisticReadSafe() { return true; }
+
+    // Независимая копия за O(1): дальнейшие изменения любой из сторон копируют свои пути
+    public ListStorage snapshot() { return new PersistentStorage(root); }
+
+    // Узел из двух поддеревьев с поворотом, если высоты разошлись на 2
+    private static Node balance(Node l, Node r) {
+        if (l.height > r.height + 1) {
+            Branch b = (Branch) l;
+            if (b.left.height >= b.right.height) return new Branch(b.left, new Branch(b.right, r));
+            Branch m = (Branch) b.right;
+            return new Branch(new Branch(b.left, m.left), new Branch(m.right, r));
+        }
+        if (r.height > l.height + 1) {
+            Branch b = (Branch) r;
+            if (b.right.height >= b.left.height) return new Branch(new Branch(l, b.left), b.right);
+            Branch m = (Branch) b.left;
+            return new Branch(new Branch(l, m.left), new Branch(m.right, b.right));
+        }
+        return new Branch(l, r);
+    }
+
+    private static Node set(Node x, int index, Object obj) {
+        if (x instanceof Leaf) {
+            Object[] a = ((Leaf) x).items.clone();
+            a[index] = obj;
+            return new Leaf(a);
+        }
+        Branch b = (Branch) x;
+        if (index < b.left.size) return new Branch(set(b.left, index, obj), b.right);
+        return new Branch(b.left, set(b.right, index - b.left.size, obj));
+    }
+
+    private static Node insert(Node x, int index, Object obj) {
+        if (x instanceof Leaf) {
+            Object[] a = ((Leaf) x).items;
+            if (a.length < LEAF) return new Leaf(withInserted(a, 0, a.length, index, obj));
+            // Добавление за полным листом не трогает его; иначе делим лист пополам
+            if (index == LEAF) return new Branch(x, new Leaf(new Object[] { obj }));
+            int half = LEAF / 2;
+            if (index <= half) return new Branch(new Leaf(withInserted(a, 0, half, index, obj)), new Leaf(copy(a, half, LEAF)));
+            return new Branch(new Leaf(copy(a, 0, half)), new Leaf(withInserted(a, half, LEAF, index, obj)));
+        }
+        Branch b = (Branch) x;
+        if (index < b.left.size) return balance(insert(b.left, index, obj), b.right);
+        return balance(b.left, insert(b.right, index - b.left.size, obj));
+    }
+
+    // Копия a[from, to) со вставкой obj в позицию index (from <= index <= to)
+    private static Object[] withInserted(Object[] a, int from, int to, int index, Object obj) {
+        Object[] r = new Object[to - from + 1];
+        System.arraycopy(a, from, r, 0, index - from);
+        r[index - from] = obj;
+        System.arraycopy(a, index, r, index - from + 1, to - index);
+        return r;
+    }
+
+    private static Object[] copy(Object[] a, int from, int to) {
+        Object[] r = new Object[to - from];
+        System.arraycopy(a, from, r, 0, to - from);
+        return r;
+    }
+
+    // null, если поддерево опустело
+    private static Node remove(Node x, int index) {
+        if (x instanceof Leaf) {
+            Object[] a = ((Leaf) x).items;
+            if (a.length == 1) return null;
+            Object[] r = new Object[a.length - 1];
+            System.arraycopy(a, 0, r, 0, index);
+            System.arraycopy(a, index + 1, r, index, a.length - index - 1);
+            return new Leaf(r);
+        }
+        Branch b = (Branch) x;
+        Node l = b.left, r = b.right;
+        if (index < l.size) l = remove(l, index);
+        else r = remove(r, index - l.size);
+        if (l == null) return r;
+        if (r == null) return l;
+        if (l instanceof Leaf && r instanceof Leaf && l.size + r.size <= LEAF) {
+            // Сливаем соседние листья, чтобы они не вырождались в почти пустые
+            Object[] m = new Object[l.size + r.size];
+            System.arraycopy(((Leaf) l).items, 0, m, 0, l.size);
+            System.arraycopy(((Leaf) r).items, 0, m, l.size, r.size);
+            return new Leaf(m);
+        }
+        return balance(l, r);
+    }
+
+    public void set(int index, Object obj) { root = set(root, index, obj); }
+
+    public void add(Object obj) { insert(size(), obj); }
+
+    public void insert(int index, Object obj) {
+        root = (root == null) ? new Leaf(new Object[] { obj }) : insert(root, index, obj);
+    }
+
+    public Object remove(int index) {
+        Object removed = get(index);
+        root = remove(root, index);
+        return removed;
+    }
+
+    public void clear() { root = null; }
+
+    public Iterator<Object> iterator(int from) {
+        // В стеке — правые поддеревья, которые ещё предстоит обойти
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        Leaf first = null;
+        int off = from;
+        if (from < size()) {
+            Node x = root;
+            while (x instanceof Branch) {
+                Branch b = (Branch) x;
+                if (off < b.left.size) { pending.push(b.right); x = b.left; }
+                else { off -= b.left.size; x = b.right; }
+            }
+            first = (Leaf) x;
+        }
+        Leaf firstLeaf = first;
+        int firstOffset = off;
+        return new Iterator<Object>() {
+            Leaf leaf = firstLeaf;
+            int i = firstOffset;
+            public boolean hasNext() {
+                if (leaf == null) return false;
+                if (i < leaf.items.length) return true;
+                if (pending.isEmpty()) { leaf = null; return false; }
+                Node x = pending.pop();
+                while (x instanceof Branch) {
+                    pending.push(((Branch) x).right);
+                    x = ((Branch) x).left;
+                }
+                leaf = (Leaf) x;
+                i = 0;
+                return true;
+            }
+            public Object next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return leaf.items[i++];
+            }
+        };
+    }
+
+    private static int fill(Node x, Object[] arr, int pos) {
+        if (x instanceof Leaf) {
+            Object[] a = ((Leaf) x).items;
+            System.arraycopy(a, 0, arr, pos, a.length);
+            return pos + a.length;
+        }
+        return fill(((Branch) x).right, arr, fill(((Branch) x).left, arr, pos));
+    }
+
+    public Object[] toArray() {
+        Object[] arr = new Object[size()];
+        if (root != null) fill(root, arr, 0);
+        return arr;
+    }
+
+    // Идеально сбалансированное дерево из листьев [from, to) массива values
+    private static Node build(Object[] values, int fromLeaf, int toLeaf) {
+        if (toLeaf - fromLeaf == 1) {
+            int from = fromLeaf * LEAF;
+            return new Leaf(copy(values, from, Math.min(values.length, from + LEAF)));
+        }
+        int mid = (fromLeaf + toLeaf) >>> 1;
+        return new Branch(build(values, fromLeaf, mid), build(values, mid, toLeaf));
+    }
+
+    public void setAll(Object[] values) {
+        int leaves = (values.length + LEAF - 1) / LEAF;
+        root = (leaves == 0) ? null : build(values, 0, leaves);
+    }
+}
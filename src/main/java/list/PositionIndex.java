@@ -0,0 +1,155 @@
+package list;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Индекс значение -> позиции для поиска по равенству (equals/hashCode типа).
+// Элементы лежат в неявном декартовом дереве в порядке списка; позиция узла — его ранг,
+// который считается подъёмом к корню за O(log n). Поэтому вставка и удаление не переписывают
+// позиции остальных элементов, а поиск — хеш-таблица плюс один подъём по дереву.
+public class PositionIndex {
+    static final class Node {
+        final Object value;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node left, right, parent;
+        int size = 1;
+        Node(Object value) { this.value = value; }
+    }
+
+    private Node root;
+    // Значение -> Node (одно вхождение) или TreeSet<Node> в порядке списка
+    private final HashMap<Object, Object> byValue = new HashMap<>();
+
+    // Взаимный порядок узлов при вставках и удалениях не меняется, поэтому набор остаётся упорядоченным
+    private final java.util.Comparator<Node> byRank = (a, b) -> Integer.compare(rank(a), rank(b));
+
+    private static int size(Node n) { return n == null ? 0 : n.size; }
+
+    private static void update(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+        if (n.left != null) n.left.parent = n;
+        if (n.right != null) n.right.parent = n;
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    // Первые k узлов -> out[0], остальные -> out[1]
+    private static void split(Node n, int k, Node[] out) {
+        if (n == null) { out[0] = null; out[1] = null; return; }
+        if (size(n.left) < k) {
+            split(n.right, k - size(n.left) - 1, out);
+            n.right = out[0];
+            update(n);
+            out[0] = n;
+        } else {
+            split(n.left, k, out);
+            n.left = out[1];
+            update(n);
+            out[1] = n;
+        }
+    }
+
+    private static int rank(Node n) {
+        int r = size(n.left);
+        for (Node p = n.parent; p != null; n = p, p = p.parent) {
+            if (p.right == n) r += size(p.left) + 1;
+        }
+        return r;
+    }
+
+    private Node nodeAt(int index) {
+        Node x = root;
+        while (true) {
+            int l = size(x.left);
+            if (index < l) x = x.left;
+            else if (index == l) return x;
+            else { index -= l + 1; x = x.right; }
+        }
+    }
+
+    public int size() { return size(root); }
+
+    @SuppressWarnings("unchecked")
+    private void link(Node n) {
+        Object cur = byValue.get(n.value);
+        if (cur == null) { byValue.put(n.value, n); return; }
+        TreeSet<Node> set;
+        if (cur instanceof Node) {
+            set = new TreeSet<>(byRank);
+            set.add((Node) cur);
+            byValue.put(n.value, set);
+        } else {
+            set = (TreeSet<Node>) cur;
+        }
+        set.add(n);
+    }
+
+    // Вызывается, пока узел ещё в дереве: TreeSet ищет его по рангу
+    @SuppressWarnings("unchecked")
+    private void unlink(Node n) {
+        Object cur = byValue.get(n.value);
+        if (cur == n) { byValue.remove(n.value); return; }
+        TreeSet<Node> set = (TreeSet<Node>) cur;
+        set.remove(n);
+        if (set.size() == 1) byValue.put(n.value, set.first());
+    }
+
+    public void insert(int index, Object value) {
+        Node n = new Node(value);
+        Node[] parts = new Node[2];
+        split(root, index, parts);
+        root = merge(merge(parts[0], n), parts[1]);
+        root.parent = null;
+        link(n);
+    }
+
+    public void add(Object value) { insert(size(), value); }
+
+    public void remove(int index) {
+        unlink(nodeAt(index));
+        Node[] parts = new Node[2];
+        split(root, index, parts);
+        Node left = parts[0];
+        split(parts[1], 1, parts);
+        root = merge(left, parts[1]);
+        if (root != null) root.parent = null;
+    }
+
+    public void set(int index, Object value) {
+        remove(index);
+        insert(index, value);
+    }
+
+    public void clear() {
+        root = null;
+        byValue.clear();
+    }
+
+    // Перестраивает индекс по содержимому списка (после сортировки или загрузки)
+    public void rebuild(Iterator<Object> values) {
+        clear();
+        while (values.hasNext()) add(values.next());
+    }
+
+    // Позиция первого элемента, равного value, или -1
+    @SuppressWarnings("unchecked")
+    public int indexOf(Object value) {
+        Object cur = byValue.get(value);
+        if (cur == null) return -1;
+        if (cur instanceof Node) return rank((Node) cur);
+        return rank(((TreeSet<Node>) cur).first());
+    }
+}
@@ -0,0 +1,74 @@
+package list;
+
+import data.DoubleType;
+
+// Устойчивая поразрядная сортировка (LSD, по байту за проход) по 64-битным ключам.
+// Ключи сравниваются как знаковые long; проходы, где у всех ключей один и тот же байт, пропускаются.
+public class RadixSort {
+    private static final int RADIX = 256;
+
+    // Гистограммы всех восьми байтов за один проход; знаковый бит инвертирован
+    private static int[][] histograms(long[] keys, int n) {
+        int[][] counts = new int[8][RADIX];
+        for (int i = 0; i < n; i++) {
+            long k = keys[i] ^ Long.MIN_VALUE;
+            for (int b = 0; b < 8; b++) counts[b][(int) (k >>> (8 * b)) & 0xFF]++;
+        }
+        return counts;
+    }
+
+    private static boolean trivial(int[] count, int n) {
+        for (int c : count) if (c == n) return true;
+        return false;
+    }
+
+    // Сортирует ключи и переставляет значения вместе с ними (vals может быть null)
+    public static void sort(long[] keys, Object[] vals) {
+        int n = keys.length;
+        if (n < 2) return;
+        int[][] counts = histograms(keys, n);
+        long[] k2 = new long[n];
+        Object[] v2 = (vals != null) ? new Object[n] : null;
+        long[] srcK = keys, dstK = k2;
+        Object[] srcV = vals, dstV = v2;
+        for (int b = 0; b < 8; b++) {
+            int[] count = counts[b];
+            if (trivial(count, n)) continue;
+            int[] pos = new int[RADIX];
+            for (int d = 1; d < RADIX; d++) pos[d] = pos[d - 1] + count[d - 1];
+            int shift = 8 * b;
+            for (int i = 0; i < n; i++) {
+                int d = (int) ((srcK[i] ^ Long.MIN_VALUE) >>> shift) & 0xFF;
+                int p = pos[d]++;
+                dstK[p] = srcK[i];
+                if (srcV != null) dstV[p] = srcV[i];
+            }
+            long[] tk = srcK; srcK = dstK; dstK = tk;
+            Object[] tv = srcV; srcV = dstV; dstV = tv;
+        }
+        if (srcK != keys) {
+            System.arraycopy(srcK, 0, keys, 0, n);
+            if (vals != null) System.arraycopy(srcV, 0, vals, 0, n);
+        }
+    }
+
+    // int переводим в беззнаковые 32 бита: старшие байты ключа одинаковы, проходов всего четыре
+    public static void sortInts(int[] a) {
+        long[] keys = new long[a.length];
+        for (int i = 0; i < a.length; i++) keys[i] = (a[i] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        sort(keys, null);
+        for (int i = 0; i < a.length; i++) a[i] = (int) keys[i] ^ Integer.MIN_VALUE;
+    }
+
+    // Обратное к DoubleType.sortKeyOf
+    private static double fromDoubleKey(long key) {
+        return Double.longBitsToDouble(key >= 0 ? key : key ^ Long.MAX_VALUE);
+    }
+
+    public static void sortDoubles(double[] a) {
+        long[] keys = new long[a.length];
+        for (int i = 0; i < a.length; i++) keys[i] = DoubleType.sortKeyOf(a[i]);
+        sort(keys, null);
+        for (int i = 0; i < a.length; i++) a[i] = fromDoubleKey(keys[i]);
+    }
+}
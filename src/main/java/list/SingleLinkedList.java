@@ -2,8 +2,16 @@ package list;
 
 import java.io.*;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 import data.UserType;
 import data.UserFactory;
@@ -14,31 +22,42 @@ import data.FractionType;
 import data.Fraction;
 import data.Comparator;
 import data.DoWith;
+import data.JsonReader;
 import data.TestIt;
 import list.SingleLinkedList;
 
-// Хранит объекты одного типа
+// Хранит объекты одного типа; элементы лежат в подключаемом движке ListStorage
+// (для Integer и Double по умолчанию — примитивные IntStorage/DoubleStorage)
 public class SingleLinkedList {
-    private class Node {
-        Object value;
-        Node next;
-        Node(Object v) { value = v; next = null; }
-    }
-
-    private Node head;
-    private int size;
+    private final ListStorage storage;
     public final UserType prototype;
     private final Class<?> elementClass;
+    // Номер версии: растёт при каждом изменении содержимого
+    private long version;
+    // Индекс значение -> позиции для indexOf; null — не ведётся
+    private PositionIndex index;
+    // Компаратор, по которому список заведомо упорядочен (после sort); null — порядок неизвестен.
+    // Сбрасывается записью, нарушающей порядок; удаление порядок не портит
+    private Comparator sortedBy;
 
     public SingleLinkedList(UserType prototype) {
+        this(prototype, StorageFactory.defaultFor(prototype));
+    }
+
+    public SingleLinkedList(UserType prototype, ListStorage storage) {
         this.prototype = prototype;
-        this.head = null;
-        this.size = 0;
+        this.storage = storage;
         Object sample = prototype.create();
         if (sample != null) elementClass = sample.getClass();
         else elementClass = null;
     }
 
+    private SingleLinkedList(UserType prototype, ListStorage storage, long version, Comparator sortedBy) {
+        this(prototype, storage);
+        this.version = version;
+        this.sortedBy = sortedBy;
+    }
+
     private void checkAcceptable(Object obj) {
         if (obj == null) return;
         if (elementClass != null && !elementClass.isAssignableFrom(obj.getClass())) {
@@ -48,210 +67,624 @@ public class SingleLinkedList {
         }
     }
 
-    public int size() { return size; }
+    public int size() { return storage.size(); }
+
+    public String storageKind() { return storage.kind(); }
+
+    public long version() { return version; }
+
+    // Снимок с той же версией за O(1), если движок персистентный, иначе null.
+    // Изменения исходного списка в снимке не видны (и наоборот)
+    public SingleLinkedList snapshot() {
+        ListStorage s = storage.snapshot();
+        return (s == null) ? null : new SingleLinkedList(prototype, s, version, sortedBy);
+    }
+
+    // Независимая копия с той же версией: снимок персистентного движка за O(1),
+    // для остальных — поэлементная копия (O(n), без сериализации): из примитивного движка —
+    // в такой же, из остальных — в UnrolledStorage, который, в отличие от примитивных, держит null
+    public SingleLinkedList copy() {
+        SingleLinkedList snap = snapshot();
+        if (snap != null) return snap;
+        ListStorage s = primitive() ? StorageFactory.defaultFor(prototype) : new UnrolledStorage();
+        Iterator<Object> it = storage.iterator();
+        while (it.hasNext()) s.add(it.next());
+        return new SingleLinkedList(prototype, s, version, sortedBy);
+    }
+
+    private boolean primitive() { return storage instanceof IntStorage || storage instanceof DoubleStorage; }
+
+    // Для загрузки: null не помещается в примитивный движок по умолчанию (Integer, Double), а старые
+    // файлы могут его содержать. Тогда загруженное до сих пор переносится в UnrolledStorage
+    private SingleLinkedList withNullSupport() {
+        if (!primitive()) return this;
+        SingleLinkedList l = new SingleLinkedList(prototype, new UnrolledStorage());
+        Iterator<Object> it = storage.iterator();
+        while (it.hasNext()) l.add(it.next());
+        return l;
+    }
+
+    // Можно ли читать peek без блокировки (см. ListStorage.optimisticReadSafe)
+    public boolean optimisticReadSafe() { return storage.optimisticReadSafe(); }
 
     public void add(Object obj) {
         checkAcceptable(obj);
-        Node n = new Node(obj);
-        if (head == null) head = n;
-        else {
-            Node cur = head;
-            while (cur.next != null) cur = cur.next;
-            cur.next = n;
-        }
-        size++;
+        int n = storage.size();
+        if (sortedBy != null && !keepsOrder(n - 1, obj, n)) sortedBy = null;
+        storage.add(obj);
+        if (index != null) index.add(obj);
+        version++;
     }
 
     public Object get(int index) {
         checkIndex(index);
-        Node cur = head;
-        for (int i = 0; i < index; i++) cur = cur.next;
-        return cur.value;
+        return storage.get(index);
+    }
+
+    // get для чтения без блокировки (см. optimisticReadSafe): не меняет состояние движка
+    public Object peek(int index) {
+        checkIndex(index);
+        return storage.peek(index);
+    }
+
+    // Заменяет элемент, возвращает прежнее значение
+    public Object set(int index, Object obj) {
+        checkIndex(index);
+        checkAcceptable(obj);
+        if (sortedBy != null && !keepsOrder(index - 1, obj, index + 1)) sortedBy = null;
+        Object old = storage.get(index);
+        storage.set(index, obj);
+        if (this.index != null) this.index.set(index, obj);
+        version++;
+        return old;
     }
 
     public void insert(int index, Object obj) {
-        if (index < 0 || index > size) throw new IndexOutOfBoundsException("index=" + index);
+        if (index < 0 || index > storage.size()) throw new IndexOutOfBoundsException("index=" + index);
         checkAcceptable(obj);
-        Node n = new Node(obj);
-        if (index == 0) {
-            n.next = head;
-            head = n;
-        } else {
-            Node cur = head;
-            for (int i = 0; i < index - 1; i++) cur = cur.next;
-            n.next = cur.next;
-            cur.next = n;
-        }
-        size++;
+        if (sortedBy != null && !keepsOrder(index - 1, obj, index)) sortedBy = null;
+        storage.insert(index, obj);
+        if (this.index != null) this.index.insert(index, obj);
+        version++;
     }
 
     public Object remove(int index) {
         checkIndex(index);
-        Object removed;
-        if (index == 0) {
-            removed = head.value;
-            head = head.next;
-        } else {
-            Node cur = head;
-            for (int i = 0; i < index - 1; i++) cur = cur.next;
-            removed = cur.next.value;
-            cur.next = cur.next.next;
-        }
-        size--;
+        Object removed = storage.remove(index);
+        if (this.index != null) this.index.remove(index);
+        version++;
         return removed;
     }
 
+    // Не нарушит ли obj порядок sortedBy, оказавшись между позициями before и after
+    private boolean keepsOrder(int before, Object obj, int after) {
+        return (before < 0 || sortedBy.compare(storage.get(before), obj) <= 0)
+                && (after >= storage.size() || sortedBy.compare(obj, storage.get(after)) <= 0);
+    }
+
+    public boolean isSorted() { return sortedBy != null; }
+
+    public boolean isSortedBy(Comparator comp) { return sortedBy != null && sortedBy == comp; }
+
+    // Компаратор упорядоченности (null — порядок неизвестен); вместе с version() запоминается
+    // перед группой изменений, чтобы restoreState вернул их после отката
+    public Comparator sortedBy() { return sortedBy; }
+
+    // После того как изменения отменены обратными операциями и содержимое снова прежнее
+    public void restoreState(long version, Comparator sortedBy) {
+        this.version = version;
+        this.sortedBy = sortedBy;
+    }
+
+    // Первая позиция, элемент в которой не меньше value (strict = false) или больше value (strict = true)
+    private int bound(Object value, boolean strict) {
+        int lo = 0, hi = storage.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = sortedBy.compare(storage.get(mid), value);
+            if (c < 0 || (strict && c == 0)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Вставляет obj с сохранением порядка comp (после равных ему) за O(log n) сравнений и возвращает позицию.
+    // Список должен быть упорядочен этим компаратором; пустой и из одного элемента упорядочены всегда
+    public int insertSorted(Object obj, Comparator comp) {
+        if (obj == null) throw new IllegalArgumentException("null cannot be inserted in order");
+        checkAcceptable(obj);
+        if (!isSortedBy(comp)) {
+            if (storage.size() > 1) throw new IllegalStateException("list is not sorted by this comparator");
+            sortedBy = comp;
+        }
+        int pos = bound(obj, true);
+        storage.insert(pos, obj);
+        if (index != null) index.insert(pos, obj);
+        version++;
+        return pos;
+    }
+
     private void checkIndex(int index) {
-        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        if (index < 0 || index >= storage.size()) throw new IndexOutOfBoundsException("index=" + index + ", size=" + storage.size());
     }
 
-    public void forEach(DoWith action) {
-        Node cur = head;
-        while (cur != null) {
-            action.doWith(cur.value);
-            cur = cur.next;
+    // Последовательный обход с позиции from (для постраничной выдачи и потоковой записи)
+    public Iterator<Object> iterator(int from) {
+        if (from < 0 || from > storage.size()) throw new IndexOutOfBoundsException("from=" + from + ", size=" + storage.size());
+        return storage.iterator(from);
+    }
+
+    // Включает индекс для indexOf (строится по текущему содержимому за O(n log n)) или выключает его
+    public void setIndexed(boolean on) {
+        if (on && index == null) {
+            index = new PositionIndex();
+            index.rebuild(storage.iterator());
+        } else if (!on) {
+            index = null;
         }
     }
 
+    public boolean isIndexed() { return index != null; }
+
+    // Позиция первого элемента, равного value (equals типа), или -1.
+    // С индексом — хеш-поиск и подъём по дереву позиций; в отсортированном списке — двоичный поиск;
+    // иначе — проход по списку
+    public int indexOf(Object value) {
+        if (index != null) return index.indexOf(value);
+        if (sortedBy != null && value != null) {
+            // Двоичный поиск первого не меньшего, затем проверка равенства среди равных по компаратору
+            int i = bound(value, false);
+            Iterator<Object> it = storage.iterator(i);
+            for (; it.hasNext(); i++) {
+                Object v = it.next();
+                if (sortedBy.compare(v, value) != 0) break;
+                if (value.equals(v)) return i;
+            }
+            return -1;
+        }
+        Iterator<Object> it = storage.iterator();
+        for (int i = 0; it.hasNext(); i++) {
+            if (Objects.equals(it.next(), value)) return i;
+        }
+        return -1;
+    }
+
+    public void forEach(DoWith action) {
+        Iterator<Object> it = storage.iterator();
+        while (it.hasNext()) action.doWith(it.next());
+    }
+
     public Object firstThat(TestIt test) {
-        Node cur = head;
-        while (cur != null) {
-            if (test.testIt(cur.value)) return cur.value;
-            cur = cur.next;
+        Iterator<Object> it = storage.iterator();
+        while (it.hasNext()) {
+            Object v = it.next();
+            if (test.testIt(v)) return v;
         }
         return null;
     }
 
-    public void sort(Comparator comp) {
-        if (size <= 1) return;
-        Object[] arr = new Object[size];
-        Node cur = head;
-        for (int i = 0; i < size; i++) {
-            arr[i] = cur.value;
-            cur = cur.next;
+    // Алгоритмы сортировки (параметр "algorithm" у /list/sort)
+    public static final String SORT_QUICK = "quick";
+    public static final String SORT_PARALLEL = "parallel";
+    public static final String SORT_NATURAL = "natural";
+    public static final String SORT_RADIX = "radix";
+
+    public static boolean isSortAlgorithm(String name) {
+        return SORT_QUICK.equals(name) || SORT_PARALLEL.equals(name) || SORT_NATURAL.equals(name)
+                || SORT_RADIX.equals(name);
+    }
+
+    // Считает вызовы компаратора (в том числе из потоков fork/join)
+    private static class CountingComparator implements Comparator {
+        final Comparator inner;
+        final java.util.concurrent.atomic.LongAdder count = new java.util.concurrent.atomic.LongAdder();
+        CountingComparator(Comparator inner) { this.inner = inner; }
+        public int compare(Object o1, Object o2) {
+            count.increment();
+            return inner.compare(o1, o2);
+        }
+    }
+
+    public void sort(Comparator comp) { sort(comp, SORT_QUICK); }
+
+    public SortStats sort(Comparator comp, String algorithm) {
+        SortEvent event = new SortEvent();
+        event.begin();
+        SortStats st = sortWith(comp, algorithm);
+        event.end();
+        if (event.shouldCommit()) {
+            event.type = prototype.typeName();
+            event.storage = storage.kind();
+            event.algorithm = st.algorithm;
+            event.size = st.size;
+            event.comparisons = st.comparisons;
+            event.commit();
+        }
+        return st;
+    }
+
+    private SortStats sortWith(Comparator comp, String algorithm) {
+        if (!isSortAlgorithm(algorithm)) throw new IllegalArgumentException("Unknown sort algorithm: " + algorithm);
+        long t0 = System.nanoTime();
+        int n = storage.size();
+        // Уже упорядочен этим компаратором: ни сравнений, ни новой версии
+        if (isSortedBy(comp)) return new SortStats(algorithm, n, -1, System.nanoTime() - t0);
+        CountingComparator counting = new CountingComparator(comp);
+        boolean natural = comp == prototype.getTypeComparator();
+        if (n > 1 && !storage.sortInPlace(counting, natural, algorithm)) {
+            Object[] arr = storage.toArray();
+            if (SORT_PARALLEL.equals(algorithm)) ParallelMergeSort.sort(arr, counting);
+            else if (SORT_RADIX.equals(algorithm)) radixSort(arr, natural, counting);
+            // Движки без узлов-массивов: TimSort тоже естественный и устойчивый
+            else if (SORT_NATURAL.equals(algorithm)) Arrays.sort(arr, counting::compare);
+            else quickSort(arr, 0, arr.length - 1, counting);
+            storage.setAll(arr);
+        }
+        if (index != null && n > 1) index.rebuild(storage.iterator());
+        sortedBy = comp;
+        version++;
+        long comparisons = counting.count.sum();
+        if (n > 1 && comparisons == 0) comparisons = -1;
+        return new SortStats(algorithm, n, comparisons, System.nanoTime() - t0);
+    }
+
+    // Поразрядная сортировка по ключу типа; без ключа или для чужого порядка — сортировка сравнением
+    private void radixSort(Object[] arr, boolean natural, Comparator comp) {
+        boolean usable = natural && prototype.hasSortKey();
+        for (int i = 0; usable && i < arr.length; i++) usable = arr[i] != null;
+        if (!usable) {
+            Arrays.sort(arr, comp::compare);
+            return;
         }
-        quickSort(arr, 0, arr.length - 1, comp);
-        cur = head;
-        for (int i = 0; i < size; i++) {
-            cur.value = arr[i];
-            cur = cur.next;
+        long[] keys = new long[arr.length];
+        for (int i = 0; i < arr.length; i++) keys[i] = prototype.sortKey(arr[i]);
+        RadixSort.sort(keys, arr);
+        if (prototype.isSortKeyExact()) return;
+        // Досортировываем группы с одинаковым ключом
+        int from = 0;
+        for (int i = 1; i <= arr.length; i++) {
+            if (i == arr.length || keys[i] != keys[from]) {
+                if (i - from > 1) Arrays.sort(arr, from, i, comp::compare);
+                from = i;
+            }
         }
     }
 
+    // Отрезки не длиннее этого досортировываются вставками
+    private static final int INSERTION_THRESHOLD = 16;
+
+    // Быстрая сортировка a[lo, hi]: опорный — медиана трёх, разбиение на три части (< = >),
+    // поэтому равные элементы и уже упорядоченный вход не дают квадратичного времени.
+    // Рекурсия только в меньшую часть (глубина стека O(log n)), большая обрабатывается в цикле;
+    // если разбиения всё же вырождаются (глубже 2·log n), отрезок досортировывает Arrays.sort
     private void quickSort(Object[] a, int lo, int hi, Comparator comp) {
-        if (lo >= hi) return;
-        int p = partition(a, lo, hi, comp);
-        quickSort(a, lo, p - 1, comp);
-        quickSort(a, p + 1, hi, comp);
-    }
-
-    private int partition(Object[] a, int lo, int hi, Comparator comp) {
-        Object pivot = a[hi];
-        int i = lo - 1;
-        for (int j = lo; j < hi; j++) {
-            if (comp.compare(a[j], pivot) <= 0) {
-                i++;
-                Object tmp = a[i]; a[i] = a[j]; a[j] = tmp;
+        quickSort(a, lo, hi, comp, 2 * (32 - Integer.numberOfLeadingZeros(hi - lo + 1)));
+    }
+
+    private void quickSort(Object[] a, int lo, int hi, Comparator comp, int depth) {
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                Arrays.sort(a, lo, hi + 1, comp::compare);
+                return;
+            }
+            Object pivot = medianOfThree(a, lo, lo + ((hi - lo) >>> 1), hi, comp);
+            // a[lo, lt) < pivot, a[lt, i) == pivot, a(gt, hi] > pivot
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                int c = comp.compare(a[i], pivot);
+                if (c < 0) swap(a, lt++, i++);
+                else if (c > 0) swap(a, i, gt--);
+                else i++;
             }
+            if (lt - lo < hi - gt) {
+                quickSort(a, lo, lt - 1, comp, depth);
+                lo = gt + 1;
+            } else {
+                quickSort(a, gt + 1, hi, comp, depth);
+                hi = lt - 1;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            Object v = a[i];
+            int j = i - 1;
+            while (j >= lo && comp.compare(a[j], v) > 0) { a[j + 1] = a[j]; j--; }
+            a[j + 1] = v;
+        }
+    }
+
+    private static Object medianOfThree(Object[] a, int i, int j, int k, Comparator comp) {
+        Object x = a[i], y = a[j], z = a[k];
+        if (comp.compare(x, y) < 0) {
+            if (comp.compare(y, z) < 0) return y;
+            return comp.compare(x, z) < 0 ? z : x;
         }
-        Object tmp = a[i+1]; a[i+1] = a[hi]; a[hi] = tmp;
-        return i+1;
+        if (comp.compare(x, z) < 0) return x;
+        return comp.compare(y, z) < 0 ? z : y;
+    }
+
+    private static void swap(Object[] a, int i, int j) {
+        Object tmp = a[i]; a[i] = a[j]; a[j] = tmp;
     }
 
     public void saveToFile(String filename) throws IOException {
+        FileEvent event = FileEvent.started();
         try (BufferedWriter bw = new BufferedWriter(new FileWriter(filename))) {
-            bw.write("{");
-            bw.newLine();
-            bw.write("  \"type\": \"" + jsonEscape(prototype.typeName()) + "\",");
-            bw.newLine();
-            bw.write("  \"items\": [");
-            bw.newLine();
-            Node cur = head;
-            boolean first = true;
-            while (cur != null) {
-                String sval = prototype.serialize(cur.value);
-                String escaped = jsonEscape(sval);
-                if (!first) bw.write(",");
-                bw.write("    \"" + escaped + "\"");
-                bw.newLine();
-                first = false;
-                cur = cur.next;
-            }
-            bw.write("  ]");
+            writeJson(bw);
+        }
+        event.done(FileEvent.SAVE, "json", filename, this);
+    }
+
+    private void writeJson(BufferedWriter bw) throws IOException {
+        bw.write("{");
+        bw.newLine();
+        bw.write("  \"type\": \"" + jsonEscape(prototype.typeName()) + "\",");
+        bw.newLine();
+        bw.write("  \"items\": [");
+        bw.newLine();
+        Iterator<Object> it = storage.iterator();
+        boolean first = true;
+        while (it.hasNext()) {
+            String sval = prototype.serialize(it.next());
+            String escaped = jsonEscape(sval);
+            if (!first) bw.write(",");
+            bw.write("    \"" + escaped + "\"");
             bw.newLine();
-            bw.write("}");
+            first = false;
         }
+        bw.write("  ]");
+        bw.newLine();
+        bw.write("}");
     }
 
     public static SingleLinkedList loadFromFile(String filename, UserFactory factory) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String ln;
-            while ((ln = br.readLine()) != null) { sb.append(ln); sb.append('\n'); }
-        }
-        String content = sb.toString();
-        Pattern pType = Pattern.compile("\"type\"\\s*:\\s*\"([^\"]*)\"", Pattern.CASE_INSENSITIVE);
-        Matcher mType = pType.matcher(content);
-        if (!mType.find()) throw new IOException("Invalid JSON: type not found");
-        String tname = unescapeJson(mType.group(1));
-        UserType builder = factory.getBuilderByName(tname);
-        if (builder == null) throw new IOException("Unknown type in file: " + tname);
+        return loadFromFile(filename, factory, false);
+    }
 
-        Pattern pItems = Pattern.compile("\"items\"\\s*:\\s*\\[(.*?)\\]", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-        Matcher mItems = pItems.matcher(content);
-        ArrayList<String> items = new ArrayList<>();
-        if (mItems.find()) {
-            String itemsContent = mItems.group(1);
-            items = parseJsonStringList(itemsContent);
-        } else {
-            throw new IOException("Invalid JSON: items array not found");
+    // Читает файл saveToFile потоком: поля разбираются по мере чтения, элементы сразу
+    // десериализуются и дописываются в хвост. Память — на сам список, а не на копии файла.
+    // parallel = true — десериализация порциями на fork/join-пуле (см. LoadSink)
+    public static SingleLinkedList loadFromFile(String filename, UserFactory factory, boolean parallel) throws IOException {
+        FileEvent event = FileEvent.started();
+        SingleLinkedList list;
+        try (InputStream in = Channels.newInputStream(FileChannel.open(Paths.get(filename), StandardOpenOption.READ))) {
+            list = readJson(in, factory, parallel);
         }
+        event.done(FileEvent.LOAD, "json", filename, list);
+        return list;
+    }
 
-        SingleLinkedList lst = new SingleLinkedList(builder);
-        for (String s : items) {
-            String un = unescapeJson(s);
-            Object obj = builder.deserialize(un);
-            lst.add(obj);
+    private static SingleLinkedList readJson(InputStream in, UserFactory factory, boolean parallel) throws IOException {
+        try {
+            JsonReader r = new JsonReader(in);
+            UserType builder = null;
+            LoadSink sink = null;
+            boolean sawItems = false;
+            // Элементы, встреченные раньше поля type (в файлах saveToFile type идёт первым)
+            ArrayList<Object> early = null;
+            r.beginObject();
+            while (r.hasNext()) {
+                String name = r.nextName();
+                if ("type".equalsIgnoreCase(name) && builder == null) {
+                    Object t = r.readValue();
+                    if (!(t instanceof String)) throw new IOException("Invalid JSON: type must be a string");
+                    builder = factory.getBuilderByName((String) t);
+                    if (builder == null) throw new IOException("Unknown type in file: " + t);
+                    sink = new LoadSink(new SingleLinkedList(builder), parallel ? ForkJoinPool.commonPool() : null);
+                    if (early != null) for (Object item : early) sink.accept(item);
+                    early = null;
+                } else if ("items".equalsIgnoreCase(name) && !sawItems) {
+                    sawItems = true;
+                    r.beginArray();
+                    while (r.hasNext()) {
+                        Object item = r.readValue();
+                        if (sink != null) sink.accept(item);
+                        else {
+                            if (early == null) early = new ArrayList<>();
+                            early.add(item);
+                        }
+                    }
+                    r.endArray();
+                } else {
+                    r.readValue();
+                }
+            }
+            r.endObject();
+            r.expectEnd();
+            if (builder == null) throw new IOException("Invalid JSON: type not found");
+            if (!sawItems) throw new IOException("Invalid JSON: items array not found");
+            return sink.finish();
+        } catch (IllegalArgumentException bad) {
+            throw new IOException("Invalid JSON: " + bad.getMessage(), bad);
+        } catch (UncheckedIOException io) {
+            throw io.getCause();
         }
-        return lst;
     }
 
+    // Куда идут элементы при загрузке: сразу в хвост списка или порциями на fork/join-пул.
+    // Порции десериализуются параллельно с чтением файла, а дописываются строго по порядку
+    private static final class LoadSink {
+        // Элементов в порции
+        static final int CHUNK = 4096;
+        SingleLinkedList lst;
+        // null — десериализация в потоке чтения
+        final ForkJoinPool pool;
+        // Порции в работе в порядке файла; их не больше двух на поток пула
+        final ArrayDeque<ForkJoinTask<Object[]>> pending = new ArrayDeque<>();
+        Object[] batch;
+        int filled;
+
+        LoadSink(SingleLinkedList lst, ForkJoinPool pool) {
+            this.lst = lst;
+            this.pool = pool;
+        }
+
+        void accept(Object item) {
+            if (pool == null) { append(itemValue(lst.prototype, item)); return; }
+            if (batch == null) batch = new Object[CHUNK];
+            batch[filled++] = item;
+            if (filled == CHUNK) submit();
+        }
+
+        // Порция десериализуется на месте, в том же массиве
+        private void submit() {
+            Object[] raw = (filled == batch.length) ? batch : Arrays.copyOf(batch, filled);
+            UserType type = lst.prototype;
+            pending.add(pool.submit(() -> {
+                for (int i = 0; i < raw.length; i++) raw[i] = itemValue(type, raw[i]);
+                return raw;
+            }));
+            batch = null;
+            filled = 0;
+            while (pending.size() > 2 * pool.getParallelism()) appendOldest();
+        }
+
+        private void appendOldest() {
+            Object[] values;
+            try {
+                values = pending.poll().join();
+            } catch (RuntimeException failed) {
+                for (ForkJoinTask<Object[]> t : pending) t.cancel(false);
+                pending.clear();
+                throw failed;
+            }
+            for (Object v : values) append(v);
+        }
+
+        private void append(Object v) {
+            if (v == null) lst = lst.withNullSupport();
+            lst.add(v);
+        }
+
+        SingleLinkedList finish() {
+            if (filled > 0) submit();
+            while (!pending.isEmpty()) appendOldest();
+            return lst;
+        }
+    }
+
+    // Элемент items: строка или число (исходный текст), null — пустой элемент
+    private static Object itemValue(UserType builder, Object item) {
+        if (item == null) return null;
+        if (item instanceof Map || item instanceof List) throw new IllegalArgumentException("item must be a string");
+        return builder.deserialize(item.toString());
+    }
+
+    // Типы фиксированной ширины без null — формат v2 (см. BinaryFormat), остальные — v1
     public void saveToBinaryFile(String filename) throws IOException {
-        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
-            dos.writeUTF(prototype.typeName());
-            dos.writeInt(size);
-            Node cur = head;
-            while (cur != null) {
-                if (cur.value == null) {
-                    dos.writeBoolean(true);
-                } else {
-                    dos.writeBoolean(false);
-                    dos.writeUTF(prototype.serialize(cur.value));
-                }
-                cur = cur.next;
+        FileEvent event = FileEvent.started();
+        if (!BinaryFormat.write(filename, prototype, storage)) {
+            try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+                writeBinaryV1(dos);
             }
-            dos.flush();
         }
+        event.done(FileEvent.SAVE, "bin", filename, this);
     }
 
+    private void writeBinaryV1(DataOutputStream dos) throws IOException {
+        dos.writeUTF(prototype.typeName());
+        dos.writeInt(storage.size());
+        Iterator<Object> it = storage.iterator();
+        while (it.hasNext()) {
+            Object v = it.next();
+            if (v == null) {
+                dos.writeBoolean(true);
+            } else {
+                dos.writeBoolean(false);
+                dos.writeUTF(prototype.serialize(v));
+            }
+        }
+        dos.flush();
+    }
+
+    // Формат определяется по заголовку: v2 отображается в память, v1 читается построчно
     public static SingleLinkedList loadFromBinaryFile(String filename, UserFactory factory) throws IOException {
-        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
-            String tname = dis.readUTF();
-            UserType builder = factory.getBuilderByName(tname);
-            if (builder == null) throw new IOException("Unknown type in file: " + tname);
-            int n = dis.readInt();
-            SingleLinkedList lst = new SingleLinkedList(builder);
-            for (int i = 0; i < n; i++) {
-                boolean isNull = dis.readBoolean();
-                if (isNull) {
-                    lst.add(null);
-                } else {
-                    String s = dis.readUTF();
-                    Object obj = builder.deserialize(s);
-                    lst.add(obj);
-                }
+        FileEvent event = FileEvent.started();
+        SingleLinkedList list = BinaryFormat.read(filename, factory);
+        if (list == null) {
+            try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+                list = readBinaryV1(dis, factory);
             }
-            return lst;
+        }
+        event.done(FileEvent.LOAD, "bin", filename, list);
+        return list;
+    }
+
+    private static SingleLinkedList readBinaryV1(DataInputStream dis, UserFactory factory) throws IOException {
+        String tname = dis.readUTF();
+        UserType builder = factory.getBuilderByName(tname);
+        if (builder == null) throw new IOException("Unknown type in file: " + tname);
+        int n = dis.readInt();
+        SingleLinkedList lst = new SingleLinkedList(builder);
+        for (int i = 0; i < n; i++) {
+            boolean isNull = dis.readBoolean();
+            if (isNull) {
+                lst = lst.withNullSupport();
+                lst.add(null);
+            } else {
+                String s = dis.readUTF();
+                Object obj = builder.deserialize(s);
+                lst.add(obj);
+            }
+        }
+        return lst;
+    }
+
+    // GZIPOutputStream с заданным уровнем сжатия: Deflater в нём защищённое поле def
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, 1 << 16);
+            def.setLevel(level);
+        }
+    }
+
+    // Сохранение со сжатием gzip (Deflater) потоком, без сборки файла в памяти.
+    // binary = false — содержимое как у saveToFile, true — как у saveToBinaryFile;
+    // level — 0..9 или -1 (уровень Deflater по умолчанию)
+    public void saveToCompressedFile(String filename, boolean binary, int level) throws IOException {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("compression level must be -1..9: " + level);
+        }
+        FileEvent event = FileEvent.started();
+        try (GZIPOutputStream gz = new LeveledGzipOutputStream(new FileOutputStream(filename), level)) {
+            if (!binary) {
+                BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(gz, StandardCharsets.UTF_8));
+                writeJson(bw);
+                bw.flush();
+            } else if (BinaryFormat.supports(prototype, storage)) {
+                BinaryFormat.write(Channels.newChannel(gz), prototype, storage);
+            } else {
+                DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(gz, 1 << 16));
+                writeBinaryV1(dos);
+                dos.flush();
+            }
+        }
+        event.done(FileEvent.SAVE, binary ? "bin.gz" : "json.gz", filename, this);
+    }
+
+    // Файл сжат gzip (по первым байтам 1f 8b)
+    public static boolean isCompressed(String filename) throws IOException {
+        try (InputStream in = new FileInputStream(filename)) {
+            return in.read() == 0x1f && in.read() == 0x8b;
+        }
+    }
+
+    // Загрузка сжатого файла; формат внутри (JSON, двоичный v1 или v2) определяется по первым байтам
+    public static SingleLinkedList loadFromCompressedFile(String filename, UserFactory factory, boolean parallel) throws IOException {
+        FileEvent event = FileEvent.started();
+        SingleLinkedList list = readCompressed(filename, factory, parallel);
+        event.done(FileEvent.LOAD, "gz", filename, list);
+        return list;
+    }
+
+    private static SingleLinkedList readCompressed(String filename, UserFactory factory, boolean parallel) throws IOException {
+        try (BufferedInputStream in = new BufferedInputStream(new GZIPInputStream(new FileInputStream(filename), 1 << 16), 1 << 16)) {
+            in.mark(BinaryFormat.MAGIC.length);
+            byte[] head = in.readNBytes(BinaryFormat.MAGIC.length);
+            in.reset();
+            if (BinaryFormat.hasMagic(head)) return BinaryFormat.read(Channels.newChannel(in), factory);
+            // Файл saveToFile начинается с "{", двоичный v1 — с длины имени типа
+            if (head.length > 0 && (head[0] == '{' || Character.isWhitespace(head[0]))) return readJson(in, factory, parallel);
+            return readBinaryV1(new DataInputStream(in), factory);
         }
     }
 
@@ -279,97 +712,25 @@ public class SingleLinkedList {
         return sb.toString();
     }
 
-    private static String unescapeJson(String s) {
-        if (s == null) return null;
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            if (c == '\\' && i + 1 < s.length()) {
-                char nxt = s.charAt(i + 1);
-                switch (nxt) {
-                    case '\\': sb.append('\\'); i++; break;
-                    case '\"': sb.append('\"'); i++; break;
-                    case '/': sb.append('/'); i++; break;
-                    case 'b': sb.append('\b'); i++; break;
-                    case 'f': sb.append('\f'); i++; break;
-                    case 'n': sb.append('\n'); i++; break;
-                    case 'r': sb.append('\r'); i++; break;
-                    case 't': sb.append('\t'); i++; break;
-                    case 'u':
-                        if (i + 5 < s.length()) {
-                            String hx = s.substring(i+2, i+6);
-                            try {
-                                int code = Integer.parseInt(hx, 16);
-                                sb.append((char)code);
-                                i += 5;
-                            } catch (NumberFormatException ex) {
-                                sb.append('\\'); sb.append('u');
-                                i++;
-                            }
-                        } else {
-                            sb.append('\\');
-                        }
-                        break;
-                    default:
-                        sb.append(nxt); i++; break;
-                }
-            } else {
-                sb.append(c);
-            }
-        }
-        return sb.toString();
-    }
-
-    private static ArrayList<String> parseJsonStringList(String s) {
-        ArrayList<String> res = new ArrayList<>();
-        int i = 0, n = s.length();
-        while (i < n) {
-            char c = s.charAt(i);
-            if (Character.isWhitespace(c) || c == ',') { i++; continue; }
-            if (c == '"') {
-                StringBuilder cur = new StringBuilder();
-                i++;
-                while (i < n) {
-                    char ch = s.charAt(i);
-                    if (ch == '\\' && i + 1 < n) {
-                        char next = s.charAt(i+1);
-                        cur.append('\\').append(next);
-                        i += 2;
-                    } else if (ch == '"') {
-                        i++;
-                        break;
-                    } else {
-                        cur.append(ch);
-                        i++;
-                    }
-                }
-                res.add(cur.toString());
-            } else {
-                int start = i;
-                while (i < n && s.charAt(i) != ',') i++;
-                String token = s.substring(start, i).trim();
-                if (!token.isEmpty()) res.add(token);
-            }
-        }
-        return res;
+    // Освобождает память движка (важно для offheap); список становится пустым
+    public void release() {
+        storage.release();
+        if (index != null) index.clear();
+        version++;
     }
 
     public ArrayList<Object> toArrayList() {
-        ArrayList<Object> res = new ArrayList<>();
-        Node cur = head;
-        while (cur != null) { res.add(cur.value); cur = cur.next; }
-        return res;
+        return new ArrayList<>(Arrays.asList(storage.toArray()));
     }
 
     public void printList() {
         System.out.print("[");
-        Node cur = head;
+        Iterator<Object> it = storage.iterator();
         boolean first = true;
-        while (cur != null) {
+        while (it.hasNext()) {
             if (!first) System.out.print(", ");
-            System.out.print(cur.value);
+            System.out.print(it.next());
             first = false;
-            cur = cur.next;
         }
         System.out.println("]");
     }
@@ -0,0 +1,160 @@
+package list;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Индексируемый skip list: каждая ссылка вперёд хранит длину прыжка (span),
+// поэтому get/insert/remove по позиции выполняются за O(log n).
+// Инвариант: для ссылки в null span = size + 1 - rank(узла), как будто в конце стоит страж.
+public class SkipListStorage implements ListStorage {
+    static final int MAX_LEVEL = 32;
+
+    static final class Node {
+        Object value;
+        final Node[] next;
+        final int[] span;
+        Node(Object v, int level) { value = v; next = new Node[level]; span = new int[level]; }
+    }
+
+    private final Node head = new Node(null, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    public SkipListStorage() {
+        head.span[0] = 1;
+    }
+
+    public String kind() { return "skiplist"; }
+
+    public int size() { return size; }
+
+    private static int randomLevel() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int lvl = 1;
+        while (lvl < MAX_LEVEL && (rnd.nextInt() & 3) == 0) lvl++;
+        return lvl;
+    }
+
+    // Узел с позицией index (0 <= index < size)
+    private Node nodeAt(int index) {
+        Node x = head;
+        int traversed = 0;
+        int rank = index + 1;
+        for (int lvl = level - 1; lvl >= 0; lvl--) {
+            while (x.next[lvl] != null && traversed + x.span[lvl] <= rank) {
+                traversed += x.span[lvl];
+                x = x.next[lvl];
+            }
+            if (traversed == rank) return x;
+        }
+        return x;
+    }
+
+    public Object get(int index) { return nodeAt(index).value; }
+
+    // Ссылки ведут только вперёд, поэтому поиск во время изменения конечен
+    public boolean optimisticReadSafe() { return true; }
+
+    public void set(int index, Object obj) { nodeAt(index).value = obj; }
+
+    public void add(Object obj) { insert(size, obj); }
+
+    public void insert(int index, Object obj) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int lvl = level - 1; lvl >= 0; lvl--) {
+            rank[lvl] = (lvl == level - 1) ? 0 : rank[lvl + 1];
+            while (x.next[lvl] != null && rank[lvl] + x.span[lvl] <= index) {
+                rank[lvl] += x.span[lvl];
+                x = x.next[lvl];
+            }
+            update[lvl] = x;
+        }
+        int newLevel = randomLevel();
+        if (newLevel > level) {
+            for (int lvl = level; lvl < newLevel; lvl++) {
+                rank[lvl] = 0;
+                update[lvl] = head;
+                head.next[lvl] = null;
+                head.span[lvl] = size + 1;
+            }
+            level = newLevel;
+        }
+        Node n = new Node(obj, newLevel);
+        for (int lvl = 0; lvl < newLevel; lvl++) {
+            Node u = update[lvl];
+            n.next[lvl] = u.next[lvl];
+            n.span[lvl] = u.span[lvl] - (rank[0] - rank[lvl]);
+            u.next[lvl] = n;
+            u.span[lvl] = rank[0] - rank[lvl] + 1;
+        }
+        for (int lvl = newLevel; lvl < level; lvl++) update[lvl].span[lvl]++;
+        size++;
+    }
+
+    public Object remove(int index) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        int traversed = 0;
+        for (int lvl = level - 1; lvl >= 0; lvl--) {
+            while (x.next[lvl] != null && traversed + x.span[lvl] <= index) {
+                traversed += x.span[lvl];
+                x = x.next[lvl];
+            }
+            update[lvl] = x;
+        }
+        Node target = update[0].next[0];
+        for (int lvl = 0; lvl < level; lvl++) {
+            Node u = update[lvl];
+            if (u.next[lvl] == target) {
+                u.span[lvl] += target.span[lvl] - 1;
+                u.next[lvl] = target.next[lvl];
+            } else {
+                u.span[lvl]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) level--;
+        size--;
+        return target.value;
+    }
+
+    public void clear() {
+        for (int lvl = 0; lvl < MAX_LEVEL; lvl++) { head.next[lvl] = null; head.span[lvl] = 0; }
+        head.span[0] = 1;
+        level = 1;
+        size = 0;
+    }
+
+    public Iterator<Object> iterator(int from) {
+        Node first = (from < size) ? nodeAt(from) : null;
+        return new Iterator<Object>() {
+            Node cur = first;
+            public boolean hasNext() { return cur != null; }
+            public Object next() {
+                if (cur == null) throw new NoSuchElementException();
+                Object v = cur.value;
+                cur = cur.next[0];
+                return v;
+            }
+        };
+    }
+
+    public Object[] toArray() {
+        Object[] arr = new Object[size];
+        int i = 0;
+        for (Node x = head.next[0]; x != null; x = x.next[0]) arr[i++] = x.value;
+        return arr;
+    }
+
+    public void setAll(Object[] values) {
+        if (values.length == size) {
+            int i = 0;
+            for (Node x = head.next[0]; x != null; x = x.next[0]) x.value = values[i++];
+            return;
+        }
+        clear();
+        for (Object v : values) add(v);
+    }
+}
@@ -0,0 +1,32 @@
+package list;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Событие JFR для SingleLinkedList.sort: видно в JMC рядом со сборкой мусора и блокировками.
+// Пока запись JFR не идёт, событие выключено и стоит только проверки shouldCommit
+@Name("sll.Sort")
+@Label("List Sort")
+@Category({ "SingleLinkedList", "List" })
+@Description("Sorting of a list")
+@StackTrace(false)
+final class SortEvent extends jdk.jfr.Event {
+    @Label("Type")
+    String type;
+
+    @Label("Storage")
+    String storage;
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Size")
+    int size;
+
+    // -1 — без компаратора (примитивы, поразрядная) или список уже был упорядочен
+    @Label("Comparisons")
+    long comparisons;
+}
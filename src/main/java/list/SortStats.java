@@ -0,0 +1,19 @@
+package list;
+
+// Итог сортировки для ответа /list/sort
+public class SortStats {
+    public final String algorithm;
+    public final int size;
+    // Число вызовов компаратора; -1, если сортировка обошлась без него (примитивы, поразрядная)
+    public final long comparisons;
+    public final long nanos;
+
+    public SortStats(String algorithm, int size, long comparisons, long nanos) {
+        this.algorithm = algorithm;
+        this.size = size;
+        this.comparisons = comparisons;
+        this.nanos = nanos;
+    }
+
+    public double millis() { return nanos / 1_000_000.0; }
+}
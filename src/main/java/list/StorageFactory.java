@@ -0,0 +1,49 @@
+package list;
+
+import java.util.*;
+
+import data.UserType;
+import data.IntegerType;
+import data.DoubleType;
+
+// Выбор движка хранения по имени (параметр "storage" при создании списка)
+public class StorageFactory {
+    public static final String DEFAULT_KIND = "auto";
+
+    private final ArrayList<String> kinds;
+
+    public StorageFactory() {
+        kinds = new ArrayList<>();
+        kinds.add("auto");
+        kinds.add("unrolled");
+        kinds.add("skiplist");
+        kinds.add("int");
+        kinds.add("double");
+        kinds.add("offheap");
+        kinds.add("persistent");
+    }
+
+    public ArrayList<String> getKindList() { return kinds; }
+
+    // Движок по умолчанию: для Integer и Double — примитивные массивы без упаковки
+    public static ListStorage defaultFor(UserType prototype) {
+        if (prototype instanceof IntegerType) return new IntStorage();
+        if (prototype instanceof DoubleType) return new DoubleStorage();
+        return new UnrolledStorage();
+    }
+
+    // Новый пустой движок или null, если имя неизвестно или не подходит к типу
+    public ListStorage create(String kind, UserType prototype) {
+        if (kind == null) kind = DEFAULT_KIND;
+        switch (kind.toLowerCase()) {
+            case "auto": return defaultFor(prototype);
+            case "unrolled": return new UnrolledStorage();
+            case "skiplist": return new SkipListStorage();
+            case "int": return (prototype instanceof IntegerType) ? new IntStorage() : null;
+            case "double": return (prototype instanceof DoubleType) ? new DoubleStorage() : null;
+            case "offheap": return (prototype.fixedWidth() > 0) ? new OffHeapStorage(prototype) : null;
+            case "persistent": return new PersistentStorage();
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package list;
+
+import java.util.Arrays;
+
+// Развёрнутый список ссылок на объекты (движок по умолчанию для нечисловых типов)
+public class UnrolledStorage extends ChunkedStorage {
+    static final int CHUNK = 64;
+
+    public UnrolledStorage() { super(CHUNK); }
+
+    public String kind() { return "unrolled"; }
+
+    protected Object newArray(int capacity) { return new Object[capacity]; }
+    protected Object read(Object data, int i) { return ((Object[]) data)[i]; }
+    protected void write(Object data, int i, Object obj) { ((Object[]) data)[i] = obj; }
+    protected void clearRange(Object data, int from, int to) { Arrays.fill((Object[]) data, from, to, null); }
+
+    public Object[] toArray() {
+        Object[] arr = new Object[size];
+        copyOut(arr);
+        return arr;
+    }
+
+    public void setAll(Object[] values) {
+        if (values.length == size) { copyIn(values); return; }
+        super.setAll(values);
+    }
+}
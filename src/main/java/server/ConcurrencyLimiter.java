@@ -0,0 +1,69 @@
+package server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+// Ограничивает число одновременно обрабатываемых запросов. Лишние ждут свободного места,
+// а когда ждущих больше maxQueue, получают сразу 503 с Retry-After вместо роста задержек у всех.
+public class ConcurrencyLimiter extends Filter {
+    private final Semaphore permits;
+    private final int maxQueue;
+    private final int retryAfterSeconds;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public ConcurrencyLimiter(int maxConcurrent, int maxQueue, int retryAfterSeconds) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent must be positive");
+        if (maxQueue < 0) throw new IllegalArgumentException("maxQueue must be non-negative");
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxQueue = maxQueue;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String description() { return "concurrency limit with 503 on queue overflow"; }
+
+    public int waiting() { return waiting.get(); }
+    public long rejected() { return rejected.sum(); }
+
+    public void doFilter(HttpExchange ex, Chain chain) throws IOException {
+        if (!permits.tryAcquire()) {
+            if (waiting.incrementAndGet() > maxQueue) {
+                waiting.decrementAndGet();
+                reject(ex);
+                return;
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                reject(ex);
+                return;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+        try {
+            chain.doFilter(ex);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void reject(HttpExchange ex) throws IOException {
+        rejected.increment();
+        byte[] b = "{\"error\":\"server busy\"}".getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.getResponseHeaders().set("Retry-After", Integer.toString(retryAfterSeconds));
+        ex.sendResponseHeaders(503, b.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(b);
+        }
+    }
+}
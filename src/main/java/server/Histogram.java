@@ -0,0 +1,62 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Гистограмма длительностей (в наносекундах) без блокировок и без выделения памяти при записи.
+// Логарифмически-линейные корзины: каждая степень двойки делится на 8 равных долей,
+// поэтому квантили получаются с относительной ошибкой не больше 1/8 на всём диапазоне long.
+public class Histogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    static int bucket(long v) {
+        if (v < SUB) return (v < 0) ? 0 : (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return ((exp - SUB_BITS + 1) << SUB_BITS) + sub;
+    }
+
+    // Наибольшее значение, попадающее в корзину i
+    static long upperBound(int i) {
+        if (i < SUB) return i;
+        int exp = (i >> SUB_BITS) + SUB_BITS - 1;
+        long lower = (long) (SUB + (i & (SUB - 1))) << (exp - SUB_BITS);
+        return lower + (1L << (exp - SUB_BITS)) - 1;
+    }
+
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(nanos));
+        count.increment();
+        sum.add(nanos);
+    }
+
+    public long count() { return count.sum(); }
+    public long sum() { return sum.sum(); }
+
+    // Значение квантиля q (0..1): верхняя граница корзины, в которой он лежит; 0 — записей нет
+    public long quantile(double q) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    // Число записей не больше limit (по целым корзинам: граница корзины не выше limit)
+    public long countAtMost(long limit) {
+        long n = 0;
+        for (int i = 0; i < BUCKETS && upperBound(i) <= limit; i++) n += counts.get(i);
+        return n;
+    }
+}
@@ -5,8 +5,6 @@ import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import data.UserType;
 import data.IntegerType;
@@ -14,7 +12,11 @@ import data.DoubleType;
 import data.StringType;
 import data.FractionType;
 import data.UserFactory;
+import data.JsonReader;
+import list.ListStorage;
 import list.SingleLinkedList;
+import list.SortStats;
+import list.StorageFactory;
 
 import com.sun.net.httpserver.*;
 
@@ -22,42 +24,157 @@ import java.net.InetSocketAddress;
 
 public class HttpServerApp {
     private static final UserFactory factory = new UserFactory();
-    // current list and prototype (single-list server)
-    private static SingleLinkedList currentList = null;
-    private static UserType currentPrototype = null;
-    // Блокировка для защиты списка и прототипа
-    private static final Object listLock = new Object();
+    private static final StorageFactory storages = new StorageFactory();
+    // Именованные списки, у каждого своя блокировка; /list/* работает со списком "default".
+    // Предел числа списков задаётся -Dlists.max
+    private static final ListRegistry lists = new ListRegistry(Integer.getInteger("lists.max", 64));
+    // Журнал изменений; null — выключен (не задан server.walDir)
+    private static volatile MutationLog wal;
+    // Фоновые сохранения (save с async=true); создаются при первом start
+    private static volatile SaveJobs saves;
+    // Ограничитель последнего запущенного сервера (для /metrics); null — без ограничения
+    private static volatile ConcurrencyLimiter limiter;
+
     public static void start() throws Exception {
-        int port = 5865;
-        InetSocketAddress addr = new InetSocketAddress("127.0.0.1", port);
-        HttpServer server = HttpServer.create(addr, 0);
-        System.out.println("Backend starting on http://127.0.0.1:" + port);
+        ServerConfig cfg = ServerConfig.fromSystemProperties();
+        recover(cfg);
+        start(cfg);
+    }
+
+    // Восстанавливает списки из журнала cfg.walDir и включает журнал; до start
+    public static void recover(ServerConfig cfg) throws IOException {
+        if (cfg.walDir == null || wal != null) return;
+        long t0 = System.nanoTime();
+        wal = MutationLog.open(new File(cfg.walDir), lists, factory, storages, cfg.walCompactBytes);
+        System.out.println("Recovered " + lists.count() + " list(s) from " + cfg.walDir + " in "
+                + String.format(Locale.US, "%.1f", (System.nanoTime() - t0) / 1e6) + " ms");
+    }
+
+    // Запускает сервер с заданными настройками (port = 0 — любой свободный порт)
+    public static HttpServer start(ServerConfig cfg) throws IOException {
+        synchronized (HttpServerApp.class) {
+            if (saves == null) saves = new SaveJobs(cfg.saveThreads);
+        }
+        InetSocketAddress addr = new InetSocketAddress("127.0.0.1", cfg.port);
+        HttpServer server = HttpServer.create(addr, cfg.backlog);
+        int port = server.getAddress().getPort();
+        System.out.println("Backend starting on http://127.0.0.1:" + port + " (executor " + cfg.executor
+                + ", maxConcurrent " + cfg.maxConcurrent + ", maxQueue " + cfg.maxQueue + ")");
+        // /health не ограничиваем, чтобы проверки живости проходили и под нагрузкой
+        ConcurrencyLimiter limiter = (cfg.maxConcurrent > 0)
+                ? new ConcurrencyLimiter(cfg.maxConcurrent, cfg.maxQueue, cfg.retryAfterSeconds) : null;
 
         server.createContext("/health", HttpServerApp::handleHealth);        // GET health
-        server.createContext("/types", HttpServerApp::handleTypes);          // GET types
-        server.createContext("/list", HttpServerApp::handleListRoot);        // POST list create
-        server.createContext("/list/items", HttpServerApp::handleListItems); // GET items
-        server.createContext("/list/add", HttpServerApp::handleAdd);         // POST add
-        server.createContext("/list/insert", HttpServerApp::handleInsert);   // POST insert
-        server.createContext("/list/remove", HttpServerApp::handleRemove);   // POST remove
-        server.createContext("/list/get", HttpServerApp::handleGet);         // GET get?index=
-        server.createContext("/list/find", HttpServerApp::handleFind);       // POST find
-        server.createContext("/list/sort", HttpServerApp::handleSort);       // POST sort
-        server.createContext("/list/save", HttpServerApp::handleSave);       // POST save {filename, format}
-        server.createContext("/list/load", HttpServerApp::handleLoad);       // POST load {filename, format}
-
-        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.createContext("/metrics", HttpServerApp::handleMetrics);      // GET metrics (Prometheus)
+        HttpServerApp.limiter = limiter;
+        route(server, limiter, "/types", HttpServerApp::handleTypes);          // GET types
+        route(server, limiter, "/list", ex -> handleListRoot(ex, ListRegistry.DEFAULT_ID)); // POST list create
+        route(server, limiter, "/list/items", ex -> handleListItems(ex, lists.defaultList())); // GET items[?offset=&limit=]
+        route(server, limiter, "/list/add", ex -> handleAdd(ex, lists.defaultList()));         // POST add
+        route(server, limiter, "/list/insert", ex -> handleInsert(ex, lists.defaultList()));   // POST insert
+        route(server, limiter, "/list/insertSorted", ex -> handleInsertSorted(ex, lists.defaultList())); // POST insertSorted {value}
+        route(server, limiter, "/list/remove", ex -> handleRemove(ex, lists.defaultList()));   // POST remove
+        route(server, limiter, "/list/batch", ex -> handleBatch(ex, lists.defaultList()));     // POST batch {ops:[...]}
+        route(server, limiter, "/list/get", ex -> handleGet(ex, lists.defaultList()));         // GET get?index=
+        route(server, limiter, "/list/find", ex -> handleFind(ex, lists.defaultList()));       // POST find
+        route(server, limiter, "/list/index", ex -> handleIndex(ex, lists.defaultList()));     // POST index {enabled}
+        route(server, limiter, "/list/sort", ex -> handleSort(ex, lists.defaultList()));       // POST sort
+        route(server, limiter, "/list/save", ex -> handleSave(ex, lists.defaultList()));       // POST save {filename, format, level, async}
+        route(server, limiter, "/list/save/status", HttpServerApp::handleSaveStatus);          // GET save/status?id=
+        route(server, limiter, "/list/load", ex -> handleLoad(ex, ListRegistry.DEFAULT_ID));   // POST load {filename, format, parallel}
+        route(server, limiter, "/lists", HttpServerApp::handleLists);          // /lists, /lists/{id}, /lists/{id}/{op}
+
+        server.setExecutor(executorFor(cfg));
         server.start();
         System.out.println("Ready.");
+        return server;
     }
-    // Небольшие помощники для чтения тела запроса
-    private static String readBody(HttpExchange ex) throws IOException {
-        InputStream is = ex.getRequestBody();
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        byte[] buf = new byte[4096];
-        int r;
-        while ((r = is.read(buf)) > 0) baos.write(buf,0,r);
-        return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+
+    // Метрики снаружи ограничителя: 503 от него тоже попадают в счётчики маршрута
+    private static void route(HttpServer server, ConcurrencyLimiter limiter, String path, HttpHandler handler) {
+        HttpContext ctx = server.createContext(path, handler);
+        ctx.getFilters().add(Metrics.filter(path));
+        if (limiter != null) ctx.getFilters().add(limiter);
+    }
+
+    // Виртуальный поток на запрос дёшев, поэтому всплеск соединений не плодит платформенные потоки
+    private static java.util.concurrent.ExecutorService executorFor(ServerConfig cfg) {
+        if (ServerConfig.EXECUTOR_VIRTUAL.equalsIgnoreCase(cfg.executor)) {
+            return java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor();
+        }
+        if (ServerConfig.EXECUTOR_CACHED.equalsIgnoreCase(cfg.executor)) {
+            return java.util.concurrent.Executors.newCachedThreadPool();
+        }
+        throw new IllegalArgumentException("unknown executor: " + cfg.executor);
+    }
+
+    // Тело запроса как JSON-объект, разобранный потоком прямо из байтов;
+    // при ошибке разбора отвечает 400 и возвращает null
+    private static Map<String, Object> readJson(HttpExchange ex) throws IOException {
+        long t0 = System.nanoTime();
+        try {
+            return JsonReader.readObject(ex.getRequestBody());
+        } catch (IllegalArgumentException bad) {
+            sendError(ex, 400, bad.getMessage());
+            return null;
+        } finally {
+            Metrics.BODY_READ.record(System.nanoTime() - t0);
+        }
+    }
+
+    // Строковое или числовое поле (число — исходным текстом); null — поля нет
+    private static String field(Map<String, Object> body, String name) {
+        Object v = body.get(name);
+        return v instanceof String ? (String) v : null;
+    }
+
+    // true/false (литерал или строка); null — поля нет
+    private static Boolean flag(Map<String, Object> body, String name) {
+        Object v = body.get(name);
+        if (v instanceof Boolean) return (Boolean) v;
+        if ("true".equals(v) || "false".equals(v)) return Boolean.valueOf((String) v);
+        return null;
+    }
+
+    // Журнал отказал (или закрыт): отвечает 503 и возвращает true. Вызывать под блокировкой записи
+    // до изменения списка, чтобы не применить в памяти то, что уже не попадёт в журнал
+    private static boolean logRefuses(HttpExchange ex) throws IOException {
+        MutationLog log = wal;
+        if (log == null) return false;
+        try {
+            log.checkWritable();
+            return false;
+        } catch (IllegalStateException broken) {
+            sendError(ex, 503, broken.getMessage());
+            return true;
+        }
+    }
+
+    // Номер записи, которую журнал отказался принять: отказ случился между logRefuses и append
+    private static final long LOG_REFUSED = -2;
+
+    // Записывает изменение списка в журнал; вызывать под блокировкой записи. 0 — журнал выключен
+    private static long logged(ListHolder holder, byte[]... records) {
+        MutationLog log = wal;
+        if (log == null) return 0;
+        try {
+            return log.append(holder.id, records);
+        } catch (IllegalStateException broken) {
+            return LOG_REFUSED;
+        }
+    }
+
+    // Ждёт, пока изменение окажется на диске; при сбое журнала отвечает 500 и возвращает false
+    private static boolean durable(HttpExchange ex, long lsn) throws IOException {
+        if (lsn == 0) return true;
+        if (lsn == LOG_REFUSED) { sendError(ex, 500, "mutation log write failed"); return false; }
+        try {
+            wal.awaitDurable(lsn);
+            return true;
+        } catch (IOException io) {
+            sendError(ex, 500, io.getMessage());
+            return false;
+        }
     }
 
     private static void sendJson(HttpExchange ex, int code, String json) throws IOException {
@@ -80,6 +197,30 @@ public class HttpServerApp {
         sendJson(ex, 200, "{\"ok\":true}");
     }
 
+    // GET /metrics — счётчики, гистограммы задержек и блокировок в текстовом формате Prometheus
+    private static void handleMetrics(HttpExchange ex) throws IOException {
+        if (!"GET".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
+        LinkedHashMap<String, Integer> sizes = new LinkedHashMap<>();
+        for (String id : lists.ids()) {
+            ListHolder holder = lists.get(id);
+            if (holder != null) sizes.put(id, holder.size());
+        }
+        StringBuilder extra = new StringBuilder();
+        ConcurrencyLimiter l = limiter;
+        if (l != null) {
+            extra.append("# TYPE sll_limiter_waiting gauge\nsll_limiter_waiting ").append(l.waiting()).append('\n');
+            extra.append("# TYPE sll_limiter_rejected_total counter\nsll_limiter_rejected_total ").append(l.rejected()).append('\n');
+        }
+        MutationLog log = wal;
+        if (log != null) extra.append("# TYPE sll_wal_fsyncs_total counter\nsll_wal_fsyncs_total ").append(log.fsyncs()).append('\n');
+        byte[] b = Metrics.prometheus(sizes, extra.toString()).getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        ex.sendResponseHeaders(200, b.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(b);
+        }
+    }
+
     private static void handleTypes(HttpExchange ex) throws IOException {
         if (!"GET".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
         ArrayList<String> names = factory.getTypeNameList();
@@ -95,50 +236,290 @@ public class HttpServerApp {
         sendJson(ex, 200, sb.toString());
     }
 
-    private static void handleListRoot(HttpExchange ex) throws IOException {
+    // GET /lists — имена и размеры; POST /lists/{id} {type, storage} — создать или заменить;
+    // DELETE /lists/{id} — удалить и освободить память; /lists/{id}/{op} — те же операции, что /list/{op}
+    private static void handleLists(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        if (!path.equals("/lists") && !path.startsWith("/lists/")) { sendError(ex, 404, "not found: " + path); return; }
+        String[] parts = path.substring("/lists".length()).split("/");
+        // parts[0] — пустая строка перед первым '/'
+        if (parts.length <= 1) { handleListIndex(ex); return; }
+        String id = parts[1];
+        if (parts.length > 3 || (parts.length == 3 && parts[2].isEmpty())) { sendError(ex, 404, "not found: " + path); return; }
+        if (!ListRegistry.isValidId(id)) { sendError(ex, 400, "invalid list id: " + id); return; }
+        if (parts.length == 2) {
+            if ("DELETE".equalsIgnoreCase(ex.getRequestMethod())) { handleDrop(ex, id); return; }
+            handleListRoot(ex, id);
+            return;
+        }
+        String op = parts[2];
+        if ("load".equals(op)) { handleLoad(ex, id); return; }
+        ListHolder holder = lists.get(id);
+        if (holder == null) { sendError(ex, 404, "no such list: " + id); return; }
+        switch (op) {
+            case "items": handleListItems(ex, holder); break;
+            case "add": handleAdd(ex, holder); break;
+            case "insert": handleInsert(ex, holder); break;
+            case "insertSorted": handleInsertSorted(ex, holder); break;
+            case "remove": handleRemove(ex, holder); break;
+            case "batch": handleBatch(ex, holder); break;
+            case "get": handleGet(ex, holder); break;
+            case "find": handleFind(ex, holder); break;
+            case "index": handleIndex(ex, holder); break;
+            case "sort": handleSort(ex, holder); break;
+            case "save": handleSave(ex, holder); break;
+            default: sendError(ex, 404, "unknown operation: " + op);
+        }
+    }
+
+    private static void handleListIndex(HttpExchange ex) throws IOException {
+        if (!"GET".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"max\":").append(lists.maxLists()).append(", \"lists\":[");
+        boolean first = true;
+        for (String id : lists.ids()) {
+            ListHolder holder = lists.get(id);
+            if (holder == null) continue;
+            if (!first) sb.append(",");
+            first = false;
+            sb.append("{\"id\":\"").append(jsonEscape(id)).append("\"");
+            UserType proto = holder.prototypeNow();
+            if (proto != null) sb.append(",\"type\":\"").append(jsonEscape(proto.typeName())).append("\"");
+            sb.append(",\"size\":").append(Math.max(0, holder.size())).append("}");
+        }
+        sb.append("]}");
+        sendJson(ex, 200, sb.toString());
+    }
+
+    private static void handleDrop(HttpExchange ex, String id) throws IOException {
+        try {
+            MutationLog log = wal;
+            if (logRefuses(ex)) return;
+            long[] lsn = new long[1];
+            // Удаление попадает в журнал под монитором реестра — раньше повторного создания того же имени
+            boolean dropped = (log == null) ? lists.drop(id) : lists.drop(id, () -> lsn[0] = log.append(id, MutationLog.drop()));
+            if (!dropped) { sendError(ex, 404, "no such list: " + id); return; }
+            if (!durable(ex, lsn[0])) return;
+        } catch (IllegalArgumentException ia) {
+            sendError(ex, 400, ia.getMessage());
+            return;
+        } catch (IllegalStateException broken) {
+            sendError(ex, 500, broken.getMessage());
+            return;
+        }
+        sendJson(ex, 200, "{\"ok\":true}");
+    }
+
+    // Держатель для создания или загрузки списка id; при ошибке отвечает сам и возвращает null
+    private static ListHolder holderForCreate(HttpExchange ex, String id) throws IOException {
+        ListHolder holder = lists.getOrCreate(id);
+        if (holder == null) sendError(ex, 409, "too many lists (max " + lists.maxLists() + ")");
+        return holder;
+    }
+
+    // Ставит список в держатель и записывает это в журнал одним захватом блокировки.
+    // -1 — держатель уже удалён из реестра (параллельный drop), ответ отправлен
+    private static long install(HttpExchange ex, ListHolder target, SingleLinkedList list, byte[] record) throws IOException {
+        long stamp = target.writeLock();
+        try {
+            if (lists.get(target.id) != target) {
+                if (list != null) list.release();
+                sendError(ex, 409, "list was dropped concurrently");
+                return -1;
+            }
+            if (record != null && logRefuses(ex)) {
+                if (list != null) list.release();
+                return -1;
+            }
+            target.swap(list);
+            long lsn = (record == null) ? 0 : logged(target, record);
+            if (lsn == LOG_REFUSED) { sendError(ex, 500, "mutation log write failed"); return -1; }
+            return lsn;
+        } finally {
+            target.unlockWrite(stamp);
+        }
+    }
+
+    private static void handleListRoot(HttpExchange ex, String id) throws IOException {
         if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
-        String body = readBody(ex);
-        String type = extractJsonField(body, "type");
+        Map<String, Object> body = readJson(ex);
+        if (body == null) return;
+        String type = field(body, "type");
         if (type == null) { sendError(ex, 400, "no type"); return; }
         UserType ut = factory.getBuilderByName(type);
         if (ut == null) { sendError(ex, 400, "unknown type: " + type); return; }
-        synchronized (listLock) {
-            currentPrototype = ut;
-            currentList = new SingleLinkedList(ut);
-        }
-        sendJson(ex, 200, "{\"ok\":true}");
+        // Движок хранения: auto (по умолчанию), unrolled, skiplist, int, double, offheap
+        String storageKind = field(body, "storage");
+        ListStorage storage = storages.create(storageKind, ut);
+        if (storage == null) { sendError(ex, 400, "unknown storage: " + storageKind); return; }
+        SingleLinkedList created = new SingleLinkedList(ut, storage);
+        // index=true — вести индекс значение -> позиции для /find
+        created.setIndexed(Boolean.TRUE.equals(flag(body, "index")));
+        ListHolder target = holderForCreate(ex, id);
+        if (target == null) return;
+        long lsn = install(ex, target, created,
+                MutationLog.create(ut.typeName(), storage.kind(), created.isIndexed()));
+        if (lsn < 0 || !durable(ex, lsn)) return;
+        sendJson(ex, 200, "{\"ok\":true, \"version\":0}");
     }
 
-    private static void handleListItems(HttpExchange ex) throws IOException {
+    // Размер страницы /list/items по умолчанию и максимальный
+    private static final int DEFAULT_PAGE_LIMIT = 1000;
+    private static final int MAX_PAGE_LIMIT = 100_000;
+
+    // Весь список кэшируется закодированным, только если в нём не больше стольких элементов
+    private static final int MAX_CACHED_ITEMS = 200_000;
+
+    // GET /list/items?offset=&limit= — страница с общим числом элементов;
+    // без параметров — весь список (большой — потоком, chunked, без сборки ответа в памяти).
+    // ETag — поколение и версия списка: If-None-Match с тем же тегом даёт 304 без обращения к списку,
+    // а последний закодированный ответ хранится в держателе и отдаётся повторно, пока список не изменится
+    private static void handleListItems(HttpExchange ex, ListHolder holder) throws IOException {
         if (!"GET".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
-        SingleLinkedList list;
-        UserType proto;
-        synchronized (listLock) { list = currentList; proto = currentPrototype; }
-        if (list == null || proto == null) { sendError(ex, 400, "list not initialized"); return; }
-        ArrayList<Object> items = list.toArrayList();
+        Map<String,String> qm = parseQuery(ex.getRequestURI().getQuery());
+        String soff = qm.get("offset");
+        String slim = qm.get("limit");
+        boolean all = (soff == null && slim == null);
+        int offset = 0, limit = 0;
+        if (!all) {
+            try {
+                offset = (soff == null) ? 0 : Integer.parseInt(soff.trim());
+                limit = (slim == null) ? DEFAULT_PAGE_LIMIT : Integer.parseInt(slim.trim());
+            } catch (NumberFormatException nfe) {
+                sendError(ex, 400, "offset and limit must be integers");
+                return;
+            }
+            if (offset < 0 || limit < 0) { sendError(ex, 400, "offset and limit must be non-negative"); return; }
+            limit = Math.min(limit, MAX_PAGE_LIMIT);
+        }
+        String query = all ? "all" : offset + ":" + limit;
+        String tag = holder.tag();
+        if (tag == null) { sendError(ex, 400, "list not initialized"); return; }
+        if (notModified(ex, tag)) return;
+        ListHolder.Cached c = holder.cached;
+        if (c != null && c.tag.equals(tag) && c.query.equals(query)) { sendItems(ex, c); return; }
+        if (all) { streamListItems(ex, holder); return; }
+
         StringBuilder sb = new StringBuilder();
-        sb.append("[");
+        try (ListHolder.ReadView view = holder.read()) {
+            SingleLinkedList list = view.list;
+            if (list == null) { sendError(ex, 400, "list not initialized"); return; }
+            long t0 = System.nanoTime();
+            int total = list.size();
+            int from = Math.min(offset, total);
+            int count = Math.min(limit, total - from);
+            sb.append("{\"version\":").append(list.version()).append(",\"total\":").append(total)
+              .append(",\"offset\":").append(from).append(",\"items\":[");
+            Iterator<Object> it = list.iterator(from);
+            for (int k = 0; k < count; k++) {
+                if (k > 0) sb.append(",");
+                sb.append("\"").append(jsonEscape(list.prototype.serialize(it.next()))).append("\"");
+            }
+            sb.append("]}");
+            c = new ListHolder.Cached(view.tag, query, total, list.version(), sb.toString().getBytes(StandardCharsets.UTF_8));
+            Metrics.ITEMS_ENCODE.record(System.nanoTime() - t0);
+        }
+        holder.cached = c;
+        sendItems(ex, c);
+    }
+
+    // 304, если тег клиента (If-None-Match, возможно список или *) совпадает с текущим
+    private static boolean notModified(HttpExchange ex, String tag) throws IOException {
+        String inm = ex.getRequestHeaders().getFirst("If-None-Match");
+        if (inm == null) return false;
+        for (String t : inm.split(",")) {
+            t = t.trim();
+            if (t.startsWith("W/")) t = t.substring(2);
+            if (t.equals(tag) || t.equals("*")) {
+                ex.getResponseHeaders().set("ETag", tag);
+                ex.sendResponseHeaders(304, -1);
+                ex.close();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void sendItems(HttpExchange ex, ListHolder.Cached c) throws IOException {
+        Headers h = ex.getResponseHeaders();
+        h.set("ETag", c.tag);
+        // Кэшировать можно, но каждый раз сверяясь с сервером (дёшево благодаря 304)
+        h.set("Cache-Control", "no-cache");
+        if (c.query.equals("all")) {
+            h.set("X-Total-Count", Integer.toString(c.total));
+            h.set("X-List-Version", Long.toString(c.version));
+        }
+        h.set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(200, c.body.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(c.body);
+        }
+    }
+
+    // Пишет массив по мере обхода узлов; общее число — в X-Total-Count.
+    // Небольшой список собирается в память и кэшируется, большой идёт прямо в поток ответа.
+    // Персистентный список пишется из снимка без блокировки; для остальных блокировка чтения
+    // держится до конца записи (память offheap-списка освобождается при замене списка)
+    private static void streamListItems(HttpExchange ex, ListHolder holder) throws IOException {
+        ListHolder.Cached cached = null;
+        try (ListHolder.ReadView view = holder.read()) {
+            SingleLinkedList list = view.list;
+            if (list == null) { sendError(ex, 400, "list not initialized"); return; }
+            if (list.size() <= MAX_CACHED_ITEMS) {
+                long t0 = System.nanoTime();
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (Writer w = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+                    writeItems(w, list);
+                }
+                cached = new ListHolder.Cached(view.tag, "all", list.size(), list.version(), bytes.toByteArray());
+                Metrics.ITEMS_ENCODE.record(System.nanoTime() - t0);
+            } else {
+                ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                ex.getResponseHeaders().set("X-Total-Count", Integer.toString(list.size()));
+                ex.getResponseHeaders().set("X-List-Version", Long.toString(list.version()));
+                ex.getResponseHeaders().set("ETag", view.tag);
+                ex.getResponseHeaders().set("Cache-Control", "no-cache");
+                ex.sendResponseHeaders(200, 0);
+                try (Writer w = new BufferedWriter(new OutputStreamWriter(ex.getResponseBody(), StandardCharsets.UTF_8), 1 << 16)) {
+                    writeItems(w, list);
+                }
+                return;
+            }
+        }
+        holder.cached = cached;
+        sendItems(ex, cached);
+    }
+
+    private static void writeItems(Writer w, SingleLinkedList list) throws IOException {
+        w.write('[');
+        Iterator<Object> it = list.iterator(0);
         boolean first = true;
-        for (Object o : items) {
-            String s = proto.serialize(o);
-            if (!first) sb.append(",");
-            sb.append("\"").append(jsonEscape(s)).append("\"");
+        while (it.hasNext()) {
+            if (!first) w.write(',');
+            w.write('"');
+            w.write(jsonEscape(list.prototype.serialize(it.next())));
+            w.write('"');
             first = false;
         }
-        sb.append("]");
-        sendJson(ex, 200, sb.toString());
+        w.write(']');
     }
 
-    private static void handleAdd(HttpExchange ex) throws IOException {
+    private static void handleAdd(HttpExchange ex, ListHolder holder) throws IOException {
         if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
-        String body = readBody(ex);
-        String value = extractJsonField(body, "value");
+        Map<String, Object> body = readJson(ex);
+        if (body == null) return;
+        String value = field(body, "value");
 
-        synchronized (listLock) {
-            if (currentList == null || currentPrototype == null) {
+        long version, lsn;
+        long stamp = holder.writeLock();
+        try {
+            if (logRefuses(ex)) return;
+            SingleLinkedList currentList = holder.list();
+            if (currentList == null) {
                 sendError(ex, 400, "list not initialized");
                 return;
             }
+            UserType currentPrototype = currentList.prototype;
 
             Object obj;
             try {
@@ -154,23 +535,32 @@ public class HttpServerApp {
 
             try {
                 currentList.add(obj);
-                sendJson(ex, 200, "{\"ok\":true}");
+                version = currentList.version();
+                lsn = logged(holder, MutationLog.add(currentPrototype, obj));
             } catch (IllegalArgumentException ia) {
                 // для safety: если список отвергает объект по типу/проверке
                 sendError(ex, 400, ia.getMessage());
+                return;
             } catch (Exception any) {
                 // защита от непредвиденных ошибок
                 sendError(ex, 500, "Internal error on add: " + any.getMessage());
+                return;
             }
+        } finally {
+            holder.unlockWrite(stamp);
         }
+        // Ответ — после снятия блокировки и записи изменения на диск
+        if (!durable(ex, lsn)) return;
+        sendJson(ex, 200, "{\"ok\":true, \"version\":" + version + "}");
     }
 
 
-    private static void handleInsert(HttpExchange ex) throws IOException {
+    private static void handleInsert(HttpExchange ex, ListHolder holder) throws IOException {
         if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
-        String body = readBody(ex);
-        String sval = extractJsonField(body, "value");
-        String sidx = extractJsonField(body, "index");
+        Map<String, Object> body = readJson(ex);
+        if (body == null) return;
+        String sval = field(body, "value");
+        String sidx = field(body, "index");
 
         // сначала парсим индекс и проверяем формат
         int idx;
@@ -185,11 +575,16 @@ public class HttpServerApp {
             return;
         }
 
-        synchronized (listLock) {
-            if (currentList == null || currentPrototype == null) {
+        long version, lsn;
+        long stamp = holder.writeLock();
+        try {
+            if (logRefuses(ex)) return;
+            SingleLinkedList currentList = holder.list();
+            if (currentList == null) {
                 sendError(ex, 400, "list not initialized");
                 return;
             }
+            UserType currentPrototype = currentList.prototype;
 
             // проверим допустимый диапазон индекса: 0..size (вставка в конец допускается)
             int size = currentList.size();
@@ -210,114 +605,459 @@ public class HttpServerApp {
 
             try {
                 currentList.insert(idx, obj);
-                sendJson(ex, 200, "{\"ok\":true}");
+                version = currentList.version();
+                lsn = logged(holder, MutationLog.insert(idx, currentPrototype, obj));
             } catch (IndexOutOfBoundsException iob) {
                 sendError(ex, 400, "Index out of range: " + iob.getMessage());
+                return;
             } catch (IllegalArgumentException ia) {
                 sendError(ex, 400, ia.getMessage());
+                return;
             } catch (Exception any) {
                 sendError(ex, 500, "Internal error on insert: " + any.getMessage());
+                return;
             }
+        } finally {
+            holder.unlockWrite(stamp);
         }
+        if (!durable(ex, lsn)) return;
+        sendJson(ex, 200, "{\"ok\":true, \"version\":" + version + "}");
     }
 
 
-    private static void handleRemove(HttpExchange ex) throws IOException {
+    // POST /list/insertSorted {"value":..} — вставка на своё место в списке, отсортированном
+    // естественным порядком типа; 409, если порядок неизвестен (сначала /list/sort)
+    private static void handleInsertSorted(HttpExchange ex, ListHolder holder) throws IOException {
         if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
-        String body = readBody(ex);
-        String sidx = extractJsonField(body, "index");
+        Map<String, Object> body = readJson(ex);
+        if (body == null) return;
+        String value = field(body, "value");
+        int pos;
+        long version, lsn;
+        long stamp = holder.writeLock();
+        try {
+            if (logRefuses(ex)) return;
+            SingleLinkedList list = holder.list();
+            if (list == null) { sendError(ex, 400, "list not initialized"); return; }
+            Object obj;
+            try {
+                obj = list.prototype.deserialize(value == null ? "" : value);
+            } catch (Exception parseEx) {
+                sendError(ex, 400, "Invalid value for type \"" + list.prototype.typeName() + "\": "
+                        + (parseEx.getMessage() == null ? "" : parseEx.getMessage()));
+                return;
+            }
+            try {
+                pos = list.insertSorted(obj, list.prototype.getTypeComparator());
+                lsn = logged(holder, MutationLog.insertSorted(list.prototype, obj));
+            } catch (IllegalStateException notSorted) {
+                sendError(ex, 409, notSorted.getMessage() + "; sort the list first");
+                return;
+            } catch (IllegalArgumentException ia) {
+                sendError(ex, 400, ia.getMessage());
+                return;
+            }
+            version = list.version();
+        } finally {
+            holder.unlockWrite(stamp);
+        }
+        if (!durable(ex, lsn)) return;
+        sendJson(ex, 200, "{\"ok\":true, \"index\":" + pos + ", \"version\":" + version + "}");
+    }
+
+    private static void handleRemove(HttpExchange ex, ListHolder holder) throws IOException {
+        if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
+        Map<String, Object> body = readJson(ex);
+        if (body == null) return;
+        String sidx = field(body, "index");
         int idx = -1;
         try { idx = Integer.parseInt(sidx == null ? "-1" : sidx); } catch (Exception e) { idx = -1; }
-        synchronized (listLock) {
-            if (currentList == null || currentPrototype == null) { sendError(ex, 400, "list not initialized"); return; }
+        String serialized;
+        long version, lsn;
+        long stamp = holder.writeLock();
+        try {
+            if (logRefuses(ex)) return;
+            SingleLinkedList list = holder.list();
+            if (list == null) { sendError(ex, 400, "list not initialized"); return; }
+            serialized = list.prototype.serialize(list.remove(idx));
+            version = list.version();
+            lsn = logged(holder, MutationLog.remove(idx));
+        } catch (IndexOutOfBoundsException iob) {
+            sendError(ex, 400, iob.getMessage());
+            return;
+        } finally {
+            holder.unlockWrite(stamp);
+        }
+        if (!durable(ex, lsn)) return;
+        sendJson(ex, 200, "{\"ok\":true, \"removed\":\"" + jsonEscape(serialized) + "\", \"version\":" + version + "}");
+    }
+
+    // Операции пакета: разобраны и десериализованы до захвата блокировки
+    private static final int OP_ADD = 0, OP_INSERT = 1, OP_REMOVE = 2, OP_SET = 3;
+
+    // POST /list/batch {"ops":[{"op":"add","value":..},{"op":"insert","index":..,"value":..},
+    //                          {"op":"remove","index":..},{"op":"set","index":..,"value":..}], "quiet":true}
+    // Все операции выполняются за один захват блокировки и атомарно: при ошибке уже
+    // применённые откатываются в обратном порядке. quiet=true — без поэлементных результатов.
+    private static void handleBatch(HttpExchange ex, ListHolder holder) throws IOException {
+        if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
+        SingleLinkedList target;
+        long stamp = holder.readLock();
+        try { target = holder.list(); } finally { holder.unlockRead(stamp); }
+        if (target == null) { sendError(ex, 400, "list not initialized"); return; }
+        UserType proto = target.prototype;
+
+        // Тело разбирается потоком прямо из запроса: операции сразу раскладываются
+        // по массивам и десериализуются, дерево всего пакета не строится
+        int n = 0;
+        int[] kinds = new int[16];
+        int[] indexes = new int[16];
+        Object[] values = new Object[16];
+        boolean quiet = false;
+        boolean sawOps = false;
+        long t0 = System.nanoTime();
+        try {
+            JsonReader r = new JsonReader(ex.getRequestBody());
+            r.beginObject();
+            while (r.hasNext()) {
+                String field = r.nextName();
+                if ("ops".equals(field)) {
+                    sawOps = true;
+                    r.beginArray();
+                    while (r.hasNext()) {
+                        if (n == kinds.length) {
+                            kinds = Arrays.copyOf(kinds, n * 2);
+                            indexes = Arrays.copyOf(indexes, n * 2);
+                            values = Arrays.copyOf(values, n * 2);
+                        }
+                        readBatchOp(r, proto, n, kinds, indexes, values);
+                        n++;
+                    }
+                    r.endArray();
+                } else if ("quiet".equals(field)) {
+                    Object q = r.readValue();
+                    quiet = Boolean.TRUE.equals(q) || "true".equals(q);
+                } else {
+                    r.readValue();
+                }
+            }
+            r.endObject();
+            r.expectEnd();
+        } catch (IllegalArgumentException bad) {
+            sendError(ex, 400, bad.getMessage());
+            return;
+        } finally {
+            Metrics.BODY_READ.record(System.nanoTime() - t0);
+        }
+        if (!sawOps) { sendError(ex, 400, "ops array required"); return; }
+
+        StringBuilder sb = new StringBuilder();
+        long lsn;
+        stamp = holder.writeLock();
+        try {
+            if (logRefuses(ex)) return;
+            SingleLinkedList currentList = holder.list();
+            if (currentList != target) { sendError(ex, 409, "list was replaced"); return; }
+            // Индексы проверяются по размеру, который будет у списка к каждой операции,
+            // так что неверная операция отклоняет пакет до того, как что-либо применено
+            int size = currentList.size();
+            for (int k = 0; k < n; k++) {
+                int idx = indexes[k];
+                boolean ok;
+                switch (kinds[k]) {
+                    case OP_ADD: ok = true; size++; break;
+                    case OP_INSERT: ok = idx >= 0 && idx <= size; if (ok) size++; break;
+                    case OP_REMOVE: ok = idx >= 0 && idx < size; if (ok) size--; break;
+                    default: ok = idx >= 0 && idx < size; break;
+                }
+                if (!ok) {
+                    sendJson(ex, 400, "{\"error\":\"" + jsonEscape("index=" + idx + ", size=" + size) + "\", \"failedOp\":" + k + "}");
+                    return;
+                }
+            }
+            // Для отката на случай сбоя движка: прежние значения удалённых и заменённых элементов,
+            // версия и упорядоченность
+            Object[] undo = new Object[n];
+            long version = currentList.version();
+            data.Comparator sortedBy = currentList.sortedBy();
+            int done = 0;
+            String failure = null;
+            for (; done < n; done++) {
+                try {
+                    switch (kinds[done]) {
+                        case OP_ADD: currentList.add(values[done]); break;
+                        case OP_INSERT: currentList.insert(indexes[done], values[done]); break;
+                        case OP_REMOVE: undo[done] = currentList.remove(indexes[done]); break;
+                        default: undo[done] = currentList.set(indexes[done], values[done]); break;
+                    }
+                } catch (RuntimeException opEx) {
+                    failure = opEx.getMessage();
+                    break;
+                }
+            }
+            if (failure != null) {
+                for (int k = done - 1; k >= 0; k--) {
+                    switch (kinds[k]) {
+                        case OP_ADD: currentList.remove(currentList.size() - 1); break;
+                        case OP_INSERT: currentList.remove(indexes[k]); break;
+                        case OP_REMOVE: currentList.insert(indexes[k], undo[k]); break;
+                        default: currentList.set(indexes[k], undo[k]); break;
+                    }
+                }
+                currentList.restoreState(version, sortedBy);
+                sendJson(ex, 400, "{\"error\":\"" + jsonEscape(failure) + "\", \"failedOp\":" + done + "}");
+                return;
+            }
+            // Применённые операции пакета уходят в журнал вместе
+            byte[][] records = new byte[n][];
+            for (int k = 0; k < n; k++) {
+                switch (kinds[k]) {
+                    case OP_ADD: records[k] = MutationLog.add(proto, values[k]); break;
+                    case OP_INSERT: records[k] = MutationLog.insert(indexes[k], proto, values[k]); break;
+                    case OP_REMOVE: records[k] = MutationLog.remove(indexes[k]); break;
+                    default: records[k] = MutationLog.set(indexes[k], proto, values[k]); break;
+                }
+            }
+            lsn = (n == 0) ? 0 : logged(holder, records);
+            sb.append("{\"ok\":true, \"applied\":").append(n).append(", \"size\":").append(currentList.size())
+              .append(", \"version\":").append(currentList.version());
+            if (!quiet) {
+                sb.append(", \"results\":[");
+                for (int k = 0; k < n; k++) {
+                    if (k > 0) sb.append(",");
+                    if (kinds[k] == OP_REMOVE) sb.append("{\"ok\":true,\"removed\":\"").append(jsonEscape(proto.serialize(undo[k]))).append("\"}");
+                    else if (kinds[k] == OP_SET) sb.append("{\"ok\":true,\"old\":\"").append(jsonEscape(proto.serialize(undo[k]))).append("\"}");
+                    else sb.append("{\"ok\":true}");
+                }
+                sb.append("]");
+            }
+            sb.append("}");
+        } finally {
+            holder.unlockWrite(stamp);
+        }
+        if (!durable(ex, lsn)) return;
+        sendJson(ex, 200, sb.toString());
+    }
+
+    // Одна операция пакета {"op":..,"index":..,"value":..} -> kinds/indexes/values[k]
+    private static void readBatchOp(JsonReader r, UserType proto, int k, int[] kinds, int[] indexes, Object[] values) {
+        Object name = null, si = null, sv = null;
+        try {
+            r.beginObject();
+        } catch (IllegalArgumentException notObject) {
+            throw new IllegalArgumentException("op " + k + ": object expected");
+        }
+        while (r.hasNext()) {
+            String field = r.nextName();
+            Object v = r.readValue();
+            if ("op".equals(field)) name = v;
+            else if ("index".equals(field)) si = v;
+            else if ("value".equals(field)) sv = v;
+        }
+        r.endObject();
+        if ("add".equals(name)) kinds[k] = OP_ADD;
+        else if ("insert".equals(name)) kinds[k] = OP_INSERT;
+        else if ("remove".equals(name)) kinds[k] = OP_REMOVE;
+        else if ("set".equals(name)) kinds[k] = OP_SET;
+        else throw new IllegalArgumentException("op " + k + ": unknown op " + name);
+        if (kinds[k] != OP_ADD) {
             try {
-                Object removed = currentList.remove(idx);
-                String serialized = currentPrototype.serialize(removed);
-                sendJson(ex, 200, "{\"ok\":true, \"removed\":\"" + jsonEscape(serialized) + "\"}");
-            } catch (IndexOutOfBoundsException iob) {
-                sendError(ex, 400, iob.getMessage());
+                indexes[k] = Integer.parseInt(String.valueOf(si).trim());
+            } catch (NumberFormatException nfe) {
+                throw new IllegalArgumentException("op " + k + ": invalid index");
+            }
+        }
+        if (kinds[k] != OP_REMOVE) {
+            if (sv != null && !(sv instanceof String)) throw new IllegalArgumentException("op " + k + ": value must be a string or number");
+            try {
+                values[k] = proto.deserialize(sv == null ? "" : (String) sv);
+            } catch (Exception parseEx) {
+                throw new IllegalArgumentException("op " + k + ": Invalid value for type \"" + proto.typeName() + "\": "
+                        + (parseEx.getMessage() == null ? "" : parseEx.getMessage()));
             }
         }
     }
 
-    private static void handleGet(HttpExchange ex) throws IOException {
+    private static void handleGet(HttpExchange ex, ListHolder holder) throws IOException {
         if (!"GET".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
         String q = ex.getRequestURI().getQuery();
         Map<String,String> qm = parseQuery(q);
         String sidx = qm.get("index");
         int idx = -1;
         try { idx = Integer.parseInt(sidx == null ? "-1" : sidx); } catch (Exception e) { idx = -1; }
-        synchronized (listLock) {
-            if (currentList == null || currentPrototype == null) { sendError(ex, 400, "list not initialized"); return; }
-            try {
-                Object val = currentList.get(idx);
-                sendJson(ex, 200, "{\"value\":\"" + jsonEscape(currentPrototype.serialize(val)) + "\"}");
-            } catch (IndexOutOfBoundsException iob) {
-                sendError(ex, 400, iob.getMessage());
-            }
+        ListHolder.Entry e;
+        try {
+            e = holder.entryAt(idx);
+        } catch (IndexOutOfBoundsException iob) {
+            sendError(ex, 400, iob.getMessage());
+            return;
         }
+        if (e == null) { sendError(ex, 400, "list not initialized"); return; }
+        sendJson(ex, 200, "{\"value\":\"" + jsonEscape(e.value) + "\", \"version\":" + e.version + "}");
     }
 
-    private static void handleFind(HttpExchange ex) throws IOException {
+    private static void handleFind(HttpExchange ex, ListHolder holder) throws IOException {
         if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
-        String body = readBody(ex);
-        String value = extractJsonField(body, "value");
-        if (value == null) value = "";
+        Map<String, Object> body = readJson(ex);
+        if (body == null) return;
+        String value = field(body, "value");
+        if (value == null) { sendError(ex, 400, "value required"); return; }
 
-        synchronized (listLock) {
-            if (currentList == null || currentPrototype == null) {
-                sendError(ex, 400, "list not initialized");
-                return;
+        // Сравнение по равенству типа, а не по сериализованным строкам.
+        // С индексом или в отсортированном списке (двоичный поиск) поиск короткий и идёт
+        // под блокировкой чтения, иначе — проходом по снимку
+        int found = -1;
+        long version = 0;
+        boolean fast;
+        long stamp = holder.readLock();
+        try {
+            SingleLinkedList live = holder.list();
+            if (live == null) { sendError(ex, 400, "list not initialized"); return; }
+            fast = live.isIndexed() || live.isSorted();
+            if (fast) {
+                Object target = parseOrNull(live.prototype, value);
+                if (target != null) found = live.indexOf(target);
+                version = live.version();
             }
-            ArrayList<Object> items = currentList.toArrayList();
-            for (int i = 0; i < items.size(); i++) {
-                Object o = items.get(i);
-                String s = currentPrototype.serialize(o);
-                if (s == null) s = "";
-                if (s.equals(value)) {
-                    sendJson(ex, 200, "{\"index\":" + i + "}");
-                    return;
-                }
+        } finally {
+            holder.unlockRead(stamp);
+        }
+        if (!fast) {
+            try (ListHolder.ReadView view = holder.read()) {
+                SingleLinkedList currentList = view.list;
+                if (currentList == null) { sendError(ex, 400, "list not initialized"); return; }
+                Object target = parseOrNull(currentList.prototype, value);
+                if (target != null) found = currentList.indexOf(target);
+                version = currentList.version();
             }
-            // not found
-            sendJson(ex, 200, "{\"index\":-1}");
         }
+        // -1: not found
+        sendJson(ex, 200, "{\"index\":" + found + ", \"version\":" + version + "}");
+    }
+
+    // POST /list/index {"enabled":true|false} — включает или выключает индекс для /find
+    private static void handleIndex(HttpExchange ex, ListHolder holder) throws IOException {
+        if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
+        Map<String, Object> body = readJson(ex);
+        if (body == null) return;
+        Boolean enabled = flag(body, "enabled");
+        if (enabled == null) { sendError(ex, 400, "enabled required"); return; }
+        long lsn;
+        long stamp = holder.writeLock();
+        try {
+            if (logRefuses(ex)) return;
+            SingleLinkedList list = holder.list();
+            if (list == null) { sendError(ex, 400, "list not initialized"); return; }
+            list.setIndexed(enabled);
+            lsn = logged(holder, MutationLog.index(enabled));
+        } finally {
+            holder.unlockWrite(stamp);
+        }
+        if (!durable(ex, lsn)) return;
+        sendJson(ex, 200, "{\"ok\":true, \"indexed\":" + enabled + "}");
     }
 
-    private static void handleSort(HttpExchange ex) throws IOException {
+    private static void handleSort(HttpExchange ex, ListHolder holder) throws IOException {
         if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
-        synchronized (listLock) {
-            if (currentList == null || currentPrototype == null) { sendError(ex, 400, "list not initialized"); return; }
-            currentList.sort(currentPrototype.getTypeComparator());
-            sendJson(ex, 200, "{\"ok\":true}");
+        Map<String, Object> body = readJson(ex);
+        if (body == null) return;
+        // quick (по умолчанию), parallel, natural или radix
+        String algorithm = field(body, "algorithm");
+        if (algorithm == null || algorithm.trim().isEmpty()) algorithm = SingleLinkedList.SORT_QUICK;
+        if (!SingleLinkedList.isSortAlgorithm(algorithm)) { sendError(ex, 400, "unknown algorithm: " + algorithm); return; }
+        SortStats st;
+        long version, lsn;
+        long stamp = holder.writeLock();
+        try {
+            if (logRefuses(ex)) return;
+            SingleLinkedList list = holder.list();
+            if (list == null) { sendError(ex, 400, "list not initialized"); return; }
+            st = list.sort(list.prototype.getTypeComparator(), algorithm);
+            version = list.version();
+            lsn = logged(holder, MutationLog.sort(algorithm));
+        } finally {
+            holder.unlockWrite(stamp);
         }
+        if (!durable(ex, lsn)) return;
+        sendJson(ex, 200, "{\"ok\":true, \"algorithm\":\"" + st.algorithm + "\", \"size\":" + st.size
+                + ", \"version\":" + version
+                + ", \"comparisons\":" + st.comparisons
+                + ", \"timeMs\":" + String.format(Locale.US, "%.3f", st.millis()) + "}");
     }
 
-    private static void handleSave(HttpExchange ex) throws IOException {
+    private static void handleSave(HttpExchange ex, ListHolder holder) throws IOException {
         if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
-        String body = readBody(ex);
-        String filename = extractJsonField(body, "filename");
-        String format = extractJsonField(body, "format");
+        Map<String, Object> body = readJson(ex);
+        if (body == null) return;
+        String filename = field(body, "filename");
+        String format = field(body, "format");
         if (filename == null || filename.trim().isEmpty()) { sendError(ex, 400, "filename required"); return; }
         filename = sanitizeFilename(filename);
         if (format == null) format = "json";
-        synchronized (listLock) {
-            if (currentList == null || currentPrototype == null) { sendError(ex, 400, "list not initialized"); return; }
+        // json, bin или их сжатые варианты json.gz, bin.gz; level — уровень сжатия 0..9
+        boolean compressed = format.toLowerCase().endsWith(".gz");
+        String base = compressed ? format.substring(0, format.length() - 3) : format;
+        if (!"json".equalsIgnoreCase(base) && !"bin".equalsIgnoreCase(base)) { sendError(ex, 400, "unknown format: " + format); return; }
+        int level = -1;
+        String slevel = field(body, "level");
+        if (slevel != null) {
             try {
-                if ("bin".equalsIgnoreCase(format)) currentList.saveToBinaryFile(filename);
-                else currentList.saveToFile(filename);
-                sendJson(ex, 200, "{\"ok\":true}");
-            } catch (IOException io) {
-                sendError(ex, 500, "IO error: " + io.getMessage());
+                level = Integer.parseInt(slevel.trim());
+            } catch (NumberFormatException nfe) {
+                level = Integer.MIN_VALUE;
+            }
+            if (level < -1 || level > 9) { sendError(ex, 400, "level must be -1..9"); return; }
+        }
+        // async=true — в фоне: блокировка держится только на время копирования списка,
+        // ответ 202 с номером задания приходит сразу, ход записи — GET /list/save/status?id=
+        if (Boolean.TRUE.equals(flag(body, "async"))) {
+            SingleLinkedList copy;
+            try (ListHolder.ReadView view = holder.read()) {
+                if (view.list == null) { sendError(ex, 400, "list not initialized"); return; }
+                copy = view.isSnapshot() ? view.list : view.list.copy();
             }
+            SaveJobs.Job job = saves.submit(copy, filename, format, level);
+            sendJson(ex, 202, "{\"ok\":true, \"job\":" + job.id + ", \"version\":" + copy.version() + "}");
+            return;
+        }
+        // Сохранение только читает список: персистентный пишется из снимка, не задерживая изменения,
+        // остальные — под блокировкой чтения (get и items в это время не ждут).
+        // Файл пишется рядом и переименовывается, так что прежняя версия не портится при сбое
+        long version;
+        try (ListHolder.ReadView view = holder.read()) {
+            SingleLinkedList list = view.list;
+            if (list == null) { sendError(ex, 400, "list not initialized"); return; }
+            SaveJobs.writeAtomically(list, filename, format, level);
+            version = list.version();
+        } catch (IOException io) {
+            sendError(ex, 500, "IO error: " + io.getMessage());
+            return;
+        }
+        sendJson(ex, 200, "{\"ok\":true, \"version\":" + version + "}");
+    }
+
+    // GET /list/save/status?id= — состояние фонового сохранения: state, bytes, progress, mbPerSec
+    private static void handleSaveStatus(HttpExchange ex) throws IOException {
+        if (!"GET".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
+        String sid = parseQuery(ex.getRequestURI().getQuery()).get("id");
+        long id;
+        try {
+            id = Long.parseLong(sid == null ? "" : sid.trim());
+        } catch (NumberFormatException nfe) {
+            sendError(ex, 400, "id required");
+            return;
         }
+        String status = saves.status(id);
+        if (status == null) { sendError(ex, 404, "no such save job: " + id); return; }
+        sendJson(ex, 200, status);
     }
 
-    private static void handleLoad(HttpExchange ex) throws IOException {
+    private static void handleLoad(HttpExchange ex, String id) throws IOException {
         if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) { ex.sendResponseHeaders(405, -1); return; }
-        String body = readBody(ex);
-        String filename = extractJsonField(body, "filename");
-        String format = extractJsonField(body, "format");
+        Map<String, Object> body = readJson(ex);
+        if (body == null) return;
+        String filename = field(body, "filename");
+        String format = field(body, "format");
         if (filename == null || filename.trim().isEmpty()) { sendError(ex, 400, "filename required"); return; }
 
         // Выбираем путь: абсолютный используется, иначе стандартная санитаризация (имя в рабочей директории)
@@ -330,27 +1070,45 @@ public class HttpServerApp {
         }
 
         if (format == null) format = "json";
+        // parallel=true — элементы JSON-файла десериализуются порциями на нескольких потоках
+        boolean parallel = Boolean.TRUE.equals(flag(body, "parallel"));
 
         try {
+            long t0 = System.nanoTime();
             SingleLinkedList loaded;
-            if ("bin".equalsIgnoreCase(format)) {
-                if (!inFile.exists()) { sendError(ex, 400, "file not found: " + inFile.getAbsolutePath()); return; }
+            if (!inFile.exists()) { sendError(ex, 400, "file not found: " + inFile.getAbsolutePath()); return; }
+            // Сжатый файл узнаём по первым байтам, формат внутри определяется там же
+            if (SingleLinkedList.isCompressed(inFile.getAbsolutePath())) {
+                loaded = SingleLinkedList.loadFromCompressedFile(inFile.getAbsolutePath(), factory, parallel);
+            } else if ("bin".equalsIgnoreCase(format)) {
                 loaded = SingleLinkedList.loadFromBinaryFile(inFile.getAbsolutePath(), factory);
             } else {
-                if (!inFile.exists()) { sendError(ex, 400, "file not found: " + inFile.getAbsolutePath()); return; }
-                loaded = SingleLinkedList.loadFromFile(inFile.getAbsolutePath(), factory);
+                loaded = SingleLinkedList.loadFromFile(inFile.getAbsolutePath(), factory, parallel);
             }
+            double loadMs = (System.nanoTime() - t0) / 1e6;
 
-            synchronized (listLock) {
-                currentList = loaded;
-                currentPrototype = (loaded != null ? loaded.prototype : null);
-            }
+            if (loaded != null && Boolean.TRUE.equals(flag(body, "index"))) loaded.setIndexed(true);
+            ListHolder target = holderForCreate(ex, id);
+            if (target == null) { if (loaded != null) loaded.release(); return; }
+            // С журналом загруженное содержимое сначала копируется в его каталог:
+            // исходный файл может измениться, а восстановление должно дать тот же список
+            MutationLog log = wal;
+            byte[] record = (log == null || loaded == null) ? null
+                    : MutationLog.load(log.saveLoaded(loaded), loaded.isIndexed());
+            long lsn = install(ex, target, loaded, record);
+            if (lsn < 0 || !durable(ex, lsn)) return;
 
-            String typeName = (currentPrototype != null) ? currentPrototype.typeName() : "";
-            // Возвращаем информацию о типе в ответе
-            sendJson(ex, 200, "{\"ok\":true, \"type\":\"" + jsonEscape(typeName) + "\"}");
+            String typeName = (loaded != null) ? loaded.prototype.typeName() : "";
+            long version = (loaded != null) ? loaded.version() : 0;
+            // Возвращаем информацию о типе и время загрузки в ответе
+            sendJson(ex, 200, "{\"ok\":true, \"type\":\"" + jsonEscape(typeName) + "\", \"version\":" + version
+                    + ", \"size\":" + (loaded != null ? loaded.size() : 0)
+                    + ", \"timeMs\":" + String.format(Locale.US, "%.3f", loadMs) + "}");
         } catch (IOException io) {
             sendError(ex, 500, "IO error: " + io.getMessage());
+        } catch (IllegalArgumentException bad) {
+            // Содержимое файла не подходит списку (например, значение не того типа)
+            sendError(ex, 400, "Invalid file: " + bad.getMessage());
         } catch (SecurityException se) {
             sendError(ex, 500, "Security error: " + se.getMessage());
         }
@@ -367,16 +1125,33 @@ public class HttpServerApp {
         // Для локального приложения — безопасно
         return fname.trim();
     }
-    // Извлекает поле из JSON-тела
-    private static String extractJsonField(String body, String field) {
-        if (body == null) return null;
-        String pattern = "\"" + field + "\"\\s*:\\s*\"([^\"]*)\"";
-        java.util.regex.Matcher m = java.util.regex.Pattern.compile(pattern).matcher(body);
-        if (m.find()) return m.group(1);
-        pattern = "\"" + field + "\"\\s*:\\s*(-?\\d+)";
-        m = java.util.regex.Pattern.compile(pattern).matcher(body);
-        if (m.find()) return m.group(1);
-        return null;
+    // Значение из строки или null, если строка не разбирается (такого элемента в списке быть не может).
+    // Разборщики типов на пустую строку и мусор молча возвращают значение по умолчанию (create()),
+    // поэтому оно принимается, только если строка и правда записывает ноль
+    private static Object parseOrNull(UserType proto, String s) {
+        Object v;
+        try {
+            v = proto.deserialize(s);
+        } catch (RuntimeException bad) {
+            return null;
+        }
+        if (v == null) return null;
+        String t = s.trim();
+        String back = proto.serialize(v);
+        if (back.equals(s) || back.equals(t)) return v;
+        if (!v.equals(proto.create())) return v;
+        return isZeroLiteral(t) ? v : null;
+    }
+
+    // "0", "-0.00", "0 0/1" и т.п.: есть хотя бы одна цифра, все цифры — нули
+    private static boolean isZeroLiteral(String t) {
+        boolean digit = false;
+        for (int i = 0; i < t.length(); i++) {
+            char c = t.charAt(i);
+            if (c == '0') digit = true;
+            else if ("+-./ ".indexOf(c) < 0) return false;
+        }
+        return digit;
     }
 
     private static Map<String,String> parseQuery(String q) {
@@ -389,7 +1164,7 @@ public class HttpServerApp {
         return map;
     }
 
-    private static String jsonEscape(String s) {
+    static String jsonEscape(String s) {
         if (s == null) return "";
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < s.length(); i++) {
@@ -0,0 +1,207 @@
+package server;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+import data.UserType;
+import list.SingleLinkedList;
+
+// Текущий список сервера под StampedLock: чтения (get, find, items, save) идут параллельно,
+// изменения эксклюзивны. size и get сначала пробуют оптимистичное чтение без захвата блокировки.
+// Для персистентного движка долгие чтения работают со снимком и вовсе не держат блокировку (MVCC).
+public class ListHolder {
+    private final StampedLock lock = new StampedLock();
+    private SingleLinkedList list;
+    // Когда захвачена блокировка записи (пишется и читается только её владельцем)
+    private long writeSince;
+    // Имя списка в реестре (для журнала изменений)
+    public final String id;
+    // Номер поколения: новый при каждой замене списка, общий счётчик на все держатели,
+    // поэтому пара (поколение, версия) не повторяется и после удаления и пересоздания списка.
+    // Счётчик начинается заново при каждом запуске, так что в тег входит ещё и случайная
+    // метка процесса: после перезапуска (и восстановления из журнала) старые теги не совпадут
+    private static final AtomicLong generations = new AtomicLong();
+    private static final String TAG_PREFIX = "\"" + Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36) + "-";
+    private long generation = generations.incrementAndGet();
+    // Последний закодированный ответ /items (см. HttpServerApp.handleListItems)
+    public volatile Cached cached;
+
+    public ListHolder() { this(ListRegistry.DEFAULT_ID); }
+    public ListHolder(String id) { this.id = id; }
+
+    // Захваты пишут время ожидания и удержания в Metrics; удержание чтения — для ReadView
+    // и внутренних чтений, у прямых readLock/unlockRead учитывается только ожидание
+    public long readLock() {
+        long t0 = System.nanoTime();
+        long stamp = lock.readLock();
+        long waited = System.nanoTime() - t0;
+        Metrics.READ_LOCK_WAIT.record(waited);
+        RequestEvent.addLockWait(waited);
+        return stamp;
+    }
+    public void unlockRead(long stamp) { lock.unlockRead(stamp); }
+
+    public long writeLock() {
+        long t0 = System.nanoTime();
+        long stamp = lock.writeLock();
+        long now = System.nanoTime();
+        Metrics.WRITE_LOCK_WAIT.record(now - t0);
+        RequestEvent.addLockWait(now - t0);
+        writeSince = now;
+        return stamp;
+    }
+    public void unlockWrite(long stamp) {
+        Metrics.WRITE_LOCK_HOLD.record(System.nanoTime() - writeSince);
+        lock.unlockWrite(stamp);
+    }
+
+    // Внутреннее чтение под блокировкой: время удержания
+    private void unlockRead(long stamp, long since) {
+        Metrics.READ_LOCK_HOLD.record(System.nanoTime() - since);
+        lock.unlockRead(stamp);
+    }
+
+    // Список и его прототип; вызывать под блокировкой (null — список не создан)
+    public SingleLinkedList list() { return list; }
+    public UserType prototype() { return list == null ? null : list.prototype; }
+
+    // Прототип под кратким захватом блокировки чтения (для сводок; null — список не создан)
+    public UserType prototypeNow() {
+        long stamp = readLock();
+        long since = System.nanoTime();
+        try {
+            return prototype();
+        } finally {
+            unlockRead(stamp, since);
+        }
+    }
+
+    // Ставит новый список и освобождает прежний
+    public void replace(SingleLinkedList next) {
+        long stamp = writeLock();
+        try {
+            swap(next);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    // То же под уже захваченной блокировкой записи
+    public void swap(SingleLinkedList next) {
+        if (list != null) list.release();
+        list = next;
+        generation = generations.incrementAndGet();
+        cached = null;
+    }
+
+    // Тег содержимого для ETag: меняется при любом изменении и при замене списка
+    private static String tag(long generation, long version) {
+        return TAG_PREFIX + generation + "-" + version + "\"";
+    }
+
+    // Текущий тег без захвата блокировки (оптимистичное чтение); null — список не создан
+    public String tag() {
+        long stamp = lock.tryOptimisticRead();
+        SingleLinkedList l = list;
+        long g = generation;
+        long v = (l == null) ? 0 : l.version();
+        if (stamp != 0 && lock.validate(stamp)) return (l == null) ? null : tag(g, v);
+        stamp = readLock();
+        long since = System.nanoTime();
+        try {
+            return (list == null) ? null : tag(generation, list.version());
+        } finally {
+            unlockRead(stamp, since);
+        }
+    }
+
+    // Закодированный ответ и то, для чего он: тег содержимого и параметры запроса
+    public static final class Cached {
+        public final String tag;
+        public final String query;
+        public final int total;
+        public final long version;
+        public final byte[] body;
+        public Cached(String tag, String query, int total, long version, byte[] body) {
+            this.tag = tag; this.query = query; this.total = total; this.version = version; this.body = body;
+        }
+    }
+
+    // Размер списка или -1, если он не создан
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        SingleLinkedList l = list;
+        int n = (l == null) ? -1 : l.size();
+        if (lock.validate(stamp)) return n;
+        stamp = readLock();
+        long since = System.nanoTime();
+        try {
+            return (list == null) ? -1 : list.size();
+        } finally {
+            unlockRead(stamp, since);
+        }
+    }
+
+    // Элемент в сериализованном виде и версия списка, из которой он прочитан
+    public static final class Entry {
+        public final String value;
+        public final long version;
+        Entry(String value, long version) { this.value = value; this.version = version; }
+    }
+
+    // Элемент по индексу или null, если список не создан.
+    // Оптимистичное чтение допускается только для движков, которые переживают параллельное изменение:
+    // исключение или мусор при гонке отбрасываются проверкой штампа и чтение повторяется под блокировкой
+    public Entry entryAt(int index) {
+        long stamp = lock.tryOptimisticRead();
+        SingleLinkedList l = list;
+        if (stamp != 0 && l != null && l.optimisticReadSafe()) {
+            try {
+                long version = l.version();
+                String s = l.prototype.serialize(l.peek(index));
+                if (lock.validate(stamp)) return new Entry(s, version);
+            } catch (RuntimeException raced) {
+                if (lock.validate(stamp)) throw raced;
+            }
+        }
+        stamp = readLock();
+        long since = System.nanoTime();
+        try {
+            if (list == null) return null;
+            return new Entry(list.prototype.serialize(list.get(index)), list.version());
+        } finally {
+            unlockRead(stamp, since);
+        }
+    }
+
+    // Список для чтения: неизменяемый снимок без блокировки (персистентный движок)
+    // или сам список под блокировкой чтения до close(). list == null — список не создан
+    public final class ReadView implements AutoCloseable {
+        public final SingleLinkedList list;
+        // Тег содержимого list (null — список не создан)
+        public final String tag;
+        private final long stamp;
+        private final long since = System.nanoTime();
+        ReadView(SingleLinkedList list, String tag, long stamp) { this.list = list; this.tag = tag; this.stamp = stamp; }
+        public boolean isSnapshot() { return stamp == 0; }
+        public void close() { if (stamp != 0) unlockRead(stamp, since); }
+    }
+
+    public ReadView read() {
+        long stamp = lock.tryOptimisticRead();
+        SingleLinkedList l = list;
+        if (stamp != 0 && l != null) {
+            // Снимок персистентного движка — одно чтение корня, гонка ловится проверкой штампа
+            SingleLinkedList snap = l.snapshot();
+            long g = generation;
+            if (snap != null && lock.validate(stamp)) return new ReadView(snap, tag(g, snap.version()), 0);
+        }
+        stamp = readLock();
+        SingleLinkedList snap = (list == null) ? null : list.snapshot();
+        String t = (list == null) ? null : tag(generation, list.version());
+        if (snap == null) return new ReadView(list, t, stamp);
+        unlockRead(stamp);
+        return new ReadView(snap, t, 0);
+    }
+}
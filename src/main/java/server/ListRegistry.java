@@ -0,0 +1,70 @@
+package server;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Именованные списки сервера. У каждого свой ListHolder со своей блокировкой,
+// поэтому операции над разными списками идут параллельно. Поиск по имени без блокировок;
+// создание и удаление редки и идут под монитором реестра, чтобы соблюдать предел числа списков.
+public class ListRegistry {
+    public static final String DEFAULT_ID = "default";
+    private static final Pattern ID = Pattern.compile("[A-Za-z0-9_.-]{1,64}");
+
+    private final ConcurrentHashMap<String, ListHolder> lists = new ConcurrentHashMap<>();
+    private final int maxLists;
+
+    // maxLists учитывает и список по умолчанию
+    public ListRegistry(int maxLists) {
+        if (maxLists < 1) throw new IllegalArgumentException("maxLists must be positive");
+        this.maxLists = maxLists;
+        lists.put(DEFAULT_ID, new ListHolder(DEFAULT_ID));
+    }
+
+    public static boolean isValidId(String id) {
+        return id != null && ID.matcher(id).matches();
+    }
+
+    public int maxLists() { return maxLists; }
+    public int count() { return lists.size(); }
+
+    // Держатель списка или null, если такого нет
+    public ListHolder get(String id) { return lists.get(id); }
+
+    public ListHolder defaultList() { return lists.get(DEFAULT_ID); }
+
+    // Существующий или новый пустой держатель; null — достигнут предел числа списков
+    public synchronized ListHolder getOrCreate(String id) {
+        if (!isValidId(id)) throw new IllegalArgumentException("invalid list id: " + id);
+        ListHolder h = lists.get(id);
+        if (h != null) return h;
+        if (lists.size() >= maxLists) return null;
+        h = new ListHolder(id);
+        lists.put(id, h);
+        return h;
+    }
+
+    // Удаляет список и освобождает его память; false — такого нет.
+    // Запросы, уже получившие держатель, дальше увидят неинициализированный список
+    public boolean drop(String id) { return drop(id, null); }
+
+    // onDropped выполняется под монитором реестра после удаления, до нового создания того же имени
+    // (журнал записывает удаление раньше, чем возможное повторное создание)
+    public boolean drop(String id, Runnable onDropped) {
+        if (DEFAULT_ID.equals(id)) throw new IllegalArgumentException("default list cannot be dropped");
+        synchronized (this) {
+            ListHolder h = lists.remove(id);
+            if (h == null) return false;
+            h.replace(null);
+            if (onDropped != null) onDropped.run();
+        }
+        return true;
+    }
+
+    // Имена в алфавитном порядке
+    public List<String> ids() {
+        ArrayList<String> ids = new ArrayList<>(lists.keySet());
+        Collections.sort(ids);
+        return ids;
+    }
+}
@@ -0,0 +1,231 @@
+package server;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+// Метрики сервера для /metrics в текстовом формате Prometheus: по маршрутам — число запросов, ошибок,
+// байты и гистограмма задержек; ожидание и удержание блокировок списков; фазы обработки.
+// Маршруты и гистограммы создаются при старте, запись — только сложения в LongAdder и
+// AtomicLongArray, без выделения памяти и без блокировок.
+public class Metrics {
+    // Границы корзин гистограмм при выгрузке, в секундах
+    private static final double[] LE = { 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05,
+            0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+    private static final double[] QUANTILES = { 0.5, 0.99, 0.999 };
+
+    public static final class Route {
+        public final String name;
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder bytesIn = new LongAdder();
+        final LongAdder bytesOut = new LongAdder();
+        final Histogram latency = new Histogram();
+        Route(String name) { this.name = name; }
+    }
+
+    private static final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+
+    // Блокировки списков (ListHolder): ожидание захвата и время удержания
+    public static final Histogram READ_LOCK_WAIT = new Histogram();
+    public static final Histogram READ_LOCK_HOLD = new Histogram();
+    public static final Histogram WRITE_LOCK_WAIT = new Histogram();
+    public static final Histogram WRITE_LOCK_HOLD = new Histogram();
+    // Фазы обработки: разбор тела запроса и кодирование списка в ответ /items
+    public static final Histogram BODY_READ = new Histogram();
+    public static final Histogram ITEMS_ENCODE = new Histogram();
+
+    private Metrics() { }
+
+    public static Route route(String name) {
+        return routes.computeIfAbsent(name, Route::new);
+    }
+
+    // Операции /lists/{id}/{op}: метка маршрута без имени списка, иначе число меток росло бы без предела
+    private static final String[] LIST_OPS = { "items", "add", "insert", "insertSorted", "remove", "batch", "get",
+            "find", "index", "sort", "save", "load" };
+    private static final String[] LIST_OP_SUFFIX = new String[LIST_OPS.length];
+    private static final Route[] LIST_OP_ROUTES = new Route[LIST_OPS.length];
+    static {
+        for (int i = 0; i < LIST_OPS.length; i++) {
+            LIST_OP_SUFFIX[i] = "/" + LIST_OPS[i];
+            LIST_OP_ROUTES[i] = route("/lists/{id}/" + LIST_OPS[i]);
+        }
+    }
+    private static final Route LISTS = route("/lists");
+    private static final Route LISTS_ID = route("/lists/{id}");
+    private static final Route LISTS_OTHER = route("/lists/other");
+
+    // Маршрут /lists/... по пути запроса (без выделения памяти)
+    static Route listsRoute(String path) {
+        int slashes = 0;
+        for (int i = 1; i < path.length(); i++) if (path.charAt(i) == '/' && i < path.length() - 1) slashes++;
+        if (slashes == 0) return LISTS;
+        if (slashes == 1) return LISTS_ID;
+        if (slashes == 2) {
+            for (int i = 0; i < LIST_OPS.length; i++) if (path.endsWith(LIST_OP_SUFFIX[i])) return LIST_OP_ROUTES[i];
+        }
+        return LISTS_OTHER;
+    }
+
+    // Фильтр маршрута: время от входа до конца обработчика, код ответа и объём тела в обе стороны
+    public static Filter filter(String path) {
+        Route fixed = path.equals("/lists") ? null : route(path);
+        return new Filter() {
+            public String description() { return "request metrics"; }
+
+            public void doFilter(HttpExchange ex, Chain chain) throws IOException {
+                Route r = (fixed != null) ? fixed : listsRoute(ex.getRequestURI().getPath());
+                long t0 = System.nanoTime();
+                CountingInput in = new CountingInput(ex.getRequestBody(), r.bytesIn);
+                CountingOutput out = new CountingOutput(ex.getResponseBody(), r.bytesOut);
+                ex.setStreams(in, out);
+                // Событие JFR только во время записи; без неё — одна проверка isEnabled
+                RequestEvent event = new RequestEvent();
+                boolean jfr = event.isEnabled();
+                if (jfr) {
+                    event.begin();
+                    event.attach();
+                }
+                boolean failed = true;
+                try {
+                    chain.doFilter(ex);
+                    failed = false;
+                } finally {
+                    r.latency.record(System.nanoTime() - t0);
+                    r.requests.increment();
+                    int status = failed ? 500 : ex.getResponseCode();
+                    if (status >= 400) r.errors.increment();
+                    if (jfr) {
+                        event.detach();
+                        event.end();
+                        if (event.shouldCommit()) {
+                            event.route = r.name;
+                            event.method = ex.getRequestMethod();
+                            event.status = status;
+                            event.bytesIn = in.count;
+                            event.bytesOut = out.count;
+                            event.commit();
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    // Считают байты тела в счётчик маршрута и в count этого запроса
+    private static final class CountingInput extends FilterInputStream {
+        private final LongAdder bytes;
+        long count;
+        CountingInput(InputStream in, LongAdder bytes) { super(in); this.bytes = bytes; }
+        @Override public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) { bytes.increment(); count++; }
+            return b;
+        }
+        @Override public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) { bytes.add(n); count += n; }
+            return n;
+        }
+    }
+
+    private static final class CountingOutput extends FilterOutputStream {
+        private final LongAdder bytes;
+        long count;
+        CountingOutput(OutputStream out, LongAdder bytes) { super(out); this.bytes = bytes; }
+        @Override public void write(int b) throws IOException {
+            out.write(b);
+            bytes.increment();
+            count++;
+        }
+        @Override public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes.add(len);
+            count += len;
+        }
+    }
+
+    // == Выгрузка ==
+
+    // Текст в формате Prometheus; sizes — размеры списков по именам, extra — готовые строки (журнал, очередь)
+    public static String prometheus(Map<String, Integer> sizes, String extra) {
+        StringBuilder sb = new StringBuilder(8192);
+        ArrayList<Route> all = new ArrayList<>(routes.values());
+        all.sort(Comparator.comparing(r -> r.name));
+        all.removeIf(r -> r.requests.sum() == 0);
+
+        header(sb, "sll_http_requests_total", "counter", "Requests by route");
+        for (Route r : all) sb.append("sll_http_requests_total{route=\"").append(r.name).append("\"} ").append(r.requests.sum()).append('\n');
+        header(sb, "sll_http_errors_total", "counter", "Responses with status >= 400 or failed handlers");
+        for (Route r : all) sb.append("sll_http_errors_total{route=\"").append(r.name).append("\"} ").append(r.errors.sum()).append('\n');
+        header(sb, "sll_http_request_bytes_total", "counter", "Request body bytes read");
+        for (Route r : all) sb.append("sll_http_request_bytes_total{route=\"").append(r.name).append("\"} ").append(r.bytesIn.sum()).append('\n');
+        header(sb, "sll_http_response_bytes_total", "counter", "Response body bytes written");
+        for (Route r : all) sb.append("sll_http_response_bytes_total{route=\"").append(r.name).append("\"} ").append(r.bytesOut.sum()).append('\n');
+
+        header(sb, "sll_http_request_duration_seconds", "histogram", "Request latency by route");
+        for (Route r : all) histogram(sb, "sll_http_request_duration_seconds", "route=\"" + r.name + "\"", r.latency);
+        header(sb, "sll_http_request_duration_quantile_seconds", "gauge", "Request latency quantiles by route");
+        for (Route r : all) quantiles(sb, "sll_http_request_duration_quantile_seconds", "route=\"" + r.name + "\"", r.latency);
+
+        header(sb, "sll_lock_wait_seconds", "histogram", "Time waiting for a list lock");
+        histogram(sb, "sll_lock_wait_seconds", "mode=\"read\"", READ_LOCK_WAIT);
+        histogram(sb, "sll_lock_wait_seconds", "mode=\"write\"", WRITE_LOCK_WAIT);
+        header(sb, "sll_lock_hold_seconds", "histogram", "Time a list lock is held");
+        histogram(sb, "sll_lock_hold_seconds", "mode=\"read\"", READ_LOCK_HOLD);
+        histogram(sb, "sll_lock_hold_seconds", "mode=\"write\"", WRITE_LOCK_HOLD);
+        header(sb, "sll_lock_quantile_seconds", "gauge", "List lock wait and hold quantiles");
+        quantiles(sb, "sll_lock_quantile_seconds", "kind=\"wait\",mode=\"read\"", READ_LOCK_WAIT);
+        quantiles(sb, "sll_lock_quantile_seconds", "kind=\"wait\",mode=\"write\"", WRITE_LOCK_WAIT);
+        quantiles(sb, "sll_lock_quantile_seconds", "kind=\"hold\",mode=\"read\"", READ_LOCK_HOLD);
+        quantiles(sb, "sll_lock_quantile_seconds", "kind=\"hold\",mode=\"write\"", WRITE_LOCK_HOLD);
+
+        header(sb, "sll_phase_seconds", "histogram", "Time spent in request processing phases");
+        histogram(sb, "sll_phase_seconds", "phase=\"body_read\"", BODY_READ);
+        histogram(sb, "sll_phase_seconds", "phase=\"items_encode\"", ITEMS_ENCODE);
+
+        header(sb, "sll_list_size", "gauge", "Number of elements per list (-1 if not initialized)");
+        for (Map.Entry<String, Integer> e : sizes.entrySet()) {
+            sb.append("sll_list_size{list=\"").append(e.getKey()).append("\"} ").append(e.getValue()).append('\n');
+        }
+        if (extra != null) sb.append(extra);
+        return sb.toString();
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    // Корзины считаются по внутренним корзинам гистограммы, целиком лежащим не выше границы
+    private static void histogram(StringBuilder sb, String name, String labels, Histogram h) {
+        long count = h.count();
+        for (double le : LE) {
+            sb.append(name).append("_bucket{").append(labels).append(",le=\"").append(le).append("\"} ")
+              .append(Math.min(count, h.countAtMost((long) (le * 1e9)))).append('\n');
+        }
+        sb.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(count).append('\n');
+        sb.append(name).append("_sum{").append(labels).append("} ").append(seconds(h.sum())).append('\n');
+        sb.append(name).append("_count{").append(labels).append("} ").append(count).append('\n');
+    }
+
+    private static void quantiles(StringBuilder sb, String name, String labels, Histogram h) {
+        for (double q : QUANTILES) {
+            sb.append(name).append('{').append(labels).append(",quantile=\"").append(q).append("\"} ")
+              .append(seconds(h.quantile(q))).append('\n');
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.US, "%.9f", nanos / 1e9);
+    }
+}
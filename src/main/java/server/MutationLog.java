@@ -0,0 +1,564 @@
+package server;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import data.UserFactory;
+import data.UserType;
+import list.ListStorage;
+import list.SingleLinkedList;
+import list.StorageFactory;
+
+// Журнал изменений списков (write-ahead log). Обработчик под блокировкой записи списка
+// ставит запись в очередь (append), а после снятия блокировки ждёт её попадания на диск (awaitDurable).
+// Поток журнала забирает всё накопленное, пишет одним проходом и делает один fsync на всю группу
+// (group commit), поэтому цена изменения — короткая последовательная дозапись, а не перезапись списка.
+//
+// Файлы в каталоге журнала:
+//   wal-<g>.log          записи поколения g: [длина][crc32][номер][имя списка][код][поля]
+//   snapshot-<g>/        снимки списков (<id>.bin) и MANIFEST; вместе с журналами поколений >= g
+//                        дают полное состояние
+//   load-<g>-<n>.bin     содержимое загруженного из файла списка (на него ссылается запись LOAD)
+// Сжатие переключает журнал на новое поколение, сохраняет снимки и удаляет старые файлы.
+// При старте: последний полный снимок, затем записи журналов поверх него.
+public class MutationLog implements Closeable {
+    static final byte CREATE = 1, ADD = 2, INSERT = 3, REMOVE = 4, SET = 5, INSERT_SORTED = 6,
+            SORT = 7, INDEX = 8, DROP = 9, LOAD = 10;
+
+    private static final int MANIFEST_VERSION = 1;
+    private static final String MANIFEST = "MANIFEST";
+
+    private final File dir;
+    private final ListRegistry lists;
+    private final UserFactory factory;
+    private final StorageFactory storages;
+    // После стольких байтов журнала запускается сжатие; 0 — только вручную (compact)
+    private final long compactBytes;
+
+    private static final class Pending {
+        final long gen;
+        final long lsn;
+        final byte[] frame;
+        Pending(long gen, long lsn, byte[] frame) { this.gen = gen; this.lsn = lsn; this.frame = frame; }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition work = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    // Поля ниже — под lock
+    private ArrayList<Pending> queue = new ArrayList<>();
+    private long lastLsn;
+    private long durableLsn;
+    private long gen;
+    private long sinceCompaction;
+    private boolean compacting;
+    private boolean closed;
+    private IOException failure;
+
+    // Номер последней записи каждого списка; меняется под блокировкой записи этого списка
+    private final ConcurrentHashMap<String, Long> lastById = new ConcurrentHashMap<>();
+    private final AtomicLong loadFiles = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+    private final Thread writer;
+    private volatile Thread compactor;
+
+    private MutationLog(File dir, ListRegistry lists, UserFactory factory, StorageFactory storages, long compactBytes) {
+        this.dir = dir;
+        this.lists = lists;
+        this.factory = factory;
+        this.storages = storages;
+        this.compactBytes = compactBytes;
+        this.writer = new Thread(this::writeLoop, "wal-writer");
+        writer.setDaemon(true);
+    }
+
+    // Восстанавливает списки реестра из каталога и начинает новое поколение журнала
+    public static MutationLog open(File dir, ListRegistry lists, UserFactory factory, StorageFactory storages,
+                                   long compactBytes) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("cannot create log directory " + dir);
+        MutationLog log = new MutationLog(dir, lists, factory, storages, compactBytes);
+        log.recover();
+        log.writer.start();
+        return log;
+    }
+
+    // == Записи ==
+
+    public static byte[] create(String type, String storage, boolean indexed) { return record(CREATE, type, storage, indexed); }
+    public static byte[] add(UserType proto, Object value) { return record(ADD, text(proto, value)); }
+    public static byte[] insert(int index, UserType proto, Object value) { return record(INSERT, index, text(proto, value)); }
+    public static byte[] remove(int index) { return record(REMOVE, index); }
+    public static byte[] set(int index, UserType proto, Object value) { return record(SET, index, text(proto, value)); }
+    public static byte[] insertSorted(UserType proto, Object value) { return record(INSERT_SORTED, text(proto, value)); }
+    public static byte[] sort(String algorithm) { return record(SORT, algorithm); }
+    public static byte[] index(boolean enabled) { return record(INDEX, enabled); }
+    public static byte[] drop() { return record(DROP); }
+    public static byte[] load(String file, boolean indexed) { return record(LOAD, file, indexed); }
+
+    private static String text(UserType proto, Object value) { return value == null ? null : proto.serialize(value); }
+
+    // Код и поля: строка (может быть null), int или boolean
+    private static byte[] record(byte op, Object... fields) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(op);
+            for (Object f : fields) {
+                if (f instanceof Integer) out.writeInt((Integer) f);
+                else if (f instanceof Boolean) out.writeBoolean((Boolean) f);
+                else writeString(out, (String) f);
+            }
+            return bytes.toByteArray();
+        } catch (IOException io) {
+            throw new UncheckedIOException(io);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) { out.writeInt(-1); return; }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) return null;
+        byte[] b = new byte[n];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // Ставит записи списка id в очередь и возвращает номер последней.
+    // Вызывать под блокировкой записи списка, чтобы порядок в журнале совпал с порядком изменений
+    public long append(String id, byte[]... records) {
+        lock.lock();
+        try {
+            ensureWritable();
+            for (byte[] r : records) {
+                long lsn = ++lastLsn;
+                queue.add(new Pending(gen, lsn, frame(lsn, id, r)));
+            }
+            lastById.put(id, lastLsn);
+            work.signal();
+            return lastLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Бросает IllegalStateException, если журнал закрыт или его поток остановился на ошибке записи:
+    // изменения тогда надо отклонять до применения, иначе память разойдётся с журналом
+    public void checkWritable() {
+        lock.lock();
+        try {
+            ensureWritable();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureWritable() {
+        if (closed) throw new IllegalStateException("mutation log is closed");
+        if (failure != null) throw new IllegalStateException("mutation log write failed: " + failure.getMessage());
+    }
+
+    private static byte[] frame(long lsn, String id, byte[] record) {
+        byte[] name = id.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(8 + 2 + name.length + record.length);
+        body.putLong(lsn).putShort((short) name.length).put(name).put(record);
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+        ByteBuffer f = ByteBuffer.allocate(8 + body.capacity());
+        f.putInt(body.capacity()).putInt((int) crc.getValue()).put(body.array());
+        return f.array();
+    }
+
+    // Ждёт, пока запись с номером lsn (и все до неё) окажется на диске
+    public void awaitDurable(long lsn) throws IOException {
+        lock.lock();
+        try {
+            while (durableLsn < lsn && failure == null) flushed.awaitUninterruptibly();
+            if (durableLsn < lsn) throw new IOException("mutation log write failed: " + failure.getMessage(), failure);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Сколько раз журнал сбрасывался на диск (группы записей)
+    public long fsyncs() { return fsyncs.get(); }
+
+    private File logFile(long g) { return new File(dir, "wal-" + g + ".log"); }
+
+    private void writeLoop() {
+        FileChannel ch = null;
+        long chGen = -1;
+        try {
+            while (true) {
+                ArrayList<Pending> batch;
+                lock.lock();
+                try {
+                    while (queue.isEmpty() && !closed) work.awaitUninterruptibly();
+                    if (queue.isEmpty()) return;
+                    batch = queue;
+                    queue = new ArrayList<>();
+                } finally {
+                    lock.unlock();
+                }
+                long written = 0;
+                try {
+                    for (Pending p : batch) {
+                        // Новое поколение — после сброса прежнего файла
+                        if (p.gen != chGen) {
+                            if (ch != null) { ch.force(false); ch.close(); }
+                            ch = FileChannel.open(logFile(p.gen).toPath(), StandardOpenOption.CREATE,
+                                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                            chGen = p.gen;
+                        }
+                        ByteBuffer b = ByteBuffer.wrap(p.frame);
+                        while (b.hasRemaining()) ch.write(b);
+                        written += p.frame.length;
+                    }
+                    ch.force(false);
+                    fsyncs.incrementAndGet();
+                } catch (IOException io) {
+                    lock.lock();
+                    try {
+                        failure = io;
+                        flushed.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                    return;
+                }
+                boolean compact = false;
+                lock.lock();
+                try {
+                    durableLsn = batch.get(batch.size() - 1).lsn;
+                    sinceCompaction += written;
+                    if (compactBytes > 0 && sinceCompaction >= compactBytes && !compacting) {
+                        compacting = true;
+                        compact = true;
+                    }
+                    flushed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                if (compact) {
+                    Thread t = new Thread(this::compactInBackground, "wal-compact");
+                    t.setDaemon(true);
+                    compactor = t;
+                    t.start();
+                }
+            }
+        } finally {
+            if (ch != null) try { ch.close(); } catch (IOException ignored) { }
+        }
+    }
+
+    private void compactInBackground() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Log compaction failed: " + e);
+        } finally {
+            lock.lock();
+            try { compacting = false; } finally { lock.unlock(); }
+        }
+    }
+
+    // == Снимки ==
+
+    // Файл для содержимого загруженного списка; сохраняется и сбрасывается на диск до записи LOAD
+    public String saveLoaded(SingleLinkedList list) throws IOException {
+        long g;
+        lock.lock();
+        try { g = gen; } finally { lock.unlock(); }
+        String name = "load-" + g + "-" + loadFiles.incrementAndGet() + ".bin";
+        File f = new File(dir, name);
+        list.saveToBinaryFile(f.getPath());
+        sync(f);
+        return name;
+    }
+
+    private static void sync(File f) throws IOException {
+        try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+    }
+
+    // Сжатие: журнал переходит на новое поколение, каждый список сохраняется снимком
+    // вместе с номером своей последней записи, затем манифест и удаление старых файлов
+    public void compact() throws IOException {
+        long newGen, base;
+        lock.lock();
+        try {
+            newGen = ++gen;
+            base = lastLsn;
+            sinceCompaction = 0;
+        } finally {
+            lock.unlock();
+        }
+        // Все записи прежних поколений на диске
+        awaitDurable(base);
+
+        File snapDir = new File(dir, "snapshot-" + newGen);
+        if (!snapDir.isDirectory() && !snapDir.mkdirs()) throw new IOException("cannot create " + snapDir);
+        ByteArrayOutputStream manifest = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(manifest);
+        ArrayList<String> ids = new ArrayList<>();
+        ArrayList<byte[]> entries = new ArrayList<>();
+        for (String id : lists.ids()) {
+            ListHolder h = lists.get(id);
+            if (h == null) continue;
+            File f = new File(snapDir, id + ".bin");
+            SingleLinkedList copy;
+            ByteArrayOutputStream entry = new ByteArrayOutputStream();
+            DataOutputStream e = new DataOutputStream(entry);
+            // Снимок и номер записи берутся под одной блокировкой чтения: записи с большим номером
+            // ещё не применены к снимку, с меньшим или равным — уже в нём
+            long stamp = h.readLock();
+            try {
+                SingleLinkedList l = h.list();
+                if (l == null) continue;
+                writeString(e, l.prototype.typeName());
+                writeString(e, l.storageKind());
+                e.writeBoolean(l.isIndexed());
+                e.writeBoolean(l.isSortedBy(l.prototype.getTypeComparator()));
+                e.writeLong(lastById.getOrDefault(id, 0L));
+                // Персистентный движок пишется из снимка вне блокировки, остальные — под ней
+                copy = l.snapshot();
+                if (copy == null) l.saveToBinaryFile(f.getPath());
+            } finally {
+                h.unlockRead(stamp);
+            }
+            if (copy != null) copy.saveToBinaryFile(f.getPath());
+            sync(f);
+            ids.add(id);
+            entries.add(entry.toByteArray());
+        }
+        out.writeInt(MANIFEST_VERSION);
+        out.writeLong(base);
+        out.writeInt(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            writeString(out, ids.get(i));
+            out.write(entries.get(i));
+        }
+        File tmp = new File(snapDir, MANIFEST + ".tmp");
+        Files.write(tmp.toPath(), manifest.toByteArray());
+        sync(tmp);
+        Files.move(tmp.toPath(), new File(snapDir, MANIFEST).toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+        // Старые поколения больше не нужны. Файлы загрузок держим на поколение дольше:
+        // запись LOAD могла попасть в журнал уже после переключения
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File f : files) {
+            long g = generationOf(f.getName());
+            if (g < 0) continue;
+            if (f.getName().startsWith("load-") ? g < newGen - 1 : g < newGen) deleteTree(f);
+        }
+    }
+
+    // Поколение из имени файла журнала, снимка или загрузки; -1 — чужой файл
+    private static long generationOf(String name) {
+        String digits;
+        if (name.startsWith("wal-") && name.endsWith(".log")) digits = name.substring(4, name.length() - 4);
+        else if (name.startsWith("snapshot-")) digits = name.substring(9);
+        else if (name.startsWith("load-") && name.indexOf('-', 5) > 0) digits = name.substring(5, name.indexOf('-', 5));
+        else return -1;
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException nfe) {
+            return -1;
+        }
+    }
+
+    private static void deleteTree(File f) {
+        File[] children = f.listFiles();
+        if (children != null) for (File c : children) deleteTree(c);
+        f.delete();
+    }
+
+    // == Восстановление ==
+
+    private void recover() throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) files = new File[0];
+        long snapGen = -1;
+        long maxGen = 0;
+        ArrayList<Long> logGens = new ArrayList<>();
+        for (File f : files) {
+            long g = generationOf(f.getName());
+            if (g < 0) continue;
+            maxGen = Math.max(maxGen, g);
+            if (f.getName().startsWith("snapshot-") && new File(f, MANIFEST).isFile()) snapGen = Math.max(snapGen, g);
+            if (f.getName().startsWith("wal-")) logGens.add(g);
+        }
+        // Номер последней записи, уже вошедшей в снимок, по каждому списку
+        HashMap<String, Long> applied = new HashMap<>();
+        if (snapGen >= 0) lastLsn = loadSnapshot(new File(dir, "snapshot-" + snapGen), applied);
+        Collections.sort(logGens);
+        for (long g : logGens) {
+            if (g >= snapGen) replay(logFile(g), applied);
+        }
+        lastById.putAll(applied);
+        gen = maxGen + 1;
+        durableLsn = lastLsn;
+    }
+
+    private long loadSnapshot(File snapDir, HashMap<String, Long> applied) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(new File(snapDir, MANIFEST))))) {
+            int version = in.readInt();
+            if (version != MANIFEST_VERSION) throw new IOException("Unsupported snapshot manifest version " + version);
+            long base = in.readLong();
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                String id = readString(in);
+                String type = readString(in);
+                String kind = readString(in);
+                boolean indexed = in.readBoolean();
+                boolean sorted = in.readBoolean();
+                long lsn = in.readLong();
+                SingleLinkedList loaded = SingleLinkedList.loadFromBinaryFile(new File(snapDir, id + ".bin").getPath(), factory);
+                if (!loaded.prototype.typeName().equals(type)) throw new IOException("Snapshot of " + id + " has type " + loaded.prototype.typeName());
+                SingleLinkedList list = withStorage(loaded, kind);
+                // Порядок восстанавливаем проходом natural: на упорядоченном списке он линейный
+                if (sorted) list.sort(list.prototype.getTypeComparator(), SingleLinkedList.SORT_NATURAL);
+                list.setIndexed(indexed);
+                holderFor(id).replace(list);
+                applied.put(id, lsn);
+                base = Math.max(base, lsn);
+            }
+            return base;
+        }
+    }
+
+    // Копия в движке kind, если загрузка дала другой
+    private SingleLinkedList withStorage(SingleLinkedList loaded, String kind) throws IOException {
+        if (kind == null || kind.equals(loaded.storageKind())) return loaded;
+        ListStorage storage = storages.create(kind, loaded.prototype);
+        if (storage == null) throw new IOException("Unknown storage in snapshot: " + kind);
+        SingleLinkedList list = new SingleLinkedList(loaded.prototype, storage);
+        for (Object v : loaded.toArrayList()) list.add(v);
+        loaded.release();
+        return list;
+    }
+
+    private ListHolder holderFor(String id) throws IOException {
+        ListHolder h = lists.getOrCreate(id);
+        if (h == null) throw new IOException("too many lists to recover " + id + " (max " + lists.maxLists() + ")");
+        return h;
+    }
+
+    // Применяет записи файла по порядку; обрыв или порча в конце (сбой во время записи) завершают файл
+    private void replay(File log, HashMap<String, Long> applied) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(log), 1 << 16))) {
+            while (true) {
+                byte[] body;
+                try {
+                    int len = in.readInt();
+                    int crc = in.readInt();
+                    if (len < 10) return;
+                    body = new byte[len];
+                    in.readFully(body);
+                    CRC32 c = new CRC32();
+                    c.update(body);
+                    if ((int) c.getValue() != crc) return;
+                } catch (EOFException torn) {
+                    return;
+                }
+                DataInputStream r = new DataInputStream(new ByteArrayInputStream(body));
+                long lsn = r.readLong();
+                byte[] name = new byte[r.readShort() & 0xFFFF];
+                r.readFully(name);
+                String id = new String(name, StandardCharsets.UTF_8);
+                lastLsn = Math.max(lastLsn, lsn);
+                // Уже вошло в снимок
+                Long done = applied.get(id);
+                if (done != null && lsn <= done) continue;
+                try {
+                    apply(id, r);
+                } catch (RuntimeException bad) {
+                    throw new IOException("Cannot replay record " + lsn + " of " + log.getName() + ": " + bad.getMessage(), bad);
+                }
+                applied.put(id, lsn);
+            }
+        }
+    }
+
+    private void apply(String id, DataInputStream r) throws IOException {
+        byte op = r.readByte();
+        if (op == CREATE) {
+            String type = readString(r);
+            String kind = readString(r);
+            boolean indexed = r.readBoolean();
+            UserType ut = factory.getBuilderByName(type);
+            if (ut == null) throw new IOException("Unknown type in log: " + type);
+            ListStorage storage = storages.create(kind, ut);
+            if (storage == null) throw new IOException("Unknown storage in log: " + kind);
+            SingleLinkedList list = new SingleLinkedList(ut, storage);
+            list.setIndexed(indexed);
+            holderFor(id).replace(list);
+            return;
+        }
+        if (op == LOAD) {
+            String file = readString(r);
+            boolean indexed = r.readBoolean();
+            SingleLinkedList list = SingleLinkedList.loadFromBinaryFile(new File(dir, file).getPath(), factory);
+            list.setIndexed(indexed);
+            holderFor(id).replace(list);
+            return;
+        }
+        if (op == DROP) {
+            lists.drop(id);
+            return;
+        }
+        ListHolder h = lists.get(id);
+        SingleLinkedList list = (h == null) ? null : h.list();
+        // Изменение списка, удалённого позже в этом же журнале
+        if (list == null) return;
+        UserType proto = list.prototype;
+        switch (op) {
+            case ADD: list.add(value(proto, readString(r))); break;
+            case INSERT: { int i = r.readInt(); list.insert(i, value(proto, readString(r))); break; }
+            case REMOVE: list.remove(r.readInt()); break;
+            case SET: { int i = r.readInt(); list.set(i, value(proto, readString(r))); break; }
+            case INSERT_SORTED: list.insertSorted(value(proto, readString(r)), proto.getTypeComparator()); break;
+            case SORT: list.sort(proto.getTypeComparator(), readString(r)); break;
+            case INDEX: list.setIndexed(r.readBoolean()); break;
+            default: throw new IOException("Unknown log record " + op);
+        }
+    }
+
+    private static Object value(UserType proto, String s) { return s == null ? null : proto.deserialize(s); }
+
+    // Дописывает очередь на диск, дожидается сжатия и останавливает поток журнала
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+            Thread t = compactor;
+            if (t != null) t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+// Событие JFR на каждый запрос к маршруту (пишется фильтром Metrics.filter).
+// По умолчанию записываются запросы от 10 мс; порог меняется в настройках записи (.jfc).
+// Без записи JFR событие выключено: фильтр проверяет isEnabled и больше ничего не делает
+@Name("sll.Request")
+@Label("HTTP Request")
+@Category({ "SingleLinkedList", "HTTP" })
+@Description("Handling of one HTTP request")
+@StackTrace(false)
+@Threshold("10 ms")
+final class RequestEvent extends jdk.jfr.Event {
+    @Label("Route")
+    String route;
+
+    @Label("Method")
+    String method;
+
+    @Label("Status")
+    int status;
+
+    @Label("Lock Wait")
+    @Description("Time spent waiting for list locks")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+
+    @Label("Bytes In")
+    @DataAmount
+    long bytesIn;
+
+    @Label("Bytes Out")
+    @DataAmount
+    long bytesOut;
+
+    // Событие запроса текущего потока; читается, только пока есть хоть одно (active > 0),
+    // чтобы без записи JFR не создавать карту ThreadLocal у каждого виртуального потока
+    private static final ThreadLocal<RequestEvent> current = new ThreadLocal<>();
+    private static final AtomicInteger active = new AtomicInteger();
+
+    void attach() {
+        active.incrementAndGet();
+        current.set(this);
+    }
+
+    void detach() {
+        current.remove();
+        active.decrementAndGet();
+    }
+
+    // Ожидание блокировки списка (из ListHolder) в счёт текущего запроса
+    static void addLockWait(long nanos) {
+        if (active.get() == 0) return;
+        RequestEvent e = current.get();
+        if (e != null) e.lockWait += nanos;
+    }
+}
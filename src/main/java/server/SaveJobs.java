@@ -0,0 +1,216 @@
+package server;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import list.SingleLinkedList;
+
+// Фоновые сохранения списков. Запрос отдаёт копию списка (см. SingleLinkedList.copy) и сразу получает
+// номер задания; запись идёт на отдельном пуле потоков ввода-вывода во временный файл рядом с целевым,
+// который после fsync атомарно переименовывается — читатель файла не увидит его недописанным.
+// Задания в один файл выполняются по очереди; пока задание ждёт своей очереди, новые запросы в тот же
+// файл не ставят ещё одно, а подменяют в нём копию на более свежую (последнее состояние всё равно победит).
+public class SaveJobs {
+    public static final String QUEUED = "queued", RUNNING = "running", DONE = "done", FAILED = "failed";
+    // Сколько завершённых заданий помнится для /status
+    private static final int HISTORY = 256;
+    // Элементов в выборке для оценки размера файла
+    private static final int SAMPLE = 256;
+
+    public final class Job {
+        public final long id;
+        public final String file;
+        // Поля ниже меняются под монитором SaveJobs
+        private SingleLinkedList list;
+        private String format;
+        private int level;
+        private int items;
+        private long estimate;
+        private String state = QUEUED;
+        private int requests = 1;
+        private long startNanos, endNanos;
+        private long bytes;
+        private String error;
+        private File tmp;
+
+        Job(long id, String file) { this.id = id; this.file = file; }
+    }
+
+    private final ExecutorService io;
+    private final AtomicLong ids = new AtomicLong();
+    private final HashMap<Long, Job> jobs = new HashMap<>();
+    private final ArrayDeque<Long> finished = new ArrayDeque<>();
+    // Файл -> выполняемое задание и задание, ждущее после него
+    private final HashMap<String, Job> running = new HashMap<>();
+    private final HashMap<String, Job> waiting = new HashMap<>();
+
+    public SaveJobs(int threads) {
+        this.io = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "save-io");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Ставит сохранение копии list в file; возвращает новое задание или ожидающее, к которому присоединился запрос
+    public Job submit(SingleLinkedList list, String file, String format, int level) {
+        // Оценка обходит копию, которую больше никто не видит, — до захвата монитора
+        long estimate = estimateBytes(list, format);
+        synchronized (this) {
+            return submit(list, file, format, level, estimate);
+        }
+    }
+
+    private Job submit(SingleLinkedList list, String file, String format, int level, long estimate) {
+        String key = new File(file).getAbsolutePath();
+        Job job = waiting.get(key);
+        boolean fresh = (job == null);
+        if (fresh) {
+            job = new Job(ids.incrementAndGet(), file);
+            jobs.put(job.id, job);
+        } else {
+            job.list.release();
+            job.requests++;
+        }
+        job.list = list;
+        job.format = format;
+        job.level = level;
+        job.items = list.size();
+        job.estimate = estimate;
+        if (!fresh) return job;
+        if (running.containsKey(key)) waiting.put(key, job);
+        else start(key, job);
+        return job;
+    }
+
+    private void start(String key, Job job) {
+        running.put(key, job);
+        io.execute(() -> run(key, job));
+    }
+
+    private void run(String key, Job job) {
+        SingleLinkedList list;
+        String format;
+        int level;
+        synchronized (this) {
+            job.state = RUNNING;
+            job.startNanos = System.nanoTime();
+            list = job.list;
+            format = job.format;
+            level = job.level;
+            job.tmp = tempFor(new File(job.file).getAbsoluteFile());
+        }
+        String error = null;
+        long bytes = 0;
+        try {
+            bytes = writeAtomically(list, new File(job.file).getAbsoluteFile(), job.tmp, format, level);
+        } catch (IOException | RuntimeException e) {
+            error = e.getMessage() == null ? e.toString() : e.getMessage();
+        } finally {
+            list.release();
+        }
+        synchronized (this) {
+            job.endNanos = System.nanoTime();
+            job.bytes = bytes;
+            job.error = error;
+            job.state = (error == null) ? DONE : FAILED;
+            job.list = null;
+            running.remove(key);
+            finished.add(job.id);
+            while (finished.size() > HISTORY) jobs.remove(finished.poll());
+            Job next = waiting.remove(key);
+            if (next != null) start(key, next);
+        }
+    }
+
+    // Пишет список во временный файл рядом с целевым, сбрасывает на диск и переименовывает; размер файла
+    public static long writeAtomically(SingleLinkedList list, String file, String format, int level) throws IOException {
+        File target = new File(file).getAbsoluteFile();
+        return writeAtomically(list, target, tempFor(target), format, level);
+    }
+
+    private static long writeAtomically(SingleLinkedList list, File target, File tmp, String format, int level) throws IOException {
+        try {
+            String f = format.toLowerCase();
+            if (f.endsWith(".gz")) list.saveToCompressedFile(tmp.getPath(), f.startsWith("bin"), level);
+            else if (f.equals("bin")) list.saveToBinaryFile(tmp.getPath());
+            else list.saveToFile(tmp.getPath());
+            try (FileChannel ch = FileChannel.open(tmp.toPath(), StandardOpenOption.WRITE)) {
+                ch.force(true);
+            }
+            long size = tmp.length();
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return size;
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    private static final AtomicLong tmpSeq = new AtomicLong();
+
+    private static File tempFor(File target) {
+        return new File(target.getParentFile(), "." + target.getName() + "." + tmpSeq.incrementAndGet() + ".tmp");
+    }
+
+    // Примерный размер файла для оценки прогресса: двоичный фиксированной ширины — точно,
+    // остальное — по выборке элементов с шагом за один проход итератора; -1 — не оценить (сжатые форматы)
+    private static long estimateBytes(SingleLinkedList list, String format) {
+        String f = format.toLowerCase();
+        int n = list.size();
+        if (f.endsWith(".gz")) return -1;
+        boolean binary = f.equals("bin");
+        int width = list.prototype.fixedWidth();
+        if (binary && width > 0) return 64 + (long) n * width;
+        if (n == 0) return 64;
+        int step = Math.max(1, n / SAMPLE);
+        long sampled = 0;
+        int k = 0;
+        Iterator<Object> it = list.iterator(0);
+        for (int i = 0; i < n && k < SAMPLE; i++) {
+            Object v = it.next();
+            if (i % step != 0) continue;
+            String s = (v == null) ? "" : list.prototype.serialize(v);
+            // JSON: отступ, кавычки, запятая и перевод строки; v1: флаг null и длина строки
+            sampled += s.length() + (binary ? 3 : 8);
+            k++;
+        }
+        return 64 + sampled * n / k;
+    }
+
+    // Состояние задания в JSON или null, если такого нет (или оно давно забыто)
+    public synchronized String status(long id) {
+        Job job = jobs.get(id);
+        if (job == null) return null;
+        long bytes = job.bytes;
+        if (RUNNING.equals(job.state)) bytes = job.tmp.length();
+        double progress;
+        if (DONE.equals(job.state)) progress = 1.0;
+        else if (RUNNING.equals(job.state) && job.estimate > 0) progress = Math.min(0.99, (double) bytes / job.estimate);
+        else progress = QUEUED.equals(job.state) ? 0.0 : -1;
+        long end = (job.endNanos != 0) ? job.endNanos : System.nanoTime();
+        double ms = (job.startNanos == 0) ? 0 : (end - job.startNanos) / 1e6;
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"id\":").append(job.id)
+          .append(", \"state\":\"").append(job.state).append("\"")
+          .append(", \"file\":\"").append(HttpServerApp.jsonEscape(job.file)).append("\"")
+          .append(", \"format\":\"").append(HttpServerApp.jsonEscape(job.format)).append("\"")
+          .append(", \"items\":").append(job.items)
+          .append(", \"requests\":").append(job.requests)
+          .append(", \"bytes\":").append(bytes);
+        if (progress >= 0) sb.append(", \"progress\":").append(String.format(Locale.US, "%.3f", progress));
+        sb.append(", \"elapsedMs\":").append(String.format(Locale.US, "%.3f", ms));
+        if (ms > 0) sb.append(", \"mbPerSec\":").append(String.format(Locale.US, "%.1f", bytes / (1024.0 * 1024.0) / (ms / 1000)));
+        if (job.error != null) sb.append(", \"error\":\"").append(HttpServerApp.jsonEscape(job.error)).append("\"");
+        return sb.append("}").toString();
+    }
+
+    public void shutdown() { io.shutdown(); }
+}
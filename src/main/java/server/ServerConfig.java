@@ -0,0 +1,41 @@
+package server;
+
+// Настройки HTTP-сервера. Из командной строки задаются системными свойствами:
+// -Dserver.port, -Dserver.backlog, -Dserver.executor=virtual|cached,
+// -Dserver.maxConcurrent (0 — без ограничения), -Dserver.maxQueue, -Dserver.retryAfter (секунды),
+// -Dserver.walDir (каталог журнала изменений), -Dserver.walCompactBytes, -Dserver.saveThreads
+public class ServerConfig {
+    public static final String EXECUTOR_VIRTUAL = "virtual";
+    public static final String EXECUTOR_CACHED = "cached";
+
+    public int port = 5865;
+    // 0 — очередь соединений ОС по умолчанию
+    public int backlog = 0;
+    // virtual — виртуальный поток на запрос; cached — прежний пул платформенных потоков
+    public String executor = EXECUTOR_VIRTUAL;
+    // Сколько запросов обрабатывается одновременно
+    public int maxConcurrent = 256;
+    // Сколько запросов может ждать свободного места; сверх этого — 503
+    public int maxQueue = 1024;
+    public int retryAfterSeconds = 1;
+    // Каталог журнала изменений; null — журнал выключен и списки живут только в памяти
+    public String walDir = null;
+    // Объём журнала, после которого списки сохраняются снимком и старый журнал удаляется; 0 — никогда
+    public long walCompactBytes = 64L << 20;
+    // Потоки фоновых сохранений (save с async=true)
+    public int saveThreads = 2;
+
+    public static ServerConfig fromSystemProperties() {
+        ServerConfig c = new ServerConfig();
+        c.port = Integer.getInteger("server.port", c.port);
+        c.backlog = Integer.getInteger("server.backlog", c.backlog);
+        c.executor = System.getProperty("server.executor", c.executor);
+        c.maxConcurrent = Integer.getInteger("server.maxConcurrent", c.maxConcurrent);
+        c.maxQueue = Integer.getInteger("server.maxQueue", c.maxQueue);
+        c.retryAfterSeconds = Integer.getInteger("server.retryAfter", c.retryAfterSeconds);
+        c.walDir = System.getProperty("server.walDir", c.walDir);
+        c.walCompactBytes = Long.getLong("server.walCompactBytes", c.walCompactBytes);
+        c.saveThreads = Integer.getInteger("server.saveThreads", c.saveThreads);
+        return c;
+    }
+}
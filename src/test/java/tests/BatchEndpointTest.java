@@ -0,0 +1,115 @@
+package tests;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.HttpServerApp;
+import server.ServerConfig;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchEndpointTest {
+    private HttpServer server;
+    private String base;
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @BeforeEach
+    void start() throws Exception {
+        ServerConfig cfg = new ServerConfig();
+        cfg.port = 0;
+        server = HttpServerApp.start(cfg);
+        base = "http://127.0.0.1:" + server.getAddress().getPort() + "/lists/";
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(base + path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String items(String id) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(base + id + "/items")).build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private String version(String id) throws Exception {
+        String body = http.send(HttpRequest.newBuilder(URI.create(base + id + "/get?index=0")).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        return body.substring(body.indexOf("\"version\":"));
+    }
+
+    private void create(String id, String... values) throws Exception {
+        assertEquals(200, post(id, "{\"type\":\"Integer\"}").statusCode());
+        for (String v : values) assertEquals(200, post(id + "/add", "{\"value\":\"" + v + "\"}").statusCode());
+    }
+
+    // == Успешный пакет ==
+
+    @Test
+    void testMixedBatch() throws Exception {
+        create("b", "1", "2", "3");
+        HttpResponse<String> r = post("b/batch", "{\"ops\":["
+                + "{\"op\":\"add\",\"value\":\"4\"},"
+                + "{\"op\":\"insert\",\"index\":0,\"value\":\"0\"},"
+                + "{\"op\":\"remove\",\"index\":2},"
+                + "{\"op\":\"set\",\"index\":3,\"value\":\"7\"},"
+                + "{\"op\":\"insert\",\"index\":4,\"value\":\"5\"}]}");
+        assertEquals(200, r.statusCode(), r.body());
+        assertTrue(r.body().contains("\"applied\":5"), r.body());
+        assertTrue(r.body().contains("\"size\":5"), r.body());
+        assertTrue(r.body().contains("\"results\":[{\"ok\":true},{\"ok\":true},{\"ok\":true,\"removed\":\"2\"},"
+                + "{\"ok\":true,\"old\":\"4\"},{\"ok\":true}]"), r.body());
+        assertEquals("[\"0\",\"1\",\"3\",\"7\",\"5\"]", items("b"));
+
+        HttpResponse<String> quiet = post("b/batch", "{\"ops\":[{\"op\":\"remove\",\"index\":0}],\"quiet\":true}");
+        assertEquals(200, quiet.statusCode(), quiet.body());
+        assertFalse(quiet.body().contains("results"), quiet.body());
+        assertEquals("[\"1\",\"3\",\"7\",\"5\"]", items("b"));
+    }
+
+    // == Атомарность ==
+
+    @Test
+    void testFailedOpLeavesListUntouched() throws Exception {
+        create("s", "3", "1", "2");
+        assertEquals(200, post("s/sort", "{}").statusCode());
+        String before = version("s");
+
+        // Первые две операции нарушают порядок, третья выходит за границы
+        HttpResponse<String> r = post("s/batch", "{\"ops\":["
+                + "{\"op\":\"add\",\"value\":\"0\"},"
+                + "{\"op\":\"set\",\"index\":0,\"value\":\"9\"},"
+                + "{\"op\":\"remove\",\"index\":10},"
+                + "{\"op\":\"add\",\"value\":\"5\"}]}");
+        assertEquals(400, r.statusCode());
+        assertTrue(r.body().contains("\"failedOp\":2"), r.body());
+        assertTrue(r.body().contains("index=10, size=4"), r.body());
+
+        assertEquals("[\"1\",\"2\",\"3\"]", items("s"));
+        assertEquals(before, version("s"));
+        // Признак упорядоченности сохранён: вставка по порядку по-прежнему работает
+        HttpResponse<String> sorted = post("s/insertSorted", "{\"value\":\"2\"}");
+        assertEquals(200, sorted.statusCode(), sorted.body());
+        assertEquals("[\"1\",\"2\",\"2\",\"3\"]", items("s"));
+    }
+
+    @Test
+    void testIndexCheckedAgainstSizeAtThatOp() throws Exception {
+        create("c", "1");
+        // Вставка в конец после add допустима только с учётом выросшего размера
+        assertEquals(200, post("c/batch", "{\"ops\":[{\"op\":\"add\",\"value\":\"2\"},{\"op\":\"insert\",\"index\":2,\"value\":\"3\"}]}").statusCode());
+        HttpResponse<String> r = post("c/batch", "{\"ops\":[{\"op\":\"remove\",\"index\":2},{\"op\":\"set\",\"index\":2,\"value\":\"9\"}]}");
+        assertEquals(400, r.statusCode());
+        assertTrue(r.body().contains("\"failedOp\":1"), r.body());
+        assertEquals("[\"1\",\"2\",\"3\"]", items("c"));
+    }
+}
@@ -0,0 +1,140 @@
+package tests;
+
+import data.*;
+import list.SingleLinkedList;
+import list.UnrolledStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFormatTest {
+
+    private static String header(Path file) throws IOException {
+        byte[] b = Files.readAllBytes(file);
+        return new String(b, 0, Math.min(4, b.length), "ISO-8859-1");
+    }
+
+    private static SingleLinkedList roundTrip(SingleLinkedList list, Path file) throws IOException {
+        list.saveToBinaryFile(file.toString());
+        return SingleLinkedList.loadFromBinaryFile(file.toString(), new UserFactory());
+    }
+
+    // == Формат v2 ==
+
+    @Test
+    void testFixedWidthRoundTrip(@TempDir Path dir) throws IOException {
+        SingleLinkedList ints = new SingleLinkedList(new IntegerType());
+        for (int i = -500; i < 500; i++) ints.add(i * 7919);
+        Path f = dir.resolve("ints.bin");
+        SingleLinkedList back = roundTrip(ints, f);
+        assertEquals("SLLB", header(f));
+        // Заголовок и по 4 байта на значение
+        assertEquals(4 + 3 + "Integer".length() + 12 + 4000, Files.size(f));
+        assertEquals("int", back.storageKind());
+        assertEquals(ints.toArrayList(), back.toArrayList());
+
+        SingleLinkedList doubles = new SingleLinkedList(new DoubleType());
+        for (double d : new double[] { -0.0, 1.5, Double.NaN, Double.MAX_VALUE }) doubles.add(d);
+        assertEquals(doubles.toArrayList(), roundTrip(doubles, dir.resolve("d.bin")).toArrayList());
+
+        SingleLinkedList fractions = new SingleLinkedList(new FractionType());
+        fractions.add(new Fraction(1, 2, 3));
+        fractions.add(new Fraction(-4, 1, 5));
+        f = dir.resolve("f.bin");
+        assertEquals(fractions.toArrayList(), roundTrip(fractions, f).toArrayList());
+        assertEquals("SLLB", header(f));
+    }
+
+    // Строки и списки с null остаются в формате v1 и читаются как раньше
+    @Test
+    void testFallbackToV1(@TempDir Path dir) throws IOException {
+        SingleLinkedList strings = new SingleLinkedList(new StringType());
+        strings.add("a");
+        strings.add("б");
+        Path f = dir.resolve("s.bin");
+        assertEquals(strings.toArrayList(), roundTrip(strings, f).toArrayList());
+        assertNotEquals("SLLB", header(f));
+
+        SingleLinkedList withNull = new SingleLinkedList(new FractionType(), new UnrolledStorage());
+        withNull.add(new Fraction(0, 1, 2));
+        withNull.add(null);
+        f = dir.resolve("n.bin");
+        assertEquals(withNull.toArrayList(), roundTrip(withNull, f).toArrayList());
+        assertNotEquals("SLLB", header(f));
+    }
+
+    // Файл, записанный прежним кодом (writeUTF на элемент), загружается
+    @Test
+    void testLegacyFileLoads(@TempDir Path dir) throws IOException {
+        Path f = dir.resolve("old.bin");
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(f.toFile()))) {
+            dos.writeUTF("Integer");
+            dos.writeInt(2);
+            dos.writeBoolean(false);
+            dos.writeUTF("42");
+            dos.writeBoolean(false);
+            dos.writeUTF("-1");
+        }
+        SingleLinkedList list = SingleLinkedList.loadFromBinaryFile(f.toString(), new UserFactory());
+        assertEquals(List.of(42, -1), list.toArrayList());
+    }
+
+    // Старый файл с null в числовом списке: примитивный движок null не держит, список уходит в unrolled
+    @Test
+    void testLegacyFileWithNullsLoads(@TempDir Path dir) throws IOException {
+        Path f = dir.resolve("nulls.bin");
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(f.toFile()))) {
+            dos.writeUTF("Integer");
+            dos.writeInt(3);
+            dos.writeBoolean(false);
+            dos.writeUTF("42");
+            dos.writeBoolean(true);
+            dos.writeBoolean(false);
+            dos.writeUTF("-1");
+        }
+        SingleLinkedList list = SingleLinkedList.loadFromBinaryFile(f.toString(), new UserFactory());
+        assertEquals(Arrays.asList(42, null, -1), list.toArrayList());
+        assertEquals("unrolled", list.storageKind());
+        assertEquals(3, list.version());
+        // Копия для фонового сохранения тоже держит null
+        assertEquals(Arrays.asList(42, null, -1), list.copy().toArrayList());
+        // И снова сохраняется в v1
+        assertEquals(list.toArrayList(), roundTrip(list, dir.resolve("again.bin")).toArrayList());
+    }
+
+    @Test
+    void testTruncatedFileRejected(@TempDir Path dir) throws IOException {
+        SingleLinkedList ints = new SingleLinkedList(new IntegerType());
+        for (int i = 0; i < 100; i++) ints.add(i);
+        Path f = dir.resolve("t.bin");
+        ints.saveToBinaryFile(f.toString());
+        byte[] b = Files.readAllBytes(f);
+        Files.write(f, Arrays.copyOf(b, b.length - 3));
+        assertThrows(IOException.class, () -> SingleLinkedList.loadFromBinaryFile(f.toString(), new UserFactory()));
+    }
+
+    // == Скорость ==
+
+    @Test
+    void testLargeIntLoad(@TempDir Path dir) throws IOException {
+        int n = 10_000_000;
+        SingleLinkedList ints = new SingleLinkedList(new IntegerType());
+        for (int i = 0; i < n; i++) ints.add(i ^ 0x5A5A5A);
+        Path f = dir.resolve("big.bin");
+        long t0 = System.nanoTime();
+        ints.saveToBinaryFile(f.toString());
+        long t1 = System.nanoTime();
+        SingleLinkedList back = SingleLinkedList.loadFromBinaryFile(f.toString(), new UserFactory());
+        long t2 = System.nanoTime();
+        System.out.printf(Locale.US, "Binary v2, %d ints: save %.1f ms, load %.1f ms%n", n, (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+        assertEquals(n, back.size());
+        for (int i = 0; i < n; i += 99_991) assertEquals(i ^ 0x5A5A5A, back.get(i));
+        assertEquals((n - 1) ^ 0x5A5A5A, back.get(n - 1));
+    }
+}
@@ -0,0 +1,114 @@
+package tests;
+
+import data.*;
+import list.SingleLinkedList;
+import list.UnrolledStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedFormatTest {
+
+    private static SingleLinkedList randomList(UserType type, int n, long seed) {
+        Random rnd = new Random(seed);
+        SingleLinkedList list = new SingleLinkedList(type);
+        for (int i = 0; i < n; i++) {
+            // Значения из небольшого диапазона, как в реальных данных
+            if (type instanceof IntegerType) list.add(rnd.nextInt(100_000));
+            else if (type instanceof DoubleType) list.add(Math.round(rnd.nextGaussian() * 1000) / 100.0);
+            else if (type instanceof FractionType) list.add(new Fraction(rnd.nextInt(20) - 10, rnd.nextInt(7), 8));
+            else list.add("item-" + rnd.nextInt(10_000));
+        }
+        return list;
+    }
+
+    // == Сохранение и загрузка ==
+
+    // Все сочетания типа и формата; внутренний формат при загрузке определяется сам
+    @Test
+    void testRoundTrip(@TempDir Path dir) throws IOException {
+        UserType[] types = { new IntegerType(), new DoubleType(), new FractionType(), new StringType() };
+        for (UserType type : types) {
+            SingleLinkedList list = randomList(type, 20_000, 1);
+            for (boolean binary : new boolean[] { false, true }) {
+                Path f = dir.resolve(type.typeName() + (binary ? ".bin.gz" : ".json.gz"));
+                list.saveToCompressedFile(f.toString(), binary, 6);
+                assertTrue(SingleLinkedList.isCompressed(f.toString()));
+                SingleLinkedList back = SingleLinkedList.loadFromCompressedFile(f.toString(), new UserFactory(), false);
+                assertEquals(list.toArrayList(), back.toArrayList(), f.getFileName().toString());
+            }
+        }
+    }
+
+    // Двоичный v1 (с null) и параллельный разбор JSON внутри сжатого файла
+    @Test
+    void testV1AndParallel(@TempDir Path dir) throws IOException {
+        SingleLinkedList withNull = new SingleLinkedList(new FractionType(), new UnrolledStorage());
+        withNull.add(new Fraction(1, 1, 3));
+        withNull.add(null);
+        Path f = dir.resolve("n.bin.gz");
+        withNull.saveToCompressedFile(f.toString(), true, 1);
+        assertEquals(withNull.toArrayList(), SingleLinkedList.loadFromCompressedFile(f.toString(), new UserFactory(), false).toArrayList());
+
+        SingleLinkedList big = randomList(new FractionType(), 30_000, 2);
+        f = dir.resolve("p.json.gz");
+        big.saveToCompressedFile(f.toString(), false, -1);
+        assertEquals(big.toArrayList(), SingleLinkedList.loadFromCompressedFile(f.toString(), new UserFactory(), true).toArrayList());
+    }
+
+    @Test
+    void testPlainFileIsNotCompressed(@TempDir Path dir) throws IOException {
+        SingleLinkedList list = randomList(new IntegerType(), 10, 3);
+        Path f = dir.resolve("plain.json");
+        list.saveToFile(f.toString());
+        assertFalse(SingleLinkedList.isCompressed(f.toString()));
+        assertThrows(IllegalArgumentException.class, () -> list.saveToCompressedFile(dir.resolve("x").toString(), false, 10));
+    }
+
+    // == Замер ==
+
+    // Степень сжатия и пропускная способность по типам, форматам и уровням -> target/perf/compression_bench.csv
+    @Test
+    void runCompressionBenchmark(@TempDir Path dir) throws IOException {
+        File perfDir = new File("target/perf");
+        if (!perfDir.exists()) perfDir.mkdirs();
+        File csvFile = new File(perfDir, "compression_bench.csv");
+        int n = 200_000;
+        UserType[] types = { new IntegerType(), new DoubleType(), new FractionType(), new StringType() };
+
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(csvFile)))) {
+            pw.println("type,format,level,raw_bytes,compressed_bytes,ratio,save_mb_s,load_mb_s");
+            for (UserType type : types) {
+                SingleLinkedList list = randomList(type, n, 4);
+                for (boolean binary : new boolean[] { false, true }) {
+                    Path raw = dir.resolve("raw");
+                    if (binary) list.saveToBinaryFile(raw.toString());
+                    else list.saveToFile(raw.toString());
+                    long rawBytes = Files.size(raw);
+                    for (int level : new int[] { 1, 6, 9 }) {
+                        Path f = dir.resolve("c.gz");
+                        list.saveToCompressedFile(f.toString(), binary, level); // прогрев
+                        long t0 = System.nanoTime();
+                        list.saveToCompressedFile(f.toString(), binary, level);
+                        long t1 = System.nanoTime();
+                        SingleLinkedList back = SingleLinkedList.loadFromCompressedFile(f.toString(), new UserFactory(), false);
+                        long t2 = System.nanoTime();
+                        assertEquals(n, back.size());
+                        long packed = Files.size(f);
+                        double mb = rawBytes / (1024.0 * 1024.0);
+                        pw.printf(Locale.US, "%s,%s,%d,%d,%d,%.3f,%.1f,%.1f%n", type.typeName(), binary ? "bin" : "json", level,
+                                rawBytes, packed, (double) rawBytes / packed, mb / ((t1 - t0) / 1e9), mb / ((t2 - t1) / 1e9));
+                    }
+                }
+                pw.flush();
+            }
+        }
+        System.out.println("Результаты сохранены в: " + csvFile.getAbsolutePath());
+    }
+}
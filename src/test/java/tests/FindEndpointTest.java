@@ -0,0 +1,95 @@
+package tests;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.HttpServerApp;
+import server.ServerConfig;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FindEndpointTest {
+    private HttpServer server;
+    private String base;
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @BeforeEach
+    void start() throws Exception {
+        ServerConfig cfg = new ServerConfig();
+        cfg.port = 0;
+        server = HttpServerApp.start(cfg);
+        base = "http://127.0.0.1:" + server.getAddress().getPort() + "/lists/";
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(base + path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void create(String id, String type, String... values) throws Exception {
+        assertEquals(200, post(id, "{\"type\":\"" + type + "\"}").statusCode());
+        for (String v : values) assertEquals(200, post(id + "/add", "{\"value\":\"" + v + "\"}").statusCode());
+    }
+
+    private String find(String id, String body) throws Exception {
+        HttpResponse<String> r = post(id + "/find", body);
+        assertEquals(200, r.statusCode(), r.body());
+        return r.body();
+    }
+
+    // == Поиск по значению ==
+
+    @Test
+    void testFindsTypedValue() throws Exception {
+        create("f", "Fraction", "1/2", "0", "3/4");
+        assertTrue(find("f", "{\"value\":\"2/4\"}").startsWith("{\"index\":0,"));
+        assertTrue(find("f", "{\"value\":\"0\"}").startsWith("{\"index\":1,"));
+        create("d", "Double", "2.5", "0.0");
+        assertTrue(find("d", "{\"value\":\"0\"}").startsWith("{\"index\":1,"));
+        create("s", "String", "a", "", "b");
+        assertTrue(find("s", "{\"value\":\"\"}").startsWith("{\"index\":1,"));
+    }
+
+    // == Неразбираемое значение не совпадает с нулём ==
+
+    @Test
+    void testEmptyValueDoesNotMatchZero() throws Exception {
+        create("i", "Integer", "5", "0");
+        assertTrue(find("i", "{\"value\":\"\"}").startsWith("{\"index\":-1,"));
+        assertTrue(find("i", "{\"value\":\"  \"}").startsWith("{\"index\":-1,"));
+    }
+
+    @Test
+    void testGarbageDoesNotMatchZeroFraction() throws Exception {
+        create("f", "Fraction", "1/2", "0");
+        assertTrue(find("f", "{\"value\":\"abc\"}").startsWith("{\"index\":-1,"));
+        assertTrue(find("f", "{\"value\":\"\"}").startsWith("{\"index\":-1,"));
+        assertTrue(find("f", "{\"value\":\"5/\"}").startsWith("{\"index\":-1,"));
+        // То же через индекс и в отсортированном списке
+        assertEquals(200, post("f/index", "{\"enabled\":true}").statusCode());
+        assertTrue(find("f", "{\"value\":\"abc\"}").startsWith("{\"index\":-1,"));
+        assertEquals(200, post("f/index", "{\"enabled\":false}").statusCode());
+        assertEquals(200, post("f/sort", "{}").statusCode());
+        assertTrue(find("f", "{\"value\":\"abc\"}").startsWith("{\"index\":-1,"));
+        assertTrue(find("f", "{\"value\":\"0\"}").startsWith("{\"index\":0,"));
+    }
+
+    @Test
+    void testMissingValueIsBadRequest() throws Exception {
+        create("m", "Integer", "0");
+        HttpResponse<String> r = post("m/find", "{}");
+        assertEquals(400, r.statusCode());
+        assertTrue(r.body().contains("value required"), r.body());
+    }
+}
@@ -0,0 +1,110 @@
+package tests;
+
+import com.sun.net.httpserver.HttpServer;
+import data.IntegerType;
+import list.SingleLinkedList;
+import org.junit.jupiter.api.Test;
+import server.HttpServerApp;
+import server.ListHolder;
+import server.ServerConfig;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemsCacheTest {
+
+    private static HttpResponse<String> send(HttpClient http, HttpRequest.Builder b) throws Exception {
+        return http.send(b.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest.Builder post(String uri, String body) {
+        return HttpRequest.newBuilder(URI.create(uri)).POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    // == Тег содержимого ==
+
+    @Test
+    void testTagChangesWithVersionAndReplacement() {
+        ListHolder h = new ListHolder("t");
+        assertNull(h.tag());
+        h.replace(new SingleLinkedList(new IntegerType()));
+        String t0 = h.tag();
+        assertEquals(t0, h.tag());
+        // Метка процесса, поколение и версия: после перезапуска поколения повторяются, метка — нет
+        assertTrue(t0.matches("\"[0-9a-z]+-\\d+-0\""), t0);
+        long stamp = h.writeLock();
+        try { h.list().add(1); } finally { h.unlockWrite(stamp); }
+        String t1 = h.tag();
+        assertNotEquals(t0, t1);
+        // Новый список с той же версией всё равно даёт другой тег
+        h.replace(new SingleLinkedList(new IntegerType()));
+        assertNotEquals(t0, h.tag());
+        try (ListHolder.ReadView view = h.read()) {
+            assertEquals(h.tag(), view.tag);
+        }
+    }
+
+    // == ETag и 304 ==
+
+    @Test
+    void testConditionalItems() throws Exception {
+        ServerConfig cfg = new ServerConfig();
+        cfg.port = 0;
+        HttpServer server = HttpServerApp.start(cfg);
+        try {
+            String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/lists/etag";
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            send(http, post(base, "{\"type\":\"Integer\"}"));
+            StringBuilder ops = new StringBuilder("{\"ops\":[");
+            for (int i = 0; i < 50_000; i++) ops.append(i > 0 ? "," : "").append("{\"op\":\"add\",\"value\":").append(i).append("}");
+            send(http, post(base + "/batch", ops.append("],\"quiet\":true}").toString()));
+
+            HttpResponse<String> first = send(http, HttpRequest.newBuilder(URI.create(base + "/items")));
+            assertEquals(200, first.statusCode());
+            String tag = first.headers().firstValue("ETag").orElseThrow();
+            assertEquals("50000", first.headers().firstValue("X-Total-Count").orElse(null));
+            // Повтор без условия — тот же ответ из кэша
+            HttpResponse<String> again = send(http, HttpRequest.newBuilder(URI.create(base + "/items")));
+            assertEquals(first.body(), again.body());
+            assertEquals(tag, again.headers().firstValue("ETag").orElse(null));
+
+            HttpResponse<String> same = send(http, HttpRequest.newBuilder(URI.create(base + "/items")).header("If-None-Match", tag));
+            assertEquals(304, same.statusCode());
+            assertEquals("", same.body());
+            assertEquals(304, send(http, HttpRequest.newBuilder(URI.create(base + "/items"))
+                    .header("If-None-Match", "\"0-0\", W/" + tag)).statusCode());
+
+            // Страница: свой ответ, тот же тег
+            HttpResponse<String> page = send(http, HttpRequest.newBuilder(URI.create(base + "/items?offset=2&limit=3")));
+            assertTrue(page.body().contains("\"items\":[\"2\",\"3\",\"4\"]"), page.body());
+            assertEquals(tag, page.headers().firstValue("ETag").orElse(null));
+
+            // Опрос без изменений почти ничего не стоит
+            int polls = 2000;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < polls; i++) {
+                assertEquals(304, send(http, HttpRequest.newBuilder(URI.create(base + "/items")).header("If-None-Match", tag)).statusCode());
+            }
+            System.out.printf(Locale.US, "Conditional /items on 50000 items: %.3f ms per poll%n", (System.nanoTime() - t0) / 1e6 / polls);
+
+            send(http, post(base + "/add", "{\"value\":\"7\"}"));
+            HttpResponse<String> changed = send(http, HttpRequest.newBuilder(URI.create(base + "/items")).header("If-None-Match", tag));
+            assertEquals(200, changed.statusCode());
+            assertNotEquals(tag, changed.headers().firstValue("ETag").orElse(null));
+            assertTrue(changed.body().endsWith(",\"7\"]"));
+
+            // Пересозданный список — другой тег, даже если версия совпала
+            String emptyTag = send(http, HttpRequest.newBuilder(URI.create(base + "/items"))).headers().firstValue("ETag").orElseThrow();
+            send(http, HttpRequest.newBuilder(URI.create(base)).DELETE());
+            send(http, post(base, "{\"type\":\"Integer\"}"));
+            assertEquals(200, send(http, HttpRequest.newBuilder(URI.create(base + "/items")).header("If-None-Match", emptyTag)).statusCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package tests;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import server.HttpServerApp;
+import server.ServerConfig;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemsPagingTest {
+    // Больше, чем кэшируется целиком: весь список отдаётся потоком
+    private static final int N = 250_000;
+    private static HttpServer server;
+    private static String base;
+    private static final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @BeforeAll
+    static void start() throws Exception {
+        ServerConfig cfg = new ServerConfig();
+        cfg.port = 0;
+        server = HttpServerApp.start(cfg);
+        base = "http://127.0.0.1:" + server.getAddress().getPort() + "/lists/paging";
+        http.send(HttpRequest.newBuilder(URI.create(base)).POST(HttpRequest.BodyPublishers.ofString("{\"type\":\"Integer\"}")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        StringBuilder ops = new StringBuilder("{\"ops\":[");
+        for (int i = 0; i < N; i++) ops.append(i > 0 ? "," : "").append("{\"op\":\"add\",\"value\":").append(i).append("}");
+        HttpResponse<String> r = http.send(HttpRequest.newBuilder(URI.create(base + "/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(ops.append("],\"quiet\":true}").toString())).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, r.statusCode(), r.body());
+    }
+
+    @AfterAll
+    static void stop() {
+        server.stop(0);
+    }
+
+    private static HttpResponse<String> items(String query) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(base + "/items" + query)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int count(String body) {
+        int from = body.indexOf("\"items\":[") + "\"items\":[".length();
+        if (body.charAt(from) == ']') return 0;
+        int n = 1;
+        for (int i = from; i < body.length(); i++) if (body.charAt(i) == ',') n++;
+        return n;
+    }
+
+    // == Страницы ==
+
+    @Test
+    void testPage() throws Exception {
+        HttpResponse<String> r = items("?offset=10&limit=3");
+        assertEquals(200, r.statusCode());
+        assertTrue(r.body().contains("\"total\":" + N + ",\"offset\":10,\"items\":[\"10\",\"11\",\"12\"]"), r.body());
+        assertTrue(items("?offset=" + (N - 2)).body().endsWith("\"items\":[\"" + (N - 2) + "\",\"" + (N - 1) + "\"]}"));
+        assertEquals(1000, count(items("?offset=0").body()));
+    }
+
+    @Test
+    void testClamping() throws Exception {
+        // Смещение за концом — пустая страница с offset = total
+        String past = items("?offset=" + (N + 100) + "&limit=5").body();
+        assertTrue(past.contains("\"offset\":" + N + ",\"items\":[]"), past);
+        // limit больше предела урезается до 100000
+        assertEquals(100_000, count(items("?limit=1000000").body()));
+        assertEquals(0, count(items("?limit=0").body()));
+    }
+
+    @Test
+    void testBadParameters() throws Exception {
+        for (String q : new String[] { "?offset=-1", "?limit=-5", "?offset=abc", "?limit=1.5" }) {
+            HttpResponse<String> r = items(q);
+            assertEquals(400, r.statusCode(), q);
+            assertTrue(r.body().contains("\"error\""), q + ": " + r.body());
+        }
+    }
+
+    // == Весь список ==
+
+    @Test
+    void testStreamedWholeList() throws Exception {
+        HttpResponse<String> r = items("");
+        assertEquals(200, r.statusCode());
+        assertEquals(Integer.toString(N), r.headers().firstValue("X-Total-Count").orElse(null));
+        // Потоком: без Content-Length
+        assertTrue(r.headers().firstValue("Content-Length").isEmpty(), r.headers().toString());
+        String body = r.body();
+        assertTrue(body.startsWith("[\"0\",\"1\","));
+        assertTrue(body.endsWith(",\"" + (N - 1) + "\"]"));
+        assertEquals(N - 1, body.chars().filter(c -> c == ',').count());
+    }
+}
@@ -0,0 +1,112 @@
+package tests;
+
+import com.sun.net.httpserver.HttpServer;
+import data.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import list.SingleLinkedList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import server.HttpServerApp;
+import server.ServerConfig;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrEventsTest {
+
+    private static List<RecordedEvent> record(Path dir, ThrowingRunnable work) throws Exception {
+        Path out = dir.resolve("rec.jfr");
+        try (Recording r = new Recording()) {
+            for (String name : new String[] { "sll.Sort", "sll.File", "sll.Request" }) {
+                r.enable(name).withThreshold(Duration.ZERO);
+            }
+            r.start();
+            work.run();
+            r.stop();
+            r.dump(out);
+        }
+        return RecordingFile.readAllEvents(out).stream()
+                .filter(e -> e.getEventType().getName().startsWith("sll."))
+                .collect(Collectors.toList());
+    }
+
+    private interface ThrowingRunnable { void run() throws Exception; }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    // == События списка ==
+
+    @Test
+    void testSortAndFileEvents(@TempDir Path dir) throws Exception {
+        Path f = dir.resolve("l.bin");
+        List<RecordedEvent> events = record(dir, () -> {
+            SingleLinkedList list = new SingleLinkedList(new FractionType());
+            Random rnd = new Random(1);
+            for (int i = 0; i < 10_000; i++) list.add(new Fraction(rnd.nextInt(10), rnd.nextInt(5), 6));
+            list.sort(list.prototype.getTypeComparator(), SingleLinkedList.SORT_QUICK);
+            list.saveToBinaryFile(f.toString());
+            SingleLinkedList.loadFromBinaryFile(f.toString(), new UserFactory());
+        });
+
+        List<RecordedEvent> sorts = named(events, "sll.Sort");
+        assertEquals(1, sorts.size());
+        RecordedEvent sort = sorts.get(0);
+        assertEquals("quick", sort.getString("algorithm"));
+        assertEquals(10_000, sort.getInt("size"));
+        assertTrue(sort.getLong("comparisons") > 10_000);
+        assertEquals("Fraction", sort.getString("type"));
+
+        List<RecordedEvent> files = named(events, "sll.File");
+        assertEquals(List.of("save", "load"), files.stream().map(e -> e.getString("operation")).collect(Collectors.toList()));
+        for (RecordedEvent e : files) {
+            assertEquals("bin", e.getString("format"));
+            assertEquals(Files.size(f), e.getLong("bytes"));
+            assertEquals(10_000, e.getInt("items"));
+        }
+    }
+
+    // == События запросов ==
+
+    @Test
+    void testRequestEvents(@TempDir Path dir) throws Exception {
+        ServerConfig cfg = new ServerConfig();
+        cfg.port = 0;
+        HttpServer server = HttpServerApp.start(cfg);
+        try {
+            String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/lists/jfr";
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            List<RecordedEvent> events = record(dir, () -> {
+                http.send(HttpRequest.newBuilder(URI.create(base)).POST(HttpRequest.BodyPublishers.ofString("{\"type\":\"Integer\"}")).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                http.send(HttpRequest.newBuilder(URI.create(base + "/add")).POST(HttpRequest.BodyPublishers.ofString("{\"value\":\"3\"}")).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                http.send(HttpRequest.newBuilder(URI.create(base + "/get?index=5")).build(), HttpResponse.BodyHandlers.ofString());
+            });
+            List<RecordedEvent> requests = named(events, "sll.Request");
+            assertEquals(3, requests.size(), requests.toString());
+            RecordedEvent add = requests.stream().filter(e -> e.getString("route").equals("/lists/{id}/add")).findFirst().orElseThrow();
+            assertEquals("POST", add.getString("method"));
+            assertEquals(200, add.getInt("status"));
+            assertEquals("{\"value\":\"3\"}".length(), add.getLong("bytesIn"));
+            assertTrue(add.getLong("bytesOut") > 0);
+            assertFalse(add.getDuration("lockWait").isNegative());
+            RecordedEvent get = requests.stream().filter(e -> e.getString("route").equals("/lists/{id}/get")).findFirst().orElseThrow();
+            assertEquals(400, get.getInt("status"));
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package tests;
+
+import data.*;
+import list.SingleLinkedList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFileLoadTest {
+
+    private static SingleLinkedList load(Path f) throws IOException {
+        return SingleLinkedList.loadFromFile(f.toString(), new UserFactory());
+    }
+
+    // == Совместимость с saveToFile ==
+
+    @Test
+    void testRoundTripWithEscapes(@TempDir Path dir) throws IOException {
+        SingleLinkedList list = new SingleLinkedList(new StringType());
+        for (String s : new String[] { "plain", "with \"quotes\"", "back\\slash", "line\nbreak", "юникод", "", "a,b]" }) list.add(s);
+        Path f = dir.resolve("s.json");
+        list.saveToFile(f.toString());
+        assertEquals(list.toArrayList(), load(f).toArrayList());
+
+        SingleLinkedList fractions = new SingleLinkedList(new FractionType());
+        fractions.add(new Fraction(1, 2, 3));
+        fractions.add(new Fraction(0, -1, 4));
+        f = dir.resolve("f.json");
+        fractions.saveToFile(f.toString());
+        assertEquals(fractions.toArrayList(), load(f).toArrayList());
+    }
+
+    // Файлы, написанные вручную: числа без кавычек, items раньше type, лишние поля
+    @Test
+    void testHandWrittenFiles(@TempDir Path dir) throws IOException {
+        Path f = dir.resolve("h.json");
+        Files.write(f, "{\"items\": [3, \"-7\", 12], \"comment\": {\"x\": [1]}, \"TYPE\": \"Integer\"}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(List.of(3, -7, 12), load(f).toArrayList());
+        Files.write(f, "{\"type\":\"Integer\",\"items\":[]}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, load(f).size());
+    }
+
+    // null в числовом списке (примитивный движок его не держит) — последовательно и параллельно
+    @Test
+    void testNullItemsInNumericList(@TempDir Path dir) throws IOException {
+        Path f = dir.resolve("n.json");
+        StringBuilder sb = new StringBuilder("{\"type\":\"Double\",\"items\":[");
+        for (int i = 0; i < 10_000; i++) sb.append(i == 7_000 ? "null" : String.valueOf(i)).append(i < 9_999 ? "," : "]}");
+        Files.write(f, sb.toString().getBytes(StandardCharsets.UTF_8));
+        for (boolean parallel : new boolean[] { false, true }) {
+            SingleLinkedList list = SingleLinkedList.loadFromFile(f.toString(), new UserFactory(), parallel);
+            assertEquals(10_000, list.size());
+            assertNull(list.get(7_000));
+            assertEquals(6_999.0, list.get(6_999));
+            assertEquals(9_999.0, list.get(9_999));
+            assertEquals("unrolled", list.storageKind());
+        }
+    }
+
+    @Test
+    void testBrokenFilesRejected(@TempDir Path dir) throws IOException {
+        Path f = dir.resolve("b.json");
+        for (String bad : new String[] { "{\"type\":\"Integer\",\"items\":[1,2", "{\"items\":[1]}",
+                "{\"type\":\"Integer\"}", "{\"type\":\"Nope\",\"items\":[]}", "{\"type\":\"Integer\",\"items\":[\"x\"]}" }) {
+            Files.write(f, bad.getBytes(StandardCharsets.UTF_8));
+            assertThrows(IOException.class, () -> load(f), bad);
+        }
+    }
+
+    // == Параллельная загрузка ==
+
+    // Порции разбираются параллельно, но порядок элементов сохраняется
+    @Test
+    void testParallelLoadKeepsOrder(@TempDir Path dir) throws IOException {
+        int n = 200_000;
+        SingleLinkedList list = new SingleLinkedList(new FractionType());
+        Random rnd = new Random(3);
+        for (int i = 0; i < n; i++) list.add(new Fraction(rnd.nextInt(100) - 50, rnd.nextInt(9) + 1, 10));
+        Path f = dir.resolve("fr.json");
+        list.saveToFile(f.toString());
+        long t0 = System.nanoTime();
+        SingleLinkedList seq = SingleLinkedList.loadFromFile(f.toString(), new UserFactory(), false);
+        long t1 = System.nanoTime();
+        SingleLinkedList par = SingleLinkedList.loadFromFile(f.toString(), new UserFactory(), true);
+        long t2 = System.nanoTime();
+        System.out.printf(Locale.US, "JSON load, %d fractions: sequential %.1f ms, parallel %.1f ms%n", n, (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+        assertEquals(list.toArrayList(), seq.toArrayList());
+        assertEquals(list.toArrayList(), par.toArrayList());
+    }
+
+    // Ошибка в одной из порций прерывает загрузку
+    @Test
+    void testParallelLoadReportsBadItem(@TempDir Path dir) throws IOException {
+        StringBuilder sb = new StringBuilder("{\"type\":\"Integer\",\"items\":[");
+        for (int i = 0; i < 50_000; i++) sb.append(i == 30_000 ? "\"x\"" : String.valueOf(i)).append(',');
+        sb.append("0]}");
+        Path f = dir.resolve("bad.json");
+        Files.write(f, sb.toString().getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> SingleLinkedList.loadFromFile(f.toString(), new UserFactory(), true));
+    }
+
+    // == Большой файл ==
+
+    // Время загрузки линейно по размеру файла
+    @Test
+    void testLargeFileLoad(@TempDir Path dir) throws IOException {
+        int n = 1_000_000;
+        SingleLinkedList list = new SingleLinkedList(new IntegerType());
+        for (int i = 0; i < n; i++) list.add(i * 31);
+        Path f = dir.resolve("big.json");
+        list.saveToFile(f.toString());
+        long t0 = System.nanoTime();
+        SingleLinkedList back = load(f);
+        System.out.printf(Locale.US, "JSON load, %d ints (%d KB): %.1f ms%n", n, Files.size(f) / 1024, (System.nanoTime() - t0) / 1e6);
+        assertEquals(n, back.size());
+        assertEquals((n - 1) * 31, back.get(n - 1));
+    }
+}
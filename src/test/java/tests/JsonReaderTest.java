@@ -0,0 +1,100 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import data.JsonReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonReaderTest {
+
+    private static InputStream in(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Поток, отдающий по одному байту: проверяет разбор на границах буфера
+    private static InputStream trickle(String s) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        return new InputStream() {
+            int i;
+            @Override public int read() { return i < b.length ? b[i++] & 0xFF : -1; }
+            @Override public int read(byte[] buf, int off, int len) {
+                if (i >= b.length) return -1;
+                buf[off] = b[i++];
+                return 1;
+            }
+        };
+    }
+
+    // == Значения ==
+
+    @Test
+    void testFieldsAndTypes() throws IOException {
+        Map<String, Object> m = JsonReader.readObject(in(
+                "{\"type\":\"Integer\", \"value\": -12.5e3, \"index\":true, \"none\":null, \"arr\":[1,\"a\",{\"x\":false}]}"));
+        assertEquals("Integer", m.get("type"));
+        assertEquals("-12.5e3", m.get("value"));
+        assertEquals(Boolean.TRUE, m.get("index"));
+        assertTrue(m.containsKey("none"));
+        assertNull(m.get("none"));
+        assertEquals(List.of("1", "a", Map.of("x", false)), m.get("arr"));
+    }
+
+    // Кавычки и экранирование внутри строк, на которых ломались регулярные выражения
+    @Test
+    void testEscapesAndUnicode() throws IOException {
+        String body = "{\"value\":\"say \\\"hi\\\", \\\\ \\u00e9\\n\", \"name\":\"Привет 😀\"}";
+        for (InputStream s : new InputStream[] { in(body), trickle(body) }) {
+            Map<String, Object> m = JsonReader.readObject(s);
+            assertEquals("say \"hi\", \\ \u00e9\n", m.get("value"));
+            assertEquals("Привет 😀", m.get("name"));
+        }
+    }
+
+    @Test
+    void testEmptyBodyIsEmptyObject() throws IOException {
+        assertTrue(JsonReader.readObject(in("")).isEmpty());
+        assertTrue(JsonReader.readObject(in("  \n")).isEmpty());
+    }
+
+    // == Потоковый обход ==
+
+    @Test
+    void testPullArray() {
+        JsonReader r = new JsonReader(trickle("{\"ops\":[{\"op\":\"add\"}, {\"op\":\"remove\"}], \"quiet\":true}"));
+        r.beginObject();
+        List<Object> ops = new ArrayList<>();
+        Object quiet = null;
+        while (r.hasNext()) {
+            String name = r.nextName();
+            if (name.equals("ops")) {
+                r.beginArray();
+                while (r.hasNext()) ops.add(r.readValue());
+                r.endArray();
+            } else {
+                quiet = r.readValue();
+            }
+        }
+        r.endObject();
+        r.expectEnd();
+        assertEquals(List.of(Map.of("op", "add"), Map.of("op", "remove")), ops);
+        assertEquals(Boolean.TRUE, quiet);
+    }
+
+    // == Ошибки ==
+
+    @Test
+    void testMalformedInput() {
+        for (String bad : new String[] { "{\"a\":", "{\"a\" 1}", "{\"a\":1,}", "{\"a\":1} x", "[1]",
+                "{\"a\":tru}", "{\"a\":\"x}", "{\"a\":\"\\q\"}", "{a:1}", "{\"a\":1 \"b\":2}" }) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> JsonReader.readObject(in(bad)), bad);
+            assertTrue(e.getMessage().startsWith("Invalid JSON at byte"), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package tests;
+
+import data.IntegerType;
+import list.SingleLinkedList;
+import list.StorageFactory;
+import org.junit.jupiter.api.Test;
+import server.ListHolder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ListHolderContentionTest {
+
+    private static final int N = 20_000;
+    private static final long PHASE_MS = 300;
+
+    // Список из N неотрицательных чисел с заданным движком
+    private static ListHolder holder(String kind) {
+        IntegerType proto = new IntegerType();
+        SingleLinkedList list = new SingleLinkedList(proto, new StorageFactory().create(kind, proto));
+        for (int i = 0; i < N; i++) list.add(i);
+        ListHolder h = new ListHolder();
+        h.replace(list);
+        return h;
+    }
+
+    // Писатель: вставка в середину и удаление с конца (узлы делятся и сливаются), размер не меняется
+    private static Thread writer(ListHolder h, AtomicBoolean stop) {
+        Thread t = new Thread(() -> {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            while (!stop.get()) {
+                long stamp = h.writeLock();
+                try {
+                    SingleLinkedList list = h.list();
+                    list.insert(rnd.nextInt(N), rnd.nextInt(Integer.MAX_VALUE));
+                    list.remove(list.size() - 1);
+                } finally {
+                    h.unlockWrite(stamp);
+                }
+                Thread.onSpinWait();
+            }
+        });
+        t.start();
+        return t;
+    }
+
+    // Чтений в секунду у readers потоков за PHASE_MS при активном писателе; проверяет каждое значение
+    private static double readThroughput(ListHolder h, int readers) throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong reads = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread w = writer(h, stop);
+        ExecutorService pool = Executors.newFixedThreadPool(readers);
+        for (int r = 0; r < readers; r++) {
+            pool.execute(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long local = 0;
+                try {
+                    while (!stop.get()) {
+                        assertEquals(N, h.size());
+                        String s = h.entryAt(rnd.nextInt(N)).value;
+                        assertTrue(Integer.parseInt(s) >= 0, "Мусорное значение: " + s);
+                        local++;
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+                reads.addAndGet(local);
+            });
+        }
+        Thread.sleep(PHASE_MS);
+        stop.set(true);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        w.join();
+        if (failure.get() != null) fail("Ошибка читателя", failure.get());
+        return reads.get() * 1000.0 / PHASE_MS;
+    }
+
+    // == Корректность чтений под нагрузкой писателя ==
+
+    @Test
+    void optimisticReadsSeeConsistentValuesUnrolled() throws Exception {
+        assertTrue(readThroughput(holder("unrolled"), 4) > 0);
+    }
+
+    @Test
+    void optimisticReadsSeeConsistentValuesSkipList() throws Exception {
+        assertTrue(readThroughput(holder("skiplist"), 4) > 0);
+    }
+
+    @Test
+    void offHeapReadsFallBackToReadLock() throws Exception {
+        // offheap не допускает оптимистичного чтения: всё идёт под блокировкой чтения
+        assertTrue(readThroughput(holder("offheap"), 4) > 0);
+    }
+
+    @Test
+    void optimisticReadsSeeConsistentValuesPersistent() throws Exception {
+        assertTrue(readThroughput(holder("persistent"), 4) > 0);
+    }
+
+    // Писатель вставляет и удаляет в случайных местах, ведя рядом ArrayList с тем же содержимым,
+    // и после каждого изменения сверяет с ним get под блокировкой, пока читатели без блокировки
+    // читают те же позиции. Чтение без блокировки не должно портить позиционный доступ писателя
+    private static void positionsStayCorrect(String kind) throws Exception {
+        ListHolder h = holder(kind);
+        java.util.ArrayList<Integer> model = new java.util.ArrayList<>();
+        for (int i = 0; i < N; i++) model.add(i);
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        for (int r = 0; r < 2; r++) {
+            pool.execute(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                try {
+                    while (!stop.get()) h.entryAt(rnd.nextInt(N - 1));
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+        }
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long deadline = System.nanoTime() + PHASE_MS * 1_000_000;
+        try {
+            while (System.nanoTime() < deadline && failure.get() == null) {
+                long stamp = h.writeLock();
+                try {
+                    SingleLinkedList list = h.list();
+                    int at = rnd.nextInt(N), v = rnd.nextInt(Integer.MAX_VALUE);
+                    list.insert(at, v);
+                    model.add(at, v);
+                    int from = rnd.nextInt(N);
+                    model.remove(from);
+                    list.remove(from);
+                    for (int k = 0; k < 4; k++) {
+                        int i = rnd.nextInt(N);
+                        assertEquals(model.get(i), list.get(i), "позиция " + i);
+                    }
+                } finally {
+                    h.unlockWrite(stamp);
+                }
+            }
+        } finally {
+            stop.set(true);
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        if (failure.get() != null) fail("Ошибка читателя", failure.get());
+    }
+
+    @Test
+    void optimisticReadsKeepPositionsUnrolled() throws Exception {
+        positionsStayCorrect("unrolled");
+    }
+
+    @Test
+    void optimisticReadsKeepPositionsInt() throws Exception {
+        positionsStayCorrect("int");
+    }
+
+    // == Снимки (MVCC) ==
+
+    // Добавляет элемент в отдельном потоке; true, если писатель успел за timeoutMs
+    private static boolean writerFinishes(ListHolder h, long timeoutMs) throws Exception {
+        Thread t = new Thread(() -> {
+            long stamp = h.writeLock();
+            try {
+                h.list().add(-1);
+            } finally {
+                h.unlockWrite(stamp);
+            }
+        });
+        t.start();
+        t.join(timeoutMs);
+        return !t.isAlive();
+    }
+
+    @Test
+    void snapshotReadDoesNotBlockWriter() throws Exception {
+        ListHolder h = holder("persistent");
+        try (ListHolder.ReadView view = h.read()) {
+            assertTrue(view.isSnapshot());
+            long version = view.list.version();
+            assertTrue(writerFinishes(h, 2000), "Писатель ждёт читателя снимка");
+            // Снимок не видит изменения, сделанного после него
+            assertEquals(N, view.list.size());
+            assertEquals(version, view.list.version());
+        }
+        assertEquals(N + 1, h.size());
+        assertEquals("-1", h.entryAt(N).value);
+    }
+
+    @Test
+    void nonPersistentReadHoldsReadLock() throws Exception {
+        ListHolder h = holder("unrolled");
+        ListHolder.ReadView view = h.read();
+        assertFalse(view.isSnapshot());
+        Thread t = new Thread(() -> {
+            long stamp = h.writeLock();
+            h.unlockWrite(stamp);
+        });
+        t.start();
+        t.join(200);
+        assertTrue(t.isAlive(), "Писатель не должен пройти, пока открыт вид под блокировкой чтения");
+        view.close();
+        t.join(2000);
+        assertFalse(t.isAlive());
+    }
+
+    @Test
+    void notInitializedHolder() {
+        ListHolder h = new ListHolder();
+        assertEquals(-1, h.size());
+        assertNull(h.entryAt(0));
+    }
+
+    @Test
+    void indexErrorIsReported() {
+        ListHolder h = holder("unrolled");
+        assertThrows(IndexOutOfBoundsException.class, () -> h.entryAt(N));
+    }
+
+    // == Масштабирование читателей ==
+
+    @Test
+    void readerThroughputScalesWithCores() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int readers = Math.min(cores, 8);
+        ListHolder h = holder("unrolled");
+        readThroughput(h, 1); // прогрев
+        double single = readThroughput(h, 1);
+        double multi = readThroughput(h, readers);
+        System.out.printf("Readers: 1 -> %.0f reads/s, %d -> %.0f reads/s (x%.2f), cores=%d%n",
+                single, readers, multi, multi / single, cores);
+        // На одном ядре масштабироваться нечему
+        assumeTrue(cores >= 2, "single core");
+        assertTrue(multi > single * 1.2, "Чтения не масштабируются: " + single + " -> " + multi);
+    }
+}
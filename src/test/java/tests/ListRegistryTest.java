@@ -0,0 +1,92 @@
+package tests;
+
+import data.IntegerType;
+import list.SingleLinkedList;
+import org.junit.jupiter.api.Test;
+import server.ListHolder;
+import server.ListRegistry;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListRegistryTest {
+
+    // == Создание и предел ==
+
+    @Test
+    void testDefaultListExists() {
+        ListRegistry r = new ListRegistry(4);
+        assertNotNull(r.defaultList());
+        assertSame(r.defaultList(), r.get(ListRegistry.DEFAULT_ID));
+        assertEquals(List.of("default"), r.ids());
+    }
+
+    @Test
+    void testGetOrCreateReturnsSameHolder() {
+        ListRegistry r = new ListRegistry(4);
+        ListHolder a = r.getOrCreate("a");
+        assertSame(a, r.getOrCreate("a"));
+        assertSame(a, r.get("a"));
+        assertNull(r.get("b"));
+    }
+
+    // Предел учитывает список по умолчанию; после удаления место освобождается
+    @Test
+    void testLimitAndDrop() {
+        ListRegistry r = new ListRegistry(3);
+        assertNotNull(r.getOrCreate("a"));
+        assertNotNull(r.getOrCreate("b"));
+        assertNull(r.getOrCreate("c"));
+        assertTrue(r.drop("a"));
+        assertFalse(r.drop("a"));
+        assertNotNull(r.getOrCreate("c"));
+        assertEquals(List.of("b", "c", "default"), r.ids());
+    }
+
+    @Test
+    void testInvalidIdsAndDefaultDrop() {
+        ListRegistry r = new ListRegistry(3);
+        assertThrows(IllegalArgumentException.class, () -> r.getOrCreate("a/b"));
+        assertThrows(IllegalArgumentException.class, () -> r.getOrCreate(""));
+        assertThrows(IllegalArgumentException.class, () -> r.drop(ListRegistry.DEFAULT_ID));
+        assertFalse(ListRegistry.isValidId(null));
+        assertTrue(ListRegistry.isValidId("session-42_x.y"));
+    }
+
+    // Удалённый список освобождается: держатель, полученный раньше, видит пустоту
+    @Test
+    void testDropReleasesList() {
+        ListRegistry r = new ListRegistry(3);
+        ListHolder h = r.getOrCreate("a");
+        SingleLinkedList list = new SingleLinkedList(new IntegerType());
+        list.add(1);
+        h.replace(list);
+        assertEquals(1, h.size());
+        assertTrue(r.drop("a"));
+        assertEquals(-1, h.size());
+        assertNull(h.list());
+    }
+
+    // == Независимые блокировки ==
+
+    // Писатель одного списка не мешает писателю другого
+    @Test
+    void testListsLockIndependently() throws Exception {
+        ListRegistry r = new ListRegistry(3);
+        ListHolder a = r.getOrCreate("a");
+        ListHolder b = r.getOrCreate("b");
+        long stamp = a.writeLock();
+        try {
+            Thread t = new Thread(() -> {
+                long s = b.writeLock();
+                b.unlockWrite(s);
+            });
+            t.start();
+            t.join(2000);
+            assertFalse(t.isAlive(), "Блокировка списка b не должна зависеть от a");
+        } finally {
+            a.unlockWrite(stamp);
+        }
+    }
+}
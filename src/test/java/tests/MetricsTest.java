@@ -0,0 +1,110 @@
+package tests;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import server.Histogram;
+import server.HttpServerApp;
+import server.ServerConfig;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    // == Гистограмма ==
+
+    @Test
+    void testQuantilesWithinOneEighth() {
+        Histogram h = new Histogram();
+        for (long v = 1; v <= 100_000; v++) h.record(v * 1000);
+        assertEquals(100_000, h.count());
+        for (double q : new double[] { 0.5, 0.99, 0.999 }) {
+            double exact = q * 100_000 * 1000;
+            long got = h.quantile(q);
+            assertTrue(got >= exact && got <= exact * 1.125, q + ": " + got);
+        }
+        assertEquals(0, new Histogram().quantile(0.5));
+        assertEquals(100_000, h.countAtMost(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testConcurrentRecording() throws Exception {
+        Histogram h = new Histogram();
+        int threads = 8, each = 200_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < threads; t++) done.add(pool.submit(() -> { for (int i = 0; i < each; i++) h.record(i); }));
+        for (Future<?> f : done) f.get();
+        pool.shutdown();
+        assertEquals((long) threads * each, h.count());
+        assertEquals((long) threads * each, h.countAtMost(Long.MAX_VALUE));
+    }
+
+    // Запись не выделяет память
+    @Test
+    void testRecordingDoesNotAllocate() {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Histogram h = new Histogram();
+        for (int i = 0; i < 100_000; i++) h.record(i); // прогрев
+        long tid = Thread.currentThread().threadId();
+        long before = mx.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < 1_000_000; i++) h.record(System.nanoTime() & 0xFFFFF);
+        long allocated = mx.getThreadAllocatedBytes(tid) - before;
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+    }
+
+    // == /metrics ==
+
+    @Test
+    void testPrometheusEndpoint() throws Exception {
+        ServerConfig cfg = new ServerConfig();
+        cfg.port = 0;
+        HttpServer server = HttpServerApp.start(cfg);
+        try {
+            String base = "http://127.0.0.1:" + server.getAddress().getPort();
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            http.send(HttpRequest.newBuilder(URI.create(base + "/lists/metrics-test"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"type\":\"Integer\"}")).build(), HttpResponse.BodyHandlers.ofString());
+            for (int i = 0; i < 5; i++) {
+                http.send(HttpRequest.newBuilder(URI.create(base + "/lists/metrics-test/add"))
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"value\":\"" + i + "\"}")).build(), HttpResponse.BodyHandlers.ofString());
+            }
+            http.send(HttpRequest.newBuilder(URI.create(base + "/lists/metrics-test/get?index=99")).build(), HttpResponse.BodyHandlers.ofString());
+            http.send(HttpRequest.newBuilder(URI.create(base + "/lists/metrics-test/items")).build(), HttpResponse.BodyHandlers.ofString());
+
+            HttpResponse<String> r = http.send(HttpRequest.newBuilder(URI.create(base + "/metrics")).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, r.statusCode());
+            assertTrue(r.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+            String m = r.body();
+            assertTrue(m.contains("# TYPE sll_http_request_duration_seconds histogram"), m);
+            assertTrue(metric(m, "sll_http_requests_total{route=\"/lists/{id}/add\"}") >= 5, m);
+            assertTrue(metric(m, "sll_http_errors_total{route=\"/lists/{id}/get\"}") >= 1, m);
+            assertTrue(metric(m, "sll_http_request_bytes_total{route=\"/lists/{id}/add\"}") >= 5 * "{\"value\":\"0\"}".length(), m);
+            assertTrue(metric(m, "sll_http_response_bytes_total{route=\"/lists/{id}/items\"}") >= "[\"0\",\"1\"]".length(), m);
+            assertEquals(metric(m, "sll_http_request_duration_seconds_count{route=\"/lists/{id}/add\"}"),
+                    metric(m, "sll_http_request_duration_seconds_bucket{route=\"/lists/{id}/add\",le=\"+Inf\"}"));
+            assertTrue(m.contains("sll_http_request_duration_quantile_seconds{route=\"/lists/{id}/add\",quantile=\"0.999\"}"), m);
+            assertTrue(metric(m, "sll_lock_wait_seconds_count{mode=\"write\"}") >= 5, m);
+            assertTrue(metric(m, "sll_lock_hold_seconds_count{mode=\"write\"}") >= 5, m);
+            assertTrue(metric(m, "sll_phase_seconds_count{phase=\"body_read\"}") >= 5, m);
+            assertEquals(5, metric(m, "sll_list_size{list=\"metrics-test\"}"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static double metric(String text, String series) {
+        for (String line : text.split("\n")) {
+            if (line.startsWith(series + " ")) return Double.parseDouble(line.substring(series.length() + 1));
+        }
+        fail("no series " + series);
+        return 0;
+    }
+}
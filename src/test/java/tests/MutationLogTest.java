@@ -0,0 +1,233 @@
+package tests;
+
+import data.*;
+import list.SingleLinkedList;
+import list.StorageFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import server.ListHolder;
+import server.ListRegistry;
+import server.MutationLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutationLogTest {
+
+    private static MutationLog open(Path dir, ListRegistry lists, long compactBytes) throws IOException {
+        return MutationLog.open(dir.toFile(), lists, new UserFactory(), new StorageFactory(), compactBytes);
+    }
+
+    // Как обработчики сервера: изменение и запись в журнал под блокировкой, ожидание диска — после
+    private static void mutate(MutationLog log, ListHolder h, java.util.function.Function<SingleLinkedList, byte[]> op) throws IOException {
+        long lsn;
+        long stamp = h.writeLock();
+        try {
+            lsn = log.append(h.id, op.apply(h.list()));
+        } finally {
+            h.unlockWrite(stamp);
+        }
+        log.awaitDurable(lsn);
+    }
+
+    private static ListHolder create(MutationLog log, ListRegistry lists, String id, UserType type, String kind) throws IOException {
+        ListHolder h = lists.getOrCreate(id);
+        SingleLinkedList list = new SingleLinkedList(type, new StorageFactory().create(kind, type));
+        long stamp = h.writeLock();
+        long lsn;
+        try {
+            h.swap(list);
+            lsn = log.append(id, MutationLog.create(type.typeName(), kind, false));
+        } finally {
+            h.unlockWrite(stamp);
+        }
+        log.awaitDurable(lsn);
+        return h;
+    }
+
+    private static void addAll(MutationLog log, ListHolder h, Object... values) throws IOException {
+        for (Object v : values) mutate(log, h, l -> { l.add(v); return MutationLog.add(l.prototype, v); });
+    }
+
+    private static List<Object> items(ListRegistry lists, String id) {
+        return lists.get(id).list().toArrayList();
+    }
+
+    // == Воспроизведение ==
+
+    @Test
+    void testReplayAfterRestart(@TempDir Path dir) throws IOException {
+        ListRegistry lists = new ListRegistry(8);
+        MutationLog log = open(dir, lists, 0);
+        ListHolder h = create(log, lists, "nums", new IntegerType(), "skiplist");
+        addAll(log, h, 5, 3, 9, 1);
+        mutate(log, h, l -> { l.insert(1, 7); return MutationLog.insert(1, l.prototype, 7); });
+        mutate(log, h, l -> { l.remove(0); return MutationLog.remove(0); });
+        mutate(log, h, l -> { l.set(0, 8); return MutationLog.set(0, l.prototype, 8); });
+        mutate(log, h, l -> { l.sort(l.prototype.getTypeComparator(), SingleLinkedList.SORT_QUICK); return MutationLog.sort(SingleLinkedList.SORT_QUICK); });
+        mutate(log, h, l -> { l.insertSorted(4, l.prototype.getTypeComparator()); return MutationLog.insertSorted(l.prototype, 4); });
+        mutate(log, h, l -> { l.setIndexed(true); return MutationLog.index(true); });
+        ListHolder s = create(log, lists, "strs", new StringType(), "auto");
+        addAll(log, s, "a \"quoted\"", "юникод", null);
+        List<Object> expected = items(lists, "nums");
+        log.close();
+
+        ListRegistry back = new ListRegistry(8);
+        open(dir, back, 0).close();
+        assertEquals(expected, items(back, "nums"));
+        assertEquals(Arrays.asList("a \"quoted\"", "юникод", null), items(back, "strs"));
+        SingleLinkedList nums = back.get("nums").list();
+        assertEquals("skiplist", nums.storageKind());
+        assertTrue(nums.isIndexed());
+        assertTrue(nums.isSortedBy(nums.prototype.getTypeComparator()));
+    }
+
+    // Обрыв последней записи (сбой во время записи): всё до неё восстанавливается
+    @Test
+    void testTornTailIsIgnored(@TempDir Path dir) throws IOException {
+        ListRegistry lists = new ListRegistry(4);
+        MutationLog log = open(dir, lists, 0);
+        ListHolder h = create(log, lists, "d", new DoubleType(), "auto");
+        addAll(log, h, 1.5, 2.5, 3.5);
+        log.close();
+        File wal = Objects.requireNonNull(dir.toFile().listFiles((d, n) -> n.endsWith(".log")))[0];
+        try (RandomAccessFile f = new RandomAccessFile(wal, "rw")) {
+            f.setLength(f.length() - 3);
+        }
+        ListRegistry back = new ListRegistry(4);
+        MutationLog reopened = open(dir, back, 0);
+        assertEquals(List.of(1.5, 2.5), items(back, "d"));
+        // Новые записи идут в новый файл и переживают следующий перезапуск
+        addAll(reopened, back.get("d"), 9.0);
+        reopened.close();
+        ListRegistry again = new ListRegistry(4);
+        open(dir, again, 0).close();
+        assertEquals(List.of(1.5, 2.5, 9.0), items(again, "d"));
+    }
+
+    @Test
+    void testDropAndRecreate(@TempDir Path dir) throws IOException {
+        ListRegistry lists = new ListRegistry(4);
+        MutationLog log = open(dir, lists, 0);
+        addAll(log, create(log, lists, "x", new IntegerType(), "auto"), 1, 2);
+        long[] lsn = new long[1];
+        assertTrue(lists.drop("x", () -> lsn[0] = log.append("x", MutationLog.drop())));
+        log.awaitDurable(lsn[0]);
+        addAll(log, create(log, lists, "x", new StringType(), "auto"), "s");
+        addAll(log, create(log, lists, "gone", new IntegerType(), "auto"), 3);
+        assertTrue(lists.drop("gone", () -> lsn[0] = log.append("gone", MutationLog.drop())));
+        log.awaitDurable(lsn[0]);
+        log.close();
+
+        ListRegistry back = new ListRegistry(4);
+        open(dir, back, 0).close();
+        assertEquals(List.of("s"), items(back, "x"));
+        assertNull(back.get("gone"));
+    }
+
+    // == Сжатие ==
+
+    @Test
+    void testCompactionKeepsStateAndDropsOldLogs(@TempDir Path dir) throws IOException {
+        ListRegistry lists = new ListRegistry(4);
+        MutationLog log = open(dir, lists, 0);
+        ListHolder h = create(log, lists, "f", new FractionType(), "persistent");
+        for (int i = 0; i < 200; i++) addAll(log, h, new Fraction(i % 7, i % 5, 6));
+        mutate(log, h, l -> { l.sort(l.prototype.getTypeComparator(), SingleLinkedList.SORT_QUICK); return MutationLog.sort(SingleLinkedList.SORT_QUICK); });
+        log.compact();
+        addAll(log, h, new Fraction(-1, 0, 1));
+        List<Object> expected = items(lists, "f");
+        log.close();
+
+        String[] names = dir.toFile().list();
+        assertEquals(1, Arrays.stream(names).filter(n -> n.startsWith("snapshot-")).count(), Arrays.toString(names));
+        assertEquals(1, Arrays.stream(names).filter(n -> n.endsWith(".log")).count(), Arrays.toString(names));
+
+        ListRegistry back = new ListRegistry(4);
+        open(dir, back, 0).close();
+        assertEquals(expected, items(back, "f"));
+        assertEquals("persistent", back.get("f").list().storageKind());
+    }
+
+    // Сжатие по объёму запускается само, пока идут изменения
+    @Test
+    void testAutomaticCompaction(@TempDir Path dir) throws Exception {
+        ListRegistry lists = new ListRegistry(4);
+        MutationLog log = open(dir, lists, 4096);
+        ListHolder h = create(log, lists, "n", new IntegerType(), "auto");
+        for (int i = 0; i < 2000; i++) addAll(log, h, i);
+        List<Object> expected = items(lists, "n");
+        log.close();
+        assertTrue(Arrays.stream(dir.toFile().list()).anyMatch(n -> n.startsWith("snapshot-")));
+        ListRegistry back = new ListRegistry(4);
+        open(dir, back, 0).close();
+        assertEquals(expected, items(back, "n"));
+    }
+
+    // == Групповая запись ==
+
+    // Параллельные изменения разных списков сбрасываются на диск общими группами
+    @Test
+    void testGroupCommit(@TempDir Path dir) throws Exception {
+        int threads = 8, perThread = 250;
+        ListRegistry lists = new ListRegistry(threads + 1);
+        MutationLog log = open(dir, lists, 0);
+        ListHolder[] holders = new ListHolder[threads];
+        for (int t = 0; t < threads; t++) holders[t] = create(log, lists, "l" + t, new IntegerType(), "auto");
+        long before = log.fsyncs();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> done = new ArrayList<>();
+        long t0 = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            ListHolder h = holders[t];
+            done.add(pool.submit(() -> { for (int i = 0; i < perThread; i++) addAll(log, h, i); return null; }));
+        }
+        for (Future<?> f : done) f.get();
+        pool.shutdown();
+        long syncs = log.fsyncs() - before;
+        System.out.printf(Locale.US, "WAL: %d durable adds in %.1f ms, %d fsyncs%n", threads * perThread,
+                (System.nanoTime() - t0) / 1e6, syncs);
+        log.close();
+        assertTrue(syncs < threads * perThread, "fsyncs " + syncs);
+
+        ListRegistry back = new ListRegistry(threads + 1);
+        open(dir, back, 0).close();
+        for (int t = 0; t < threads; t++) assertEquals(perThread, back.get("l" + t).list().size());
+    }
+
+    // == Сбой записи ==
+
+    // После ошибки записи журнал отклоняет новые изменения, а не принимает их молча в очередь
+    @Test
+    void testWriteFailureRefusesFurtherAppends(@TempDir Path dir) throws IOException {
+        ListRegistry lists = new ListRegistry(8);
+        MutationLog log = open(dir, lists, 0);
+        ListHolder h = create(log, lists, "nums", new IntegerType(), "auto");
+        addAll(log, h, 1, 2);
+        long gen = 0;
+        for (File f : Objects.requireNonNull(dir.toFile().listFiles())) {
+            String n = f.getName();
+            if (n.startsWith("wal-") && n.endsWith(".log")) gen = Math.max(gen, Long.parseLong(n.substring(4, n.length() - 4)));
+        }
+        // Файл следующего поколения не открыть на запись: на его месте каталог
+        File blocker = dir.resolve("wal-" + (gen + 1) + ".log").toFile();
+        assertTrue(blocker.mkdir());
+        log.compact();
+
+        assertThrows(IOException.class, () -> addAll(log, h, 3));
+        assertThrows(IllegalStateException.class, log::checkWritable);
+        assertThrows(IllegalStateException.class, () -> log.append(h.id, MutationLog.add(h.list().prototype, 4)));
+        log.close();
+
+        assertTrue(blocker.delete());
+        ListRegistry back = new ListRegistry(8);
+        open(dir, back, 0).close();
+        assertEquals(Arrays.asList(1, 2), items(back, "nums"));
+    }
+}
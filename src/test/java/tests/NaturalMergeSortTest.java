@@ -0,0 +1,85 @@
+package tests;
+
+import data.*;
+import data.Comparator;
+import list.SingleLinkedList;
+import list.SortStats;
+import list.UnrolledStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NaturalMergeSortTest {
+
+    private SingleLinkedList createStringList(String... values) {
+        SingleLinkedList list = new SingleLinkedList(new StringType(), new UnrolledStorage());
+        for (String v : values) list.add(v);
+        return list;
+    }
+
+    // Уже отсортированный список: n - 1 сравнение и никаких перестановок
+    @Test
+    void testAlreadySortedIsLinear() {
+        var list = new SingleLinkedList(new IntegerType());
+        for (int i = 0; i < 10_000; i++) list.add(i);
+        SortStats st = list.sort(new IntegerType().getTypeComparator(), SingleLinkedList.SORT_NATURAL);
+        assertEquals(9_999, st.comparisons);
+        for (int i = 0; i < 10_000; i++) assertEquals(i, list.get(i));
+    }
+
+    // Обратный порядок: серии длины 1, несколько проходов
+    @Test
+    void testReverseSorted() {
+        var list = createStringList("e", "d", "c", "b", "a");
+        list.sort(new StringType().getTypeComparator(), SingleLinkedList.SORT_NATURAL);
+        assertArrayEquals(new Object[] { "a", "b", "c", "d", "e" }, list.toArrayList().toArray());
+    }
+
+    // Равные по компаратору элементы сохраняют исходный порядок
+    @Test
+    void testStable() {
+        var list = createStringList("b1", "a1", "b2", "a2", "c1", "a3", "b3");
+        Comparator byFirstChar = (x, y) -> Character.compare(((String) x).charAt(0), ((String) y).charAt(0));
+        list.sort(byFirstChar, SingleLinkedList.SORT_NATURAL);
+        assertArrayEquals(new Object[] { "a1", "a2", "a3", "b1", "b2", "b3", "c1" }, list.toArrayList().toArray());
+    }
+
+    // Много узлов, неполные узлы после вставок и удалений; после сортировки список остаётся рабочим
+    @Test
+    void testRandomWithEditsAcrossChunks() {
+        var list = new SingleLinkedList(new IntegerType(), new UnrolledStorage());
+        ArrayList<Integer> ref = new ArrayList<>();
+        Random rnd = new Random(11);
+        for (int i = 0; i < 5_000; i++) {
+            int idx = rnd.nextInt(ref.size() + 1);
+            int v = rnd.nextInt(100);
+            list.insert(idx, v);
+            ref.add(idx, v);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            int idx = rnd.nextInt(ref.size());
+            assertEquals(ref.remove(idx), list.remove(idx));
+        }
+        list.sort(new IntegerType().getTypeComparator(), SingleLinkedList.SORT_NATURAL);
+        Collections.sort(ref);
+        assertEquals(ref, new ArrayList<>(list.toArrayList()));
+        list.insert(2_000, -1);
+        list.remove(0);
+        ref.add(2_000, -1);
+        ref.remove(0);
+        assertEquals(ref, new ArrayList<>(list.toArrayList()));
+    }
+
+    // Примитивный движок тоже сортируется перестройкой узлов
+    @Test
+    void testIntStorageNatural() {
+        var list = new SingleLinkedList(new IntegerType());
+        int[] values = { 5, 6, 7, 1, 2, 3, 9, 0 };
+        for (int v : values) list.add(v);
+        SortStats st = list.sort(new IntegerType().getTypeComparator(), SingleLinkedList.SORT_NATURAL);
+        assertArrayEquals(new Object[] { 0, 1, 2, 3, 5, 6, 7, 9 }, list.toArrayList().toArray());
+        assertTrue(st.comparisons > 0);
+    }
+}
@@ -0,0 +1,70 @@
+package tests;
+
+import data.*;
+import list.OffHeapStorage;
+import list.SingleLinkedList;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStorageTest {
+
+    // Вставки и удаления сдвигают хвост через границу буферов (по 65536 элементов)
+    @Test
+    void testInsertRemoveAcrossSlabs() {
+        var list = new SingleLinkedList(new IntegerType(), new OffHeapStorage(new IntegerType()));
+        ArrayList<Integer> ref = new ArrayList<>();
+        for (int i = 0; i < 70_000; i++) { list.add(i); ref.add(i); }
+        Random rnd = new Random(7);
+        for (int op = 0; op < 200; op++) {
+            int idx = rnd.nextInt(ref.size());
+            if (rnd.nextBoolean()) {
+                list.insert(idx, -op);
+                ref.add(idx, -op);
+            } else {
+                assertEquals(ref.remove(idx), list.remove(idx));
+            }
+        }
+        assertEquals(ref, new ArrayList<>(list.toArrayList()));
+    }
+
+    // Дробь хранится как три long и читается обратно без потерь
+    @Test
+    void testFractionRoundTrip() {
+        var list = new SingleLinkedList(new FractionType(), new OffHeapStorage(new FractionType()));
+        list.add(new Fraction(1, 1, 2));
+        list.add(new Fraction(-2, 1, 3));
+        list.add(new Fraction(0, 3, 4));
+        list.sort(new FractionType().getTypeComparator());
+        assertEquals("-2 1/3", list.get(0).toString());
+        assertEquals("3/4", list.get(1).toString());
+        assertEquals("1 1/2", list.get(2).toString());
+    }
+
+    @Test
+    void testDoubleSort() {
+        var list = new SingleLinkedList(new DoubleType(), new OffHeapStorage(new DoubleType()));
+        list.add(2.5); list.add(-1.0); list.add(0.0); list.add(-1.0);
+        list.sort(new DoubleType().getTypeComparator());
+        assertArrayEquals(new Object[] { -1.0, -1.0, 0.0, 2.5 }, list.toArrayList().toArray());
+    }
+
+    // После release список пуст и снова пригоден к работе
+    @Test
+    void testReleaseEmptiesList() {
+        var list = new SingleLinkedList(new IntegerType(), new OffHeapStorage(new IntegerType()));
+        for (int i = 0; i < 1000; i++) list.add(i);
+        list.release();
+        assertEquals(0, list.size());
+        list.add(5);
+        assertEquals(5, list.get(0));
+    }
+
+    // Типы переменной длины вне кучи не хранятся
+    @Test
+    void testStringRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapStorage(new StringType()));
+    }
+}
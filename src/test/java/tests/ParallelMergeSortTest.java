@@ -0,0 +1,69 @@
+package tests;
+
+import data.*;
+import list.ParallelMergeSort;
+import list.SingleLinkedList;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelMergeSortTest {
+
+    private SingleLinkedList createStringList(int n, long seed) {
+        var list = new SingleLinkedList(new StringType());
+        Random rnd = new Random(seed);
+        for (int i = 0; i < n; i++) list.add(Integer.toString(rnd.nextInt(n)));
+        return list;
+    }
+
+    // Больше порога — работают и параллельная сортировка, и параллельное слияние
+    @Test
+    void testLargeRandomMatchesArraysSort() {
+        var list = createStringList(100_000, 1);
+        Object[] expected = list.toArrayList().toArray();
+        Arrays.sort(expected);
+        list.sort(new StringType().getTypeComparator(), SingleLinkedList.SORT_PARALLEL);
+        assertArrayEquals(expected, list.toArrayList().toArray());
+    }
+
+    // Повторная сортировка уже упорядоченного списка
+    @Test
+    void testAlreadySortedLarge() {
+        var list = createStringList(50_000, 2);
+        list.sort(new StringType().getTypeComparator(), SingleLinkedList.SORT_PARALLEL);
+        Object[] once = list.toArrayList().toArray();
+        list.sort(new StringType().getTypeComparator(), SingleLinkedList.SORT_PARALLEL);
+        assertArrayEquals(once, list.toArrayList().toArray());
+    }
+
+    // Все элементы равны
+    @Test
+    void testAllEqualLarge() {
+        var list = new SingleLinkedList(new FractionType());
+        for (int i = 0; i < 40_000; i++) list.add(new Fraction(0, 1, 2));
+        list.sort(new FractionType().getTypeComparator(), SingleLinkedList.SORT_PARALLEL);
+        assertEquals(40_000, list.size());
+        assertEquals("1/2", list.get(39_999).toString());
+    }
+
+    // Равные ключи сохраняют исходный порядок
+    @Test
+    void testStable() {
+        int n = 60_000;
+        Object[] a = new Object[n];
+        for (int i = 0; i < n; i++) a[i] = new int[] { (n - i) % 10, i };
+        ParallelMergeSort.sort(a, (x, y) -> Integer.compare(((int[]) x)[0], ((int[]) y)[0]));
+        for (int i = 1; i < n; i++) {
+            int[] prev = (int[]) a[i - 1], cur = (int[]) a[i];
+            assertTrue(prev[0] < cur[0] || (prev[0] == cur[0] && prev[1] < cur[1]), "Нарушение на позиции " + i);
+        }
+    }
+
+    @Test
+    void testUnknownAlgorithm() {
+        var list = createStringList(10, 3);
+        assertThrows(IllegalArgumentException.class, () -> list.sort(new StringType().getTypeComparator(), "bogo"));
+    }
+}
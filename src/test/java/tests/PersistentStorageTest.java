@@ -0,0 +1,118 @@
+package tests;
+
+import data.*;
+import list.PersistentStorage;
+import list.SingleLinkedList;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentStorageTest {
+
+    private SingleLinkedList createIntegerList(int n) {
+        SingleLinkedList list = new SingleLinkedList(new IntegerType(), new PersistentStorage());
+        for (int i = 0; i < n; i++) list.add(i);
+        return list;
+    }
+
+    private void assertSameContent(List<Integer> expected, SingleLinkedList list) {
+        assertEquals(expected.size(), list.size());
+        for (int i = 0; i < expected.size(); i++) assertEquals(expected.get(i), list.get(i), "index " + i);
+        Iterator<Object> it = list.iterator(0);
+        for (Integer v : expected) assertEquals(v, it.next());
+        assertFalse(it.hasNext());
+    }
+
+    // == Позиционные операции ==
+
+    // Случайные insert/remove/set сверяются с ArrayList (листья делятся и сливаются)
+    @Test
+    void testRandomOperationsMatchArrayList() {
+        Random rnd = new Random(11);
+        SingleLinkedList list = createIntegerList(0);
+        ArrayList<Integer> ref = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            int op = rnd.nextInt(10);
+            if (op < 5 || ref.isEmpty()) {
+                int idx = rnd.nextInt(ref.size() + 1);
+                list.insert(idx, step);
+                ref.add(idx, step);
+            } else if (op < 8) {
+                int idx = rnd.nextInt(ref.size());
+                assertEquals(ref.remove(idx), list.remove(idx));
+            } else {
+                int idx = rnd.nextInt(ref.size());
+                list.set(idx, -step);
+                ref.set(idx, -step);
+            }
+        }
+        assertSameContent(ref, list);
+    }
+
+    // Обход с произвольной позиции
+    @Test
+    void testIteratorFromOffset() {
+        SingleLinkedList list = createIntegerList(1000);
+        for (int from : new int[] { 0, 1, 63, 64, 65, 500, 999, 1000 }) {
+            Iterator<Object> it = list.iterator(from);
+            for (int i = from; i < 1000; i++) assertEquals(i, it.next());
+            assertFalse(it.hasNext());
+        }
+    }
+
+    // Сортировка идёт через массив и собирает сбалансированное дерево заново
+    @Test
+    void testSort() {
+        SingleLinkedList list = new SingleLinkedList(new IntegerType(), new PersistentStorage());
+        ArrayList<Integer> ref = new ArrayList<>();
+        Random rnd = new Random(3);
+        for (int i = 0; i < 5000; i++) { int v = rnd.nextInt(1000); list.add(v); ref.add(v); }
+        list.sort(new IntegerType().getTypeComparator());
+        Collections.sort(ref);
+        assertSameContent(ref, list);
+    }
+
+    // == Снимки ==
+
+    // Снимок сохраняет содержимое и версию, изменения после него не видны
+    @Test
+    void testSnapshotIsolation() {
+        SingleLinkedList list = createIntegerList(300);
+        SingleLinkedList snap = list.snapshot();
+        assertNotNull(snap);
+        assertEquals(list.version(), snap.version());
+
+        list.insert(0, -1);
+        list.remove(150);
+        list.set(10, 42);
+        assertNotEquals(list.version(), snap.version());
+
+        ArrayList<Integer> original = new ArrayList<>();
+        for (int i = 0; i < 300; i++) original.add(i);
+        assertSameContent(original, snap);
+
+        // И наоборот: изменение снимка не трогает список
+        snap.add(1000);
+        assertEquals(300, list.size());
+    }
+
+    // Неперсистентные движки снимков не дают
+    @Test
+    void testSnapshotUnsupported() {
+        assertNull(new SingleLinkedList(new IntegerType()).snapshot());
+    }
+
+    // Версия растёт при каждом изменении
+    @Test
+    void testVersionCounts() {
+        SingleLinkedList list = createIntegerList(3);
+        assertEquals(3, list.version());
+        list.set(0, 5);
+        list.remove(0);
+        list.insert(0, 1);
+        list.sort(new IntegerType().getTypeComparator());
+        assertEquals(7, list.version());
+    }
+}
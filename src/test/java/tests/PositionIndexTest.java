@@ -0,0 +1,98 @@
+package tests;
+
+import data.*;
+import list.PersistentStorage;
+import list.SingleLinkedList;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionIndexTest {
+
+    // == Индекс против линейного поиска ==
+
+    // Случайные add/insert/remove/set; indexOf с индексом совпадает с ArrayList.indexOf
+    @Test
+    void testIndexMatchesArrayList() {
+        Random rnd = new Random(5);
+        SingleLinkedList list = new SingleLinkedList(new IntegerType());
+        list.setIndexed(true);
+        ArrayList<Integer> ref = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            int op = rnd.nextInt(10);
+            int v = rnd.nextInt(200); // много повторов
+            if (op < 3 || ref.isEmpty()) {
+                list.add(v);
+                ref.add(v);
+            } else if (op < 6) {
+                int idx = rnd.nextInt(ref.size() + 1);
+                list.insert(idx, v);
+                ref.add(idx, v);
+            } else if (op < 8) {
+                int idx = rnd.nextInt(ref.size());
+                list.remove(idx);
+                ref.remove(idx);
+            } else {
+                int idx = rnd.nextInt(ref.size());
+                list.set(idx, v);
+                ref.set(idx, v);
+            }
+            if (step % 100 == 0) {
+                for (int q = 0; q < 210; q += 7) assertEquals(ref.indexOf(q), list.indexOf(q), "value " + q);
+            }
+        }
+    }
+
+    // После сортировки индекс перестраивается
+    @Test
+    void testIndexAfterSort() {
+        SingleLinkedList list = new SingleLinkedList(new IntegerType(), new PersistentStorage());
+        for (int v : new int[] { 5, 3, 9, 3, 1 }) list.add(v);
+        list.setIndexed(true);
+        assertEquals(1, list.indexOf(3));
+        list.sort(new IntegerType().getTypeComparator());
+        assertEquals(0, list.indexOf(1));
+        assertEquals(1, list.indexOf(3));
+        assertEquals(4, list.indexOf(9));
+        assertEquals(-1, list.indexOf(7));
+    }
+
+    // Включение на заполненном списке и выключение
+    @Test
+    void testEnableOnExistingList() {
+        SingleLinkedList list = new SingleLinkedList(new StringType());
+        list.add("a");
+        list.add("b");
+        list.add("a");
+        list.setIndexed(true);
+        assertTrue(list.isIndexed());
+        assertEquals(0, list.indexOf("a"));
+        list.remove(0);
+        assertEquals(1, list.indexOf("a"));
+        list.setIndexed(false);
+        assertFalse(list.isIndexed());
+        assertEquals(1, list.indexOf("a"));
+    }
+
+    // == Равенство по типу ==
+
+    // Дроби равны по значению, а не по записи
+    @Test
+    void testFractionEquality() {
+        Fraction a = new Fraction(0, -3, 2);
+        Fraction b = new Fraction(-1, 1, 2);
+        Fraction c = new Fraction(0, 6, 4);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(new Fraction(1, 1, 2), c);
+        assertNotEquals(a, c);
+
+        SingleLinkedList list = new SingleLinkedList(new FractionType());
+        list.setIndexed(true);
+        list.add(c);
+        list.add(a);
+        assertEquals(1, list.indexOf(b));
+    }
+}
@@ -0,0 +1,73 @@
+package tests;
+
+import data.*;
+import list.DoubleStorage;
+import list.IntStorage;
+import list.SingleLinkedList;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveStorageTest {
+
+    // == Выбор движка ==
+
+    // Integer и Double получают примитивные движки автоматически
+    @Test
+    void testDefaultStorageForNumericTypes() {
+        assertEquals("int", new SingleLinkedList(new IntegerType()).storageKind());
+        assertEquals("double", new SingleLinkedList(new DoubleType()).storageKind());
+        assertEquals("unrolled", new SingleLinkedList(new StringType()).storageKind());
+        assertEquals("unrolled", new SingleLinkedList(new FractionType()).storageKind());
+    }
+
+    // == Операции ==
+
+    // Вставки и удаления через границы узлов
+    @Test
+    void testIntInsertRemoveAcrossChunks() {
+        var list = new SingleLinkedList(new IntegerType(), new IntStorage());
+        for (int i = 0; i < 1000; i++) list.add(i * 2);
+        for (int i = 0; i < 1000; i++) list.insert(2 * i + 1, 2 * i + 1);
+        for (int i = 0; i < 2000; i++) assertEquals(i, list.get(i));
+        for (int i = 0; i < 1000; i++) list.remove(i);
+        for (int i = 0; i < 1000; i++) assertEquals(2 * i + 1, list.get(i));
+    }
+
+    // null не помещается в примитивный массив
+    @Test
+    void testIntRejectsNull() {
+        var list = new SingleLinkedList(new IntegerType(), new IntStorage());
+        assertThrows(IllegalArgumentException.class, () -> list.add(null));
+    }
+
+    // == Сортировка ==
+
+    @Test
+    void testIntSortWithExtremes() {
+        var list = new SingleLinkedList(new IntegerType());
+        list.add(3); list.add(Integer.MIN_VALUE); list.add(Integer.MAX_VALUE); list.add(-1); list.add(3);
+        list.sort(new IntegerType().getTypeComparator());
+        Object[] expected = { Integer.MIN_VALUE, -1, 3, 3, Integer.MAX_VALUE };
+        assertArrayEquals(expected, list.toArrayList().toArray());
+    }
+
+    // Порядок совпадает с Double.compare: -0.0 < 0.0, NaN в конце
+    @Test
+    void testDoubleSortMatchesComparator() {
+        var list = new SingleLinkedList(new DoubleType(), new DoubleStorage());
+        list.add(Double.NaN); list.add(0.0); list.add(-0.0); list.add(-2.5); list.add(1.5);
+        list.sort(new DoubleType().getTypeComparator());
+        Object[] expected = { -2.5, -0.0, 0.0, 1.5, Double.NaN };
+        assertArrayEquals(expected, list.toArrayList().toArray());
+    }
+
+    // Пользовательский компаратор идёт общим путём
+    @Test
+    void testIntSortWithCustomComparator() {
+        var list = new SingleLinkedList(new IntegerType());
+        list.add(1); list.add(3); list.add(2);
+        list.sort((a, b) -> Integer.compare((Integer) b, (Integer) a));
+        assertArrayEquals(new Object[] { 3, 2, 1 }, list.toArrayList().toArray());
+    }
+}
@@ -0,0 +1,74 @@
+package tests;
+
+import data.*;
+import list.SingleLinkedList;
+import list.SortStats;
+import list.UnrolledStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixSortTest {
+
+    // Отрицательные и крайние значения на примитивном движке
+    @Test
+    void testIntExtremes() {
+        var list = new SingleLinkedList(new IntegerType());
+        int[] values = { 5, -1, Integer.MAX_VALUE, 0, Integer.MIN_VALUE, -300, 256 };
+        for (int v : values) list.add(v);
+        list.sort(new IntegerType().getTypeComparator(), SingleLinkedList.SORT_RADIX);
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        for (int i = 0; i < expected.length; i++) assertEquals(expected[i], list.get(i));
+    }
+
+    // Тот же тип в объектном движке идёт через ключи sortKey
+    @Test
+    void testIntRandomOnUnrolled() {
+        var list = new SingleLinkedList(new IntegerType(), new UnrolledStorage());
+        Random rnd = new Random(3);
+        ArrayList<Integer> ref = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) { int v = rnd.nextInt(); list.add(v); ref.add(v); }
+        SortStats st = list.sort(new IntegerType().getTypeComparator(), SingleLinkedList.SORT_RADIX);
+        Collections.sort(ref);
+        assertEquals(ref, new ArrayList<>(list.toArrayList()));
+        assertEquals(-1, st.comparisons);
+    }
+
+    // Порядок Double.compare: -inf < -0.0 < 0.0 < +inf < NaN
+    @Test
+    void testDoubleSpecialValues() {
+        var list = new SingleLinkedList(new DoubleType());
+        double[] values = { Double.NaN, 1.5, -0.0, Double.NEGATIVE_INFINITY, 0.0, -1e300, Double.POSITIVE_INFINITY, -2.5 };
+        for (double v : values) list.add(v);
+        list.sort(new DoubleType().getTypeComparator(), SingleLinkedList.SORT_RADIX);
+        Object[] expected = { Double.NEGATIVE_INFINITY, -1e300, -2.5, -0.0, 0.0, 1.5, Double.POSITIVE_INFINITY, Double.NaN };
+        assertArrayEquals(expected, list.toArrayList().toArray());
+    }
+
+    // Дроби с отрицательными значениями и совпадающими ключами
+    @Test
+    void testFractions() {
+        var list = new SingleLinkedList(new FractionType());
+        list.add(new Fraction(0, 1, 3));
+        list.add(new Fraction(-2, 1, 3));
+        list.add(new Fraction(0, -1, 2));
+        list.add(new Fraction(1, 0, 1));
+        list.add(new Fraction(0, 2, 6));
+        list.sort(new FractionType().getTypeComparator(), SingleLinkedList.SORT_RADIX);
+        String[] expected = { "-2 1/3", "-1/2", "1/3", "1/3", "1" };
+        for (int i = 0; i < expected.length; i++) assertEquals(expected[i], list.get(i).toString());
+    }
+
+    // Строки ключа не имеют — сортировка сравнением
+    @Test
+    void testStringFallsBackToComparison() {
+        var list = new SingleLinkedList(new StringType());
+        list.add("pear"); list.add("apple"); list.add("fig");
+        SortStats st = list.sort(new StringType().getTypeComparator(), SingleLinkedList.SORT_RADIX);
+        assertArrayEquals(new Object[] { "apple", "fig", "pear" }, list.toArrayList().toArray());
+        assertTrue(st.comparisons > 0);
+    }
+}
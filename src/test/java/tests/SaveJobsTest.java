@@ -0,0 +1,103 @@
+package tests;
+
+import data.*;
+import list.SingleLinkedList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import server.SaveJobs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveJobsTest {
+
+    private static SingleLinkedList ints(int n, int base) {
+        SingleLinkedList list = new SingleLinkedList(new IntegerType());
+        for (int i = 0; i < n; i++) list.add(base + i);
+        return list;
+    }
+
+    private static String waitDone(SaveJobs jobs, long id) throws InterruptedException {
+        for (int i = 0; i < 3000; i++) {
+            String s = jobs.status(id);
+            if (s.contains("\"state\":\"done\"") || s.contains("\"state\":\"failed\"")) return s;
+            Thread.sleep(10);
+        }
+        fail("save job " + id + " did not finish");
+        return null;
+    }
+
+    // == Фоновое сохранение ==
+
+    @Test
+    void testAsyncSaveWritesFileAndReportsStatus(@TempDir Path dir) throws Exception {
+        SaveJobs jobs = new SaveJobs(1);
+        SingleLinkedList list = ints(100_000, 0);
+        Path f = dir.resolve("a.bin");
+        SaveJobs.Job job = jobs.submit(list.copy(), f.toString(), "bin", -1);
+        String status = waitDone(jobs, job.id);
+        assertTrue(status.contains("\"progress\":1.000"), status);
+        assertTrue(status.contains("\"bytes\":" + Files.size(f)), status);
+        assertTrue(status.contains("\"mbPerSec\":"), status);
+        assertEquals(list.toArrayList(), SingleLinkedList.loadFromBinaryFile(f.toString(), new UserFactory()).toArrayList());
+        // Временных файлов не остаётся
+        assertEquals(1, Files.list(dir).count());
+        assertNull(jobs.status(job.id + 100));
+        jobs.shutdown();
+    }
+
+    // Копия не зависит от изменений списка после постановки задания
+    @Test
+    void testCopyIsIsolated(@TempDir Path dir) throws Exception {
+        SaveJobs jobs = new SaveJobs(1);
+        SingleLinkedList list = ints(1000, 0);
+        SaveJobs.Job job = jobs.submit(list.copy(), dir.resolve("c.json").toString(), "json", -1);
+        list.set(0, -1);
+        list.add(5);
+        waitDone(jobs, job.id);
+        assertEquals(ints(1000, 0).toArrayList(), SingleLinkedList.loadFromFile(dir.resolve("c.json").toString(), new UserFactory()).toArrayList());
+        jobs.shutdown();
+    }
+
+    // Запросы в один файл, пока первый пишется, сливаются в одно задание с последним состоянием
+    @Test
+    void testConcurrentSavesToSameFileCoalesce(@TempDir Path dir) throws Exception {
+        SaveJobs jobs = new SaveJobs(2);
+        Path f = dir.resolve("s.json");
+        SaveJobs.Job first = jobs.submit(ints(1_000_000, 0), f.toString(), "json", -1);
+        SaveJobs.Job second = jobs.submit(ints(10, 1), f.toString(), "json", -1);
+        SaveJobs.Job third = jobs.submit(ints(10, 2), f.toString(), "json", -1);
+        SaveJobs.Job fourth = jobs.submit(ints(10, 3), f.toString(), "json", -1);
+        assertNotEquals(first.id, second.id);
+        assertEquals(second.id, third.id);
+        assertEquals(second.id, fourth.id);
+        waitDone(jobs, first.id);
+        String status = waitDone(jobs, second.id);
+        assertTrue(status.contains("\"requests\":3"), status);
+        assertEquals(ints(10, 3).toArrayList(), SingleLinkedList.loadFromFile(f.toString(), new UserFactory()).toArrayList());
+        jobs.shutdown();
+    }
+
+    @Test
+    void testFailedSaveIsReported(@TempDir Path dir) throws Exception {
+        SaveJobs jobs = new SaveJobs(1);
+        SaveJobs.Job job = jobs.submit(ints(10, 0), dir.resolve("missing/x.json").toString(), "json", -1);
+        String status = waitDone(jobs, job.id);
+        assertTrue(status.contains("\"state\":\"failed\"") && status.contains("\"error\":"), status);
+        jobs.shutdown();
+    }
+
+    // Синхронное сохранение тоже через временный файл: прежний файл цел, пока новый не готов
+    @Test
+    void testAtomicReplace(@TempDir Path dir) throws IOException {
+        Path f = dir.resolve("r.bin.gz");
+        SaveJobs.writeAtomically(ints(50, 0), f.toString(), "bin.gz", 1);
+        SaveJobs.writeAtomically(ints(20, 7), f.toString(), "BIN.GZ", 9);
+        assertEquals(ints(20, 7).toArrayList(), SingleLinkedList.loadFromCompressedFile(f.toString(), new UserFactory(), false).toArrayList());
+        assertEquals(List.of(f), Arrays.asList(Files.list(dir).toArray(Path[]::new)));
+    }
+}
@@ -0,0 +1,127 @@
+package tests;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import server.ConcurrencyLimiter;
+import server.HttpServerApp;
+import server.ServerConfig;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServerLoadTest {
+
+    // Число одновременных соединений в нагрузочном прогоне; для полного замера: -Dload.connections=10000
+    private static final int CONNECTIONS = Integer.getInteger("load.connections", 1000);
+
+    private static HttpClient client() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    // Одновременно отправляет n GET-запросов; задержки в мс по кодам ответа
+    private static Map<Integer, List<Double>> burst(HttpClient http, URI uri, int n) throws Exception {
+        Map<Integer, List<Double>> byCode = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < n; i++) {
+                done.add(clients.submit(() -> {
+                    start.await();
+                    long t0 = System.nanoTime();
+                    HttpResponse<String> r = http.send(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).build(),
+                            HttpResponse.BodyHandlers.ofString());
+                    double ms = (System.nanoTime() - t0) / 1e6;
+                    if (r.statusCode() == 503) assertEquals("1", r.headers().firstValue("Retry-After").orElse(null));
+                    byCode.computeIfAbsent(r.statusCode(), k -> Collections.synchronizedList(new ArrayList<>())).add(ms);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : done) f.get();
+        }
+        return byCode;
+    }
+
+    private static double percentile(List<Double> values, double p) {
+        ArrayList<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(p * sorted.size()) - 1));
+    }
+
+    // == Ограничение очереди ==
+
+    // Медленный обработчик, одно место и очередь из одного: остальные сразу получают 503
+    @Test
+    void saturatedServerAnswers503WithRetryAfter() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1);
+        AtomicInteger handled = new AtomicInteger();
+        server.createContext("/slow", ex -> {
+            handled.incrementAndGet();
+            try { Thread.sleep(300); } catch (InterruptedException ignored) { }
+            byte[] b = "{}".getBytes();
+            ex.sendResponseHeaders(200, b.length);
+            try (OutputStream os = ex.getResponseBody()) { os.write(b); }
+        }).getFilters().add(limiter);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        try {
+            URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/slow");
+            Map<Integer, List<Double>> res = burst(client(), uri, 10);
+            assertEquals(Set.of(200, 503), res.keySet());
+            assertTrue(res.get(200).size() >= 1 && res.get(200).size() <= 3, "Принято: " + res.get(200).size());
+            assertEquals(res.get(200).size(), handled.get());
+            assertEquals(10 - handled.get(), limiter.rejected());
+            // Отказ не ждёт медленного обработчика
+            assertTrue(percentile(res.get(503), 0.5) < 300);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // == Задержки под нагрузкой ==
+
+    @Test
+    void p99StaysFlatUnderManyConnections() throws Exception {
+        ServerConfig cfg = new ServerConfig();
+        cfg.port = 0;
+        cfg.backlog = 4096;
+        cfg.maxConcurrent = 256;
+        cfg.maxQueue = CONNECTIONS;
+        HttpServer server = HttpServerApp.start(cfg);
+        try {
+            String base = "http://127.0.0.1:" + server.getAddress().getPort();
+            HttpClient http = client();
+            http.send(HttpRequest.newBuilder(URI.create(base + "/lists/load-test"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"type\":\"Integer\"}")).build(), HttpResponse.BodyHandlers.ofString());
+            http.send(HttpRequest.newBuilder(URI.create(base + "/lists/load-test/add"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"value\":\"7\"}")).build(), HttpResponse.BodyHandlers.ofString());
+            URI get = URI.create(base + "/lists/load-test/get?index=0");
+
+            burst(http, get, 100); // прогрев
+            double p99Small = percentile(burst(http, get, 100).get(200), 0.99);
+            Map<Integer, List<Double>> big = burst(http, get, CONNECTIONS);
+            List<Double> ok = big.get(200);
+            assertNotNull(ok);
+            assertEquals(Set.of(200), big.keySet(), "Очередь вмещает все соединения, отказов быть не должно");
+            System.out.printf(Locale.US, "Load: 100 conns p99=%.1f ms; %d conns p50=%.1f p99=%.1f ms%n",
+                    p99Small, CONNECTIONS, percentile(ok, 0.5), percentile(ok, 0.99));
+        } finally {
+            server.stop(0);
+        }
+    }
+}
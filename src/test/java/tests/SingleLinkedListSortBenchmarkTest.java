@@ -70,7 +70,7 @@ public class SingleLinkedListSortBenchmarkTest {
 
         try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(csvFile)))) {
             // Заголовок
-            pw.println("size,avg_time_ms,std_time_ms,avg_mem_delta_mb,nlog2n,n");
+            pw.println("size,avg_time_ms,std_time_ms,avg_mem_delta_mb,nlog2n,n,avg_parallel_ms,avg_radix_ms");
 
             Comparator comp = new IntegerType().getTypeComparator();
 
@@ -86,6 +86,8 @@ public class SingleLinkedListSortBenchmarkTest {
                 // Замеры
                 double[] timesMs = new double[MEASURE_ROUNDS];
                 double[] memDeltasMb = new double[MEASURE_ROUNDS];
+                double[] parallelMs = new double[MEASURE_ROUNDS];
+                double[] radixMs = new double[MEASURE_ROUNDS];
 
                 for (int r = 0; r < MEASURE_ROUNDS; r++) {
                     // Принудительная GC + пауза
@@ -116,6 +118,22 @@ public class SingleLinkedListSortBenchmarkTest {
                     timesMs[r] = (t1 - t0) / 1_000_000.0;
                     double memDeltaMb = Math.max(0, (memAfter - memBefore)) / (1024.0 * 1024.0);
                     memDeltasMb[r] = memDeltaMb;
+
+                    // Параллельная сортировка того же размера
+                    var plist = createRandomList(n);
+                    long p0 = System.nanoTime();
+                    plist.sort(comp, SingleLinkedList.SORT_PARALLEL);
+                    long p1 = System.nanoTime();
+                    assertNonDecreasing(plist);
+                    parallelMs[r] = (p1 - p0) / 1_000_000.0;
+
+                    // Поразрядная сортировка того же размера
+                    var rlist = createRandomList(n);
+                    long q0 = System.nanoTime();
+                    rlist.sort(comp, SingleLinkedList.SORT_RADIX);
+                    long q1 = System.nanoTime();
+                    assertNonDecreasing(rlist);
+                    radixMs[r] = (q1 - q0) / 1_000_000.0;
                 }
 
                 // Статистика
@@ -123,10 +141,12 @@ public class SingleLinkedListSortBenchmarkTest {
                 double stdTime = calculateStdDev(timesMs, avgTime);
                 double avgMem = Arrays.stream(memDeltasMb).average().orElse(0);
                 double nlog2n = n * (Math.log(n) / Math.log(2));
+                double avgParallel = Arrays.stream(parallelMs).average().orElse(0);
+                double avgRadix = Arrays.stream(radixMs).average().orElse(0);
 
                 // Запись в CSV
-                pw.printf(Locale.US, "%d,%.4f,%.4f,%.4f,%.2f,%d%n",
-                        n, avgTime, stdTime, avgMem, nlog2n, n);
+                pw.printf(Locale.US, "%d,%.4f,%.4f,%.4f,%.2f,%d,%.4f,%.4f%n",
+                        n, avgTime, stdTime, avgMem, nlog2n, n, avgParallel, avgRadix);
                 pw.flush();
             }
         }
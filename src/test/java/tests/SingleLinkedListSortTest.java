@@ -129,4 +129,29 @@ class SingleLinkedListSortTest {
         var second = (Fraction) list.get(1);
         assertTrue(first.toDouble() <= second.toDouble());
     }
-}
\ No newline at end of file
+
+    // == Вырожденный вход для quick ==
+
+    // Много равных элементов и уже упорядоченный список после правки: без квадратичного
+    // времени и переполнения стека (Fraction и String сортируются через массив, не движком)
+    @Test
+    void testQuickSortOnAllEqualAndNearlySorted() {
+        int n = 200_000;
+        var equal = new SingleLinkedList(new FractionType());
+        for (int i = 0; i < n; i++) equal.add(new Fraction(0, 1, 2));
+        var st = equal.sort(equal.prototype.getTypeComparator(), SingleLinkedList.SORT_QUICK);
+        assertEquals(n, equal.size());
+        assertTrue(st.comparisons < 4L * n, "comparisons " + st.comparisons);
+
+        var strings = new SingleLinkedList(new StringType());
+        for (int i = 0; i < n; i++) strings.add(String.format("%07d", i));
+        strings.sort(strings.prototype.getTypeComparator(), SingleLinkedList.SORT_QUICK);
+        // Правка сбрасывает признак упорядоченности, и сортировка идёт заново
+        strings.add("0000000");
+        st = strings.sort(strings.prototype.getTypeComparator(), SingleLinkedList.SORT_QUICK);
+        assertTrue(st.comparisons < 40L * n, "comparisons " + st.comparisons);
+        assertEquals("0000000", strings.get(0));
+        assertEquals("0000000", strings.get(1));
+        for (int i = 2; i <= n; i++) assertEquals(String.format("%07d", i - 1), strings.get(i));
+    }
+}
@@ -0,0 +1,114 @@
+package tests;
+
+import data.*;
+import list.SingleLinkedList;
+import list.SkipListStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkipListStorageTest {
+
+    private SingleLinkedList createIntegerList(Integer... values) {
+        SingleLinkedList list = new SingleLinkedList(new IntegerType(), new SkipListStorage());
+        for (Integer v : values) {
+            list.add(v);
+        }
+        return list;
+    }
+
+    private void assertListEquals(SingleLinkedList list, Integer... expected) {
+        assertEquals(expected.length, list.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], list.get(i));
+        }
+    }
+
+    // == Позиционные операции ==
+
+    // Вставка в начало, середину и конец
+    @Test
+    void testInsertPositions() {
+        var list = createIntegerList(2, 4);
+        list.insert(0, 1);
+        list.insert(2, 3);
+        list.insert(4, 5);
+        assertListEquals(list, 1, 2, 3, 4, 5);
+    }
+
+    // Удаление первого, среднего и последнего
+    @Test
+    void testRemovePositions() {
+        var list = createIntegerList(1, 2, 3, 4, 5);
+        assertEquals(1, list.remove(0));
+        assertEquals(3, list.remove(1));
+        assertEquals(5, list.remove(2));
+        assertListEquals(list, 2, 4);
+    }
+
+    // Удаление всех элементов и повторное заполнение
+    @Test
+    void testRemoveAllThenAdd() {
+        var list = createIntegerList(1, 2, 3);
+        while (list.size() > 0) list.remove(0);
+        assertListEquals(list);
+        list.add(9);
+        list.insert(0, 8);
+        assertListEquals(list, 8, 9);
+    }
+
+    // Выход за границы
+    @Test
+    void testIndexOutOfRange() {
+        var list = createIntegerList(1, 2);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.remove(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.insert(3, 0));
+    }
+
+    // Случайная последовательность операций сверяется с ArrayList
+    @Test
+    void testRandomOperationsMatchArrayList() {
+        var list = createIntegerList();
+        ArrayList<Integer> ref = new ArrayList<>();
+        Random rnd = new Random(42);
+        for (int op = 0; op < 20_000; op++) {
+            int kind = rnd.nextInt(4);
+            if (kind == 0 || ref.isEmpty()) {
+                int idx = rnd.nextInt(ref.size() + 1);
+                int v = rnd.nextInt(1000);
+                list.insert(idx, v);
+                ref.add(idx, v);
+            } else if (kind == 1) {
+                int idx = rnd.nextInt(ref.size());
+                assertEquals(ref.remove(idx), list.remove(idx));
+            } else if (kind == 2) {
+                int v = rnd.nextInt(1000);
+                list.add(v);
+                ref.add(v);
+            } else {
+                int idx = rnd.nextInt(ref.size());
+                assertEquals(ref.get(idx), list.get(idx));
+            }
+        }
+        assertEquals(ref, new ArrayList<>(list.toArrayList()));
+    }
+
+    // == Сортировка ==
+
+    @Test
+    void testSortReverse() {
+        var list = createIntegerList(5, 4, 3, 2, 1);
+        list.sort(new IntegerType().getTypeComparator());
+        assertListEquals(list, 1, 2, 3, 4, 5);
+    }
+
+    @Test
+    void testSortDuplicatesMixed() {
+        var list = createIntegerList(3, 1, 4, 1, 5, 9, 2, 6, 5);
+        list.sort(new IntegerType().getTypeComparator());
+        assertListEquals(list, 1, 1, 2, 3, 4, 5, 5, 6, 9);
+    }
+}
@@ -0,0 +1,115 @@
+package tests;
+
+import data.*;
+import data.Comparator;
+import list.SingleLinkedList;
+import list.SkipListStorage;
+import list.SortStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedListTest {
+
+    private static final Comparator NATURAL = new IntegerType().getTypeComparator();
+
+    private SingleLinkedList sortedList(int... values) {
+        SingleLinkedList list = new SingleLinkedList(new IntegerType(), new SkipListStorage());
+        for (int v : values) list.add(v);
+        list.sort(NATURAL);
+        return list;
+    }
+
+    // == Признак упорядоченности ==
+
+    @Test
+    void testSortSetsFlag() {
+        SingleLinkedList list = new SingleLinkedList(new IntegerType());
+        list.add(3);
+        list.add(1);
+        assertFalse(list.isSorted());
+        list.sort(NATURAL);
+        assertTrue(list.isSortedBy(NATURAL));
+    }
+
+    // Записи в порядке флаг сохраняют, нарушающие порядок — сбрасывают
+    @Test
+    void testMutationsKeepOrInvalidateFlag() {
+        SingleLinkedList list = sortedList(1, 3, 5);
+        list.add(7);
+        list.insert(1, 2);
+        list.set(2, 3);
+        list.remove(0);
+        assertTrue(list.isSorted());
+        list.insert(0, 9);
+        assertFalse(list.isSorted());
+
+        list = sortedList(1, 3, 5);
+        list.set(1, 6);
+        assertFalse(list.isSorted());
+
+        list = sortedList(1, 3, 5);
+        list.add(0);
+        assertFalse(list.isSorted());
+    }
+
+    // Повторная сортировка упорядоченного списка ничего не делает
+    @Test
+    void testResortIsFree() {
+        SingleLinkedList list = sortedList(5, 1, 3);
+        long version = list.version();
+        SortStats st = list.sort(NATURAL, SingleLinkedList.SORT_QUICK);
+        assertEquals(-1, st.comparisons);
+        assertEquals(version, list.version());
+    }
+
+    // == Поиск и вставка по порядку ==
+
+    @Test
+    void testBinarySearchFindsFirstEqual() {
+        SingleLinkedList list = sortedList(4, 2, 2, 8, 2, 6);
+        assertEquals(0, list.indexOf(2));
+        assertEquals(3, list.indexOf(4));
+        assertEquals(5, list.indexOf(8));
+        assertEquals(-1, list.indexOf(5));
+        assertEquals(-1, list.indexOf(100));
+    }
+
+    // Случайные вставки по порядку дают тот же список, что сортировка
+    @Test
+    void testInsertSortedMatchesSort() {
+        Random rnd = new Random(9);
+        SingleLinkedList list = new SingleLinkedList(new IntegerType(), new SkipListStorage());
+        ArrayList<Integer> ref = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int v = rnd.nextInt(1000);
+            int pos = list.insertSorted(v, NATURAL);
+            assertEquals(v, list.get(pos));
+            ref.add(v);
+        }
+        Collections.sort(ref);
+        for (int i = 0; i < ref.size(); i++) assertEquals(ref.get(i), list.get(i));
+        assertTrue(list.isSortedBy(NATURAL));
+        for (int q = 0; q < 1000; q += 37) assertEquals(ref.indexOf(q), list.indexOf(q));
+    }
+
+    // Равный элемент встаёт после существующих
+    @Test
+    void testInsertSortedAfterEquals() {
+        SingleLinkedList list = sortedList(1, 2, 2, 3);
+        assertEquals(3, list.insertSorted(2, NATURAL));
+    }
+
+    @Test
+    void testInsertSortedRequiresOrder() {
+        SingleLinkedList list = new SingleLinkedList(new IntegerType());
+        list.add(3);
+        list.add(1);
+        assertThrows(IllegalStateException.class, () -> list.insertSorted(2, NATURAL));
+        list.sort(NATURAL);
+        assertEquals(1, list.insertSorted(2, NATURAL));
+        assertThrows(IllegalArgumentException.class, () -> list.insertSorted(null, NATURAL));
+    }
+}